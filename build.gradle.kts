@@ -74,6 +74,19 @@ sourceSets {
       srcDir(generatedSourcesDir)
     }
   }
+  create("jmh") {
+    compileClasspath += sourceSets["main"].output
+    runtimeClasspath += sourceSets["main"].output
+  }
+}
+
+val jmhImplementation by configurations.getting {
+  extendsFrom(configurations.implementation.get())
+}
+
+dependencies {
+  jmhImplementation("org.openjdk.jmh:jmh-core:1.27")
+  "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.27")
 }
 
 tasks.withType<JavaCompile> {
@@ -123,10 +136,22 @@ tasks.test {
   testLogging.showStandardStreams = true
   systemProperty("golo.test.trace", "yes")
   systemProperty("java.awt.headless", "true")
+  systemProperty("golo.cache", "false")
+  systemProperty("golo.cache.dir", "$buildDir/golo-cache")
   environment("golo.bootstrapped", "yes")
   classpath = files(sourceSets["test"].runtimeClasspath, goloClasses)
 }
 
+tasks.register<JavaExec>("jmh") {
+  dependsOn("goloc", "jmhClasses")
+  description = "Runs the JMH benchmarks (use -Pjmh.include=<regexp> to select some of them)."
+  group = "Verification"
+
+  main = "org.openjdk.jmh.Main"
+  classpath = files(sourceSets["jmh"].runtimeClasspath, goloClasses)
+  args = if (project.hasProperty("jmh.include")) listOf(project.property("jmh.include") as String) else listOf()
+}
+
 testlogger {
   theme = MOCHA
   slowThreshold = 5000
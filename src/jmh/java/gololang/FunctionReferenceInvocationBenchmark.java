@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package gololang;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.invoke.MethodType.genericMethodType;
+
+/**
+ * Invocations of a function reference from Java code, compared to {@code invokeWithArguments}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FunctionReferenceInvocationBenchmark {
+
+  public static Object add(Object a, Object b) {
+    return (Integer) a + (Integer) b;
+  }
+
+  private FunctionReference function;
+  private Object a = 1;
+  private Object b = 2;
+
+  @Setup
+  public void setup() throws Throwable {
+    function = new FunctionReference(MethodHandles.lookup()
+        .findStatic(FunctionReferenceInvocationBenchmark.class, "add", genericMethodType(2)));
+  }
+
+  @Benchmark
+  public Object invoke_with_arguments() throws Throwable {
+    return function.handle().invokeWithArguments(a, b);
+  }
+
+  @Benchmark
+  public Object invoke_varargs() throws Throwable {
+    return function.invoke(a, b);
+  }
+
+  @Benchmark
+  public Object invoke2() throws Throwable {
+    return function.invoke2(a, b);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import gololang.FunctionReference;
+import org.eclipse.golo.compiler.GoloClassLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.invoke.MethodType.genericMethodType;
+
+/**
+ * Latency of the augmentation lookup done when linking a method invocation call site.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AugmentationLookupBenchmark {
+
+  private static final String MODULE = String.join("\n",
+      "module bench.AugmentationLookup",
+      "augment java.util.LinkedList {",
+      "  function plop = |this| -> \"plop\"",
+      "}");
+
+  private MethodHandles.Lookup lookup;
+  private MethodInvocation listMap;
+  private MethodInvocation localAugmentation;
+  private MethodInvocation missing;
+
+  @Setup
+  public void setup() {
+    GoloClassLoader loader = new GoloClassLoader(AugmentationLookupBenchmark.class.getClassLoader());
+    Class<?> module = loader.load("augmentation-lookup.golo", new StringReader(MODULE));
+    lookup = MethodHandles.lookup().in(module);
+    FunctionReference identity = new FunctionReference(MethodHandles.identity(Object.class));
+    String[] noNames = new String[0];
+    listMap = new MethodInvocation("map", genericMethodType(2),
+        new Object[]{new ArrayList<>(Arrays.asList(1, 2, 3)), identity}, noNames);
+    localAugmentation = new MethodInvocation("plop", genericMethodType(1),
+        new Object[]{new LinkedList<>()}, noNames);
+    missing = new MethodInvocation("doesNotExist", genericMethodType(1),
+        new Object[]{new ArrayList<>()}, noNames);
+  }
+
+  @Benchmark
+  public MethodHandle standard_augmentation() {
+    return new AugmentationMethodFinder(listMap, lookup).find();
+  }
+
+  @Benchmark
+  public MethodHandle local_augmentation() {
+    return new AugmentationMethodFinder(localAugmentation, lookup).find();
+  }
+
+  @Benchmark
+  public MethodHandle missing_method() {
+    return new AugmentationMethodFinder(missing, lookup).find();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static java.lang.invoke.MethodType.genericMethodType;
+
+/**
+ * Conversions of function handles to a functional interface, and calls of the converted instances.
+ * <p>
+ * Direct method handles are the lambda implementation, while closures with bound arguments go through
+ * the generic bridge.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FunctionalInterfaceConversionBenchmark {
+
+  public static Object add(Object a, Object b) {
+    return (Integer) a + (Integer) b;
+  }
+
+  public static Object addWithOffset(Object offset, Object a, Object b) {
+    return (Integer) offset + (Integer) a + (Integer) b;
+  }
+
+  private MethodHandles.Lookup lookup;
+  private MethodHandle direct;
+  private MethodHandle closure;
+  private BiFunction<Object, Object, Object> directInstance;
+  private BiFunction<Object, Object, Object> closureInstance;
+  private Object a = 1;
+  private Object b = 2;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() throws Throwable {
+    lookup = MethodHandles.lookup();
+    direct = lookup.findStatic(FunctionalInterfaceConversionBenchmark.class, "add", genericMethodType(2));
+    closure = MethodHandles.insertArguments(
+        lookup.findStatic(FunctionalInterfaceConversionBenchmark.class, "addWithOffset", genericMethodType(3)),
+        0, 0);
+    directInstance = (BiFunction<Object, Object, Object>) FunctionCallSupport.asFunctionalInterface(lookup, BiFunction.class, direct);
+    closureInstance = (BiFunction<Object, Object, Object>) FunctionCallSupport.asFunctionalInterface(lookup, BiFunction.class, closure);
+  }
+
+  @Benchmark
+  public Object convert_direct() throws Throwable {
+    return FunctionCallSupport.asFunctionalInterface(lookup, BiFunction.class, direct);
+  }
+
+  @Benchmark
+  public Object convert_closure() throws Throwable {
+    return FunctionCallSupport.asFunctionalInterface(lookup, BiFunction.class, closure);
+  }
+
+  @Benchmark
+  public Object call_direct() {
+    return directInstance.apply(a, b);
+  }
+
+  @Benchmark
+  public Object call_closure() {
+    return closureInstance.apply(a, b);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.invoke.MethodHandles.lookup;
+
+/**
+ * Null-safe method invocation chains ({@code value?: trim()?: length()}) over arrays of strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NullSafeInvocationBenchmark {
+
+  private static final MethodType UNARY_TYPE = MethodType.genericMethodType(1);
+  private static final int SIZE = 1000;
+
+  private static final MethodHandle SAFE_TRIM = invocation("trim", 1);
+  private static final MethodHandle SAFE_LENGTH = invocation("length", 1);
+  private static final MethodHandle TRIM = invocation("trim", 0);
+  private static final MethodHandle LENGTH = invocation("length", 0);
+
+  private static MethodHandle invocation(String name, int nullSafe) {
+    return MethodInvocationSupport.bootstrap(lookup(), name, UNARY_TYPE, nullSafe).dynamicInvoker();
+  }
+
+  private Object[] values;
+  private Object[] someNulls;
+
+  @Setup
+  public void setup() {
+    values = new Object[SIZE];
+    someNulls = new Object[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = String.valueOf(i);
+      someNulls[i] = (i % 4 == 0) ? null : values[i];
+    }
+  }
+
+  private static int chain(MethodHandle trim, MethodHandle length, Object[] values) throws Throwable {
+    int count = 0;
+    for (Object value : values) {
+      Object result = (Object) length.invokeExact((Object) trim.invokeExact(value));
+      if (result != null) {
+        count += (Integer) result;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int plain_chain() throws Throwable {
+    return chain(TRIM, LENGTH, values);
+  }
+
+  @Benchmark
+  public int nullsafe_chain() throws Throwable {
+    return chain(SAFE_TRIM, SAFE_LENGTH, values);
+  }
+
+  @Benchmark
+  public int nullsafe_chain_with_nulls() throws Throwable {
+    return chain(SAFE_TRIM, SAFE_LENGTH, someNulls);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.invoke.MethodHandles.lookup;
+
+/**
+ * Sum loops over arrays of boxed numbers, through the operator call sites.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OperatorDispatchBenchmark {
+
+  private static final MethodType BINOP_TYPE = MethodType.genericMethodType(2);
+  private static final int SIZE = 1000;
+
+  private static final MethodHandle INTEGER_PLUS = plus();
+  private static final MethodHandle MIXED_PLUS = plus();
+  private static final MethodHandle MEGAMORPHIC_PLUS = plus();
+
+  private static MethodHandle plus() {
+    try {
+      return OperatorSupport.bootstrap(lookup(), "plus", BINOP_TYPE, 2).dynamicInvoker();
+    } catch (ReflectiveOperationException e) {
+      throw new Error(e);
+    }
+  }
+
+  private Object[] integers;
+  private Object[] mixed;
+  private Object[] megamorphic;
+
+  @Setup
+  public void setup() {
+    integers = new Object[SIZE];
+    mixed = new Object[SIZE];
+    megamorphic = new Object[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      integers[i] = i;
+      switch (i % 3) {
+        case 0:
+          mixed[i] = i;
+          break;
+        case 1:
+          mixed[i] = (long) i;
+          break;
+        default:
+          mixed[i] = (double) i;
+      }
+      switch (i % 5) {
+        case 0:
+          megamorphic[i] = i;
+          break;
+        case 1:
+          megamorphic[i] = (long) i;
+          break;
+        case 2:
+          megamorphic[i] = (double) i;
+          break;
+        case 3:
+          megamorphic[i] = (float) i;
+          break;
+        default:
+          megamorphic[i] = (char) i;
+      }
+    }
+  }
+
+  private static Object sum(MethodHandle plus, Object[] values) throws Throwable {
+    Object sum = 0;
+    for (Object value : values) {
+      sum = (Object) plus.invokeExact(sum, value);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public Object integer_sum() throws Throwable {
+    return sum(INTEGER_PLUS, integers);
+  }
+
+  @Benchmark
+  public Object integer_long_double_sum() throws Throwable {
+    return sum(MIXED_PLUS, mixed);
+  }
+
+  @Benchmark
+  public Object megamorphic_sum() throws Throwable {
+    return sum(MEGAMORPHIC_PLUS, megamorphic);
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package gololang;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * Builds the result of a collection comprehension.
+ * <p>
+ * The compiled comprehensions create a builder with the factory of their collection type, append each
+ * element with {@link #append(ComprehensionBuilder, Object)} and get the collection with
+ * {@link #result(ComprehensionBuilder)}. When the comprehension iterates over a single collection,
+ * array or range, its size is used to presize the result.
+ * <p>
+ * The elements of array and tuple comprehensions are stored in an array that becomes the result, such
+ * that no intermediate collection is copied.
+ */
+public final class ComprehensionBuilder {
+
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private final CollectionKind kind;
+  private final Collection<Object> collection;
+  private final Map<Object, Object> map;
+  private Object[] elements;
+  private int size;
+
+  private enum CollectionKind {
+    COLLECTION, MAP, ARRAY, TUPLE
+  }
+
+  private ComprehensionBuilder(CollectionKind kind, Collection<Object> collection, Map<Object, Object> map, int capacity) {
+    this.kind = kind;
+    this.collection = collection;
+    this.map = map;
+    if (kind == CollectionKind.ARRAY || kind == CollectionKind.TUPLE) {
+      this.elements = new Object[capacity];
+    }
+  }
+
+  /**
+   * Returns the number of elements of a comprehension iterating over the given value, or a negative
+   * value if it is not known.
+   */
+  static int sizeOf(Object source) {
+    if (source instanceof Collection) {
+      return ((Collection<?>) source).size();
+    }
+    if (source != null && source.getClass().isArray()) {
+      return Array.getLength(source);
+    }
+    return -1;
+  }
+
+  private static int capacity(Object source) {
+    int size = sizeOf(source);
+    return size < 0 ? DEFAULT_CAPACITY : size;
+  }
+
+  private static int hashCapacity(Object source) {
+    return Math.max(16, (int) (sizeOf(source) / 0.75f) + 1);
+  }
+
+  /**
+   * Creates a builder of a {@code list} comprehension.
+   *
+   * @param source the iterated value if the comprehension iterates over a single value, or {@code null}.
+   */
+  public static ComprehensionBuilder list(Object source) {
+    return new ComprehensionBuilder(CollectionKind.COLLECTION, new LinkedList<>(), null, 0);
+  }
+
+  /**
+   * Creates a builder of a {@code vector} comprehension.
+   *
+   * @param source the iterated value if the comprehension iterates over a single value, or {@code null}.
+   */
+  public static ComprehensionBuilder vector(Object source) {
+    return new ComprehensionBuilder(CollectionKind.COLLECTION, new ArrayList<>(capacity(source)), null, 0);
+  }
+
+  /**
+   * Creates a builder of a {@code set} comprehension.
+   *
+   * @param source the iterated value if the comprehension iterates over a single value, or {@code null}.
+   */
+  public static ComprehensionBuilder set(Object source) {
+    return new ComprehensionBuilder(CollectionKind.COLLECTION, new LinkedHashSet<>(hashCapacity(source)), null, 0);
+  }
+
+  /**
+   * Creates a builder of a {@code map} comprehension.
+   *
+   * @param source the iterated value if the comprehension iterates over a single value, or {@code null}.
+   */
+  public static ComprehensionBuilder map(Object source) {
+    return new ComprehensionBuilder(CollectionKind.MAP, null, new LinkedHashMap<>(hashCapacity(source)), 0);
+  }
+
+  /**
+   * Creates a builder of an {@code array} comprehension.
+   *
+   * @param source the iterated value if the comprehension iterates over a single value, or {@code null}.
+   */
+  public static ComprehensionBuilder array(Object source) {
+    return new ComprehensionBuilder(CollectionKind.ARRAY, null, null, capacity(source));
+  }
+
+  /**
+   * Creates a builder of a {@code tuple} comprehension.
+   *
+   * @param source the iterated value if the comprehension iterates over a single value, or {@code null}.
+   */
+  public static ComprehensionBuilder tuple(Object source) {
+    return new ComprehensionBuilder(CollectionKind.TUPLE, null, null, capacity(source));
+  }
+
+  /**
+   * Appends an element to the comprehension result.
+   * <p>
+   * The elements of a {@code map} comprehension are either 2-tuples {@code [key, value]} or map
+   * entries.
+   */
+  public static void append(ComprehensionBuilder builder, Object element) {
+    switch (builder.kind) {
+      case COLLECTION:
+        builder.collection.add(element);
+        break;
+      case MAP:
+        builder.put(element);
+        break;
+      default:
+        if (builder.size == builder.elements.length) {
+          builder.elements = Arrays.copyOf(builder.elements, Math.max(DEFAULT_CAPACITY, builder.size + (builder.size >> 1)));
+        }
+        builder.elements[builder.size++] = element;
+    }
+  }
+
+  private void put(Object element) {
+    if (element instanceof Tuple && ((Tuple) element).size() == 2) {
+      Tuple entry = (Tuple) element;
+      map.put(entry.get(0), entry.get(1));
+    } else if (element instanceof Map.Entry) {
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) element;
+      map.put(entry.getKey(), entry.getValue());
+    } else {
+      throw new IllegalArgumentException(
+          "expected a 2-tuple or a Map.Entry, got a " + (element == null ? null : element.getClass()));
+    }
+  }
+
+  /**
+   * Returns the result of the comprehension.
+   */
+  public static Object result(ComprehensionBuilder builder) {
+    switch (builder.kind) {
+      case COLLECTION:
+        return builder.collection;
+      case MAP:
+        return builder.map;
+      default:
+        Object[] values = builder.size == builder.elements.length
+          ? builder.elements
+          : Arrays.copyOf(builder.elements, builder.size);
+        builder.elements = null;
+        return builder.kind == CollectionKind.TUPLE ? Tuple.owning(values) : values;
+    }
+  }
+}
@@ -198,14 +198,14 @@ public final class DynamicObject {
       if (value instanceof FunctionReference) {
         FunctionReference funRef = (FunctionReference) value;
         if (funRef.acceptArity(1)) {
-          return funRef.invoke(object);
+          return funRef.invoke1(object);
         }
       }
       return value;
     }
     if (object.hasFallback()) {
       FunctionReference funRef = (FunctionReference) object.properties.get("fallback");
-      return funRef.invoke(object, property);
+      return funRef.invoke2(object, property);
     }
     return null;
   }
@@ -228,7 +228,7 @@ public final class DynamicObject {
           if (funRef.isVarargsCollector() && arg instanceof Object[]) {
             return funRef.handle().invokeExact((Object) object, (Object[]) arg);
           }
-          return funRef.invoke(object, arg);
+          return funRef.invoke2(object, arg);
         }
       }
     }
@@ -72,7 +72,7 @@ public final class DynamicVariable {
     Object oldValue = value();
     this.value(value);
     try {
-      return func.invoke();
+      return func.invoke0();
     } finally {
       this.value(oldValue);
     }
@@ -19,19 +19,25 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * An evaluation environment offers facilities for dynamic code compilation, loading and execution from Golo code as
  * strings.
  * <p>
  * An evaluation environment is reusable across several executions. The only exception is when using {@code asModule()},
- * as attempts to load a module with the same name as an already loaded one fails.
+ * as attempts to load a module with the same name as an already loaded one fails. Use {@code reload()} to define a new
+ * version of such a module.
  * <p>
  * Each instance of this class uses a dedicated {@link GoloClassLoader}, hence usual rules about classloader delegation
  * and isolation apply to evaluation environments.
  * <p>
- * While dynamic code evaluation is useful, it shall still be used with care and parsimony. It is especially important
- * not to abuse {@code run()}, as each invocation triggers the generation of a one-shot class.
+ * While dynamic code evaluation is useful, it shall still be used with care and parsimony. Each code evaluated by
+ * {@code run()}, {@code def()} or {@code asFunction()} is compiled into a one-shot class. These classes are kept in a
+ * bounded cache, keyed by the code, the imports and the argument names, such that evaluating the same code again does
+ * not compile it again. Each of them is defined in its own class loader, and can thus be garbage collected once evicted
+ * from the cache and no longer referenced. The cache holds 256 entries by default, which can be changed with the
+ * {@code golo.eval.cache.size} system property or the {@link #cacheSize(int)} method.
  * <p>
  * Here is an example usage of this API:
  * <pre class="listing"><code class="lang-golo" data-lang="golo">
@@ -53,8 +59,24 @@ import java.util.*;
  */
 public class EvaluationEnvironment {
 
+  private static final int CACHE_SIZE = Integer.getInteger("golo.eval.cache.size", 256);
+
   private final GoloClassLoader goloClassLoader;
   private final List<String> imports = new LinkedList<>();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder cacheEvictions = new LongAdder();
+  private int cacheSize = CACHE_SIZE;
+  private final LinkedHashMap<String, Class<?>> snippets = new LinkedHashMap<String, Class<?>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Class<?>> eldest) {
+      if (size() > cacheSize) {
+        cacheEvictions.increment();
+        return true;
+      }
+      return false;
+    }
+  };
 
   private static String anonymousFilename() {
     return "$Anonymous$_" + System.nanoTime() + ".golo";
@@ -110,6 +132,59 @@ public class EvaluationEnvironment {
     return this;
   }
 
+  /**
+   * Returns the maximum number of evaluated codes whose class is cached.
+   */
+  public int cacheSize() {
+    synchronized (snippets) {
+      return cacheSize;
+    }
+  }
+
+  /**
+   * Defines the maximum number of evaluated codes whose class is cached, evicting the least recently used ones if
+   * needed.
+   *
+   * @param size the new maximum number of entries, {@code 0} to disable the cache.
+   * @return this evaluation environment.
+   */
+  public EvaluationEnvironment cacheSize(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("The cache size can't be negative: " + size);
+    }
+    synchronized (snippets) {
+      cacheSize = size;
+      Iterator<Class<?>> eldest = snippets.values().iterator();
+      while (snippets.size() > size) {
+        eldest.next();
+        eldest.remove();
+        cacheEvictions.increment();
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns the number of evaluations whose class was found in the cache.
+   */
+  public long cacheHits() {
+    return cacheHits.sum();
+  }
+
+  /**
+   * Returns the number of evaluations that compiled their code.
+   */
+  public long cacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  /**
+   * Returns the number of classes evicted from the cache.
+   */
+  public long cacheEvictions() {
+    return cacheEvictions.sum();
+  }
+
   /**
    * Evaluates a complete module string.
    *<p>
@@ -144,6 +219,29 @@ public class EvaluationEnvironment {
     }
   }
 
+  /**
+   * Evaluates a complete module string as a new version of the module.
+   * <p>
+   * The module is defined even if it was not previously loaded. Otherwise, the functions, augmentations and types of
+   * the previous version are replaced by the ones of the new version for all the modules of this environment: call
+   * sites that resolved into the previous version relink on their next invocation. Code of the previous version that is
+   * still running keeps calling its own functions.
+   *
+   * @param source the module Golo source code as a string.
+   * @return the new version of the module, as a {@link Class}.
+   * @see GoloClassLoader#reload(java.util.List)
+   */
+  public Object reload(String source) {
+    try (Reader in = new StringReader(source)) {
+      return goloClassLoader.reload(anonymousFilename(), in);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } catch (GoloCompilationException e) {
+      e.setSourceCode(source);
+      throw e;
+    }
+  }
+
   /**
    * Loads an anonymous module. This is the same as {@link #asModule(String)}, except that the code does not contain
    * a {@code module} declaration.
@@ -255,9 +353,7 @@ public class EvaluationEnvironment {
   }
 
   private Class<?> wrapAndLoad(String source, String... argumentNames) {
-    StringBuilder builder = new StringBuilder()
-        .append(anonymousModuleName())
-        .append("\n");
+    StringBuilder builder = new StringBuilder();
     for (String importSymbol : imports) {
       builder.append("import ").append(importSymbol).append("\n");
     }
@@ -278,7 +374,32 @@ public class EvaluationEnvironment {
         .append(source)
         .append("\n}\n\n")
         .append("function $_code_ref = -> ^$_code\n\n");
-    return (Class<?>) asModule(builder.toString());
+    String code = builder.toString();
+    Class<?> module;
+    synchronized (snippets) {
+      module = snippets.get(code);
+    }
+    if (module != null) {
+      cacheHits.increment();
+      return module;
+    }
+    cacheMisses.increment();
+    module = loadIsolated(anonymousModuleName() + "\n" + code);
+    synchronized (snippets) {
+      snippets.put(code, module);
+    }
+    return module;
+  }
+
+  private Class<?> loadIsolated(String source) {
+    try (Reader in = new StringReader(source)) {
+      return goloClassLoader.loadIsolated(anonymousFilename(), in);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } catch (GoloCompilationException e) {
+      e.setSourceCode(source);
+      throw e;
+    }
   }
 
   private Object loadAndRun(String source, String target, String... argumentNames) {
@@ -36,6 +36,19 @@ public class FunctionReference {
 
   private final String[] parameterNames;
 
+  private static final MethodType[] GENERIC_TYPES = {
+    MethodType.genericMethodType(0),
+    MethodType.genericMethodType(1),
+    MethodType.genericMethodType(2),
+    MethodType.genericMethodType(3),
+    MethodType.genericMethodType(4),
+    MethodType.genericMethodType(5)
+  };
+
+  // The handle adapted to the generic types, indexed by arity. Since method handles are immutable,
+  // concurrent initializations are harmless.
+  private MethodHandle[] invokers;
+
   /**
    * Makes a function reference from a method handle.
    *
@@ -153,8 +166,91 @@ public class FunctionReference {
     return arity() == nb || (nb >= arity() - 1 && isVarargsCollector());
   }
 
+  /**
+   * Invokes the function with the given arguments.
+   * <p>
+   * Invocations with up to 5 arguments use the same exact invokers as {@link #invoke0()} to
+   * {@link #invoke5(Object, Object, Object, Object, Object)}.
+   */
   public Object invoke(Object... args) throws Throwable {
-    return handle.invokeWithArguments(args);
+    switch (args.length) {
+      case 0:
+        return invoke0();
+      case 1:
+        return invoke1(args[0]);
+      case 2:
+        return invoke2(args[0], args[1]);
+      case 3:
+        return invoke3(args[0], args[1], args[2]);
+      case 4:
+        return invoke4(args[0], args[1], args[2], args[3]);
+      case 5:
+        return invoke5(args[0], args[1], args[2], args[3], args[4]);
+      default:
+        return handle.invokeWithArguments(args);
+    }
+  }
+
+  /**
+   * Returns the handle adapted to the generic type of the given arity.
+   * <p>
+   * The adaptation is the same as the one done by {@link MethodHandle#invokeWithArguments(Object...)},
+   * but is cached such that the handle can be invoked exactly.
+   */
+  private MethodHandle invoker(int arity) {
+    MethodHandle[] cache = invokers;
+    if (cache == null) {
+      cache = new MethodHandle[GENERIC_TYPES.length];
+      invokers = cache;
+    }
+    MethodHandle invoker = cache[arity];
+    if (invoker == null) {
+      invoker = handle.asType(GENERIC_TYPES[arity]);
+      cache[arity] = invoker;
+    }
+    return invoker;
+  }
+
+  /**
+   * Invokes the function without arguments.
+   */
+  public Object invoke0() throws Throwable {
+    return (Object) invoker(0).invokeExact();
+  }
+
+  /**
+   * Invokes the function with one argument.
+   */
+  public Object invoke1(Object a) throws Throwable {
+    return (Object) invoker(1).invokeExact(a);
+  }
+
+  /**
+   * Invokes the function with two arguments.
+   */
+  public Object invoke2(Object a, Object b) throws Throwable {
+    return (Object) invoker(2).invokeExact(a, b);
+  }
+
+  /**
+   * Invokes the function with three arguments.
+   */
+  public Object invoke3(Object a, Object b, Object c) throws Throwable {
+    return (Object) invoker(3).invokeExact(a, b, c);
+  }
+
+  /**
+   * Invokes the function with four arguments.
+   */
+  public Object invoke4(Object a, Object b, Object c, Object d) throws Throwable {
+    return (Object) invoker(4).invokeExact(a, b, c, d);
+  }
+
+  /**
+   * Invokes the function with five arguments.
+   */
+  public Object invoke5(Object a, Object b, Object c, Object d, Object e) throws Throwable {
+    return (Object) invoker(5).invokeExact(a, b, c, d, e);
   }
 
   /**
@@ -168,7 +264,7 @@ public class FunctionReference {
     if (args.length < arity()) {
       return insertArguments(0, args);
     }
-    return handle.invokeWithArguments(args);
+    return invoke(args);
   }
 
   @Override
@@ -108,7 +108,7 @@ public class LazyList implements Collection<Object>, HeadTail<Object> {
   public LazyList tail() {
     if (memoTail == null) {
       try {
-        memoTail = (LazyList) (this.tail.invoke());
+        memoTail = (LazyList) (this.tail.invoke0());
       } catch (Throwable e) {
         memoTail = EMPTY;
       }
@@ -435,12 +435,13 @@ public final class Predefined {
     final boolean isVarargs = (Boolean) varargs;
     Method targetMethod = null;
     Predicate<Method> candidate = Extractors.matchFunctionReference(functionName, functionArity, isVarargs);
-    final List<Method> validCandidates = Extractors.getMethods(moduleClass)
+    final List<Method> validCandidates = Extractors.getMethods(moduleClass, functionName)
         .filter(candidate)
         .collect(toList());
     if (validCandidates.size() == 1) {
       targetMethod = validCandidates.get(0);
-      if (module == caller || caller == null) {
+      if ((module == caller || caller == null) && !Extractors.isPublic(targetMethod)) {
+        targetMethod = Extractors.copyOf(targetMethod);
         targetMethod.setAccessible(true);
       }
       return toFunctionReference(targetMethod, functionArity);
@@ -935,7 +936,9 @@ public final class Predefined {
    * @return a list of the given values.
    */
   public static List<Object> list(Object... values) {
-    return new LinkedList<>(Arrays.asList(values));
+    List<Object> list = new LinkedList<>();
+    Collections.addAll(list, values);
+    return list;
   }
 
   /**
@@ -944,7 +947,9 @@ public final class Predefined {
    * @return a set of the given values.
    */
   public static Set<Object> set(Object... values) {
-    return new LinkedHashSet<>(Arrays.asList(values));
+    Set<Object> set = new LinkedHashSet<>(hashCapacity(values.length));
+    Collections.addAll(set, values);
+    return set;
   }
 
   /**
@@ -962,7 +967,9 @@ public final class Predefined {
    * @return a vector of the give values.
    */
   public static List<Object> vector(Object... values) {
-    return new ArrayList<>(Arrays.asList(values));
+    List<Object> vector = new ArrayList<>(values.length);
+    Collections.addAll(vector, values);
+    return vector;
   }
 
   /**
@@ -981,13 +988,20 @@ public final class Predefined {
    * @return a map corresponding to the given key/value pairs.
    */
   public static Map<Object, Object> map(Tuple... items) {
-    Map<Object, Object> m = new LinkedHashMap<>();
+    Map<Object, Object> m = new LinkedHashMap<>(hashCapacity(items.length));
     for (Tuple t : items) {
       m.put(t.get(0), t.get(1));
     }
     return m;
   }
 
+  /*
+   * Initial capacity of a hash based collection holding the given number of elements without rehashing.
+   */
+  private static int hashCapacity(int size) {
+    return Math.max(16, (int) (size / 0.75f) + 1);
+  }
+
   /**
    * Macro to define a special macro.
    * <p>
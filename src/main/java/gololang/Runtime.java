@@ -176,6 +176,6 @@ public final class Runtime {
    * Returns the current golo version.
    */
   public static String version() {
-    return org.eclipse.golo.cli.command.Metadata.VERSION;
+    return org.eclipse.golo.runtime.Metadata.VERSION;
   }
 }
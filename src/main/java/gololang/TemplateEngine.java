@@ -10,6 +10,11 @@
 
 package gololang;
 
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +42,13 @@ import java.util.regex.Pattern;
  * The resulting function would take a single parameter {@code persons}. When no {@code @params} clause is being
  * specified, template functions are assumed to take a single {@code params} parameter.
  * <p>
+ * The functions returned by {@link #compile(String)} build the whole text and return it. The ones returned by
+ * {@link #compileStreaming(String)} and {@link #compileStreaming(String, Charset)} take the output as an additional
+ * first parameter, and write the text to it chunk by chunk.
+ * <p>
+ * The compiled functions are cached by template, such that compiling the same template again is cheap. The cache holds
+ * 256 templates by default, which can be changed with the {@code golo.template.cache.size} system property.
+ * <p>
  * It is important to note that this template engine performs no validation, either on the template itself or the
  * generated function code. One may however catch the {@link org.eclipse.golo.compiler.GoloCompilationException}
  * that {@link #compile(String)} may throw, and inspect the faulty code using
@@ -45,10 +57,38 @@ import java.util.regex.Pattern;
  */
 public class TemplateEngine {
 
+  private static final int CACHE_SIZE = Integer.getInteger("golo.template.cache.size", 256);
+
   private final EvaluationEnvironment evaluationEnvironment = new EvaluationEnvironment();
 
+  private final Map<String, FunctionReference> templates = new LinkedHashMap<String, FunctionReference>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, FunctionReference> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
   private static final Pattern PATTERN = Pattern.compile("<%(.*?)%>", Pattern.DOTALL);
 
+  /*
+   * How the generated code outputs the text.
+   */
+  private enum Output {
+    STRING("  let _$result = java.lang.StringBuilder()\n", "_$result: append(", "  return _$result: toString()\n"),
+    APPENDABLE("", "_$out: append(", "  return _$out\n"),
+    BYTES("", "_$out: write(", "  return _$out\n");
+
+    final String prologue;
+    final String append;
+    final String epilogue;
+
+    Output(String prologue, String append, String epilogue) {
+      this.prologue = prologue;
+      this.append = append;
+      this.epilogue = epilogue;
+    }
+  }
+
   /**
    * Compile a template into a function. The function takes parameters as specified using a {@code @params clause}, or
    * a single {@code params} argument if none exists.
@@ -59,9 +99,58 @@ public class TemplateEngine {
    *          if a compilation error occurs in the generated Golo code.
    */
   public FunctionReference compile(String template) {
-    evaluationEnvironment.clearImports();
-    String goloCode = templateToGolo(template);
-    return (FunctionReference) evaluationEnvironment.def(goloCode);
+    return compile(template, Output.STRING, null);
+  }
+
+  /**
+   * Compile a template into a function writing to an {@link Appendable}, such as a {@link java.io.Writer}.
+   * <p>
+   * The function takes the output as first parameter, followed by the parameters of the template, and returns the
+   * output. The text is appended chunk by chunk, the values of the expressions being converted with
+   * {@link java.util.Objects#toString(Object)}.
+   *
+   * @param template the template code.
+   * @return a compiled function that writes the template given an output and parameters.
+   * @throws org.eclipse.golo.compiler.GoloCompilationException
+   *          if a compilation error occurs in the generated Golo code.
+   */
+  public FunctionReference compileStreaming(String template) {
+    return compile(template, Output.APPENDABLE, null);
+  }
+
+  /**
+   * Compile a template into a function writing to a {@link java.io.OutputStream}.
+   * <p>
+   * This is similar to {@link #compileStreaming(String)}, except that the text is written as bytes in the given
+   * charset. The static text of the template is encoded once, when compiling.
+   *
+   * @param template the template code.
+   * @param charset the charset of the output.
+   * @return a compiled function that writes the template given an output stream and parameters.
+   * @throws org.eclipse.golo.compiler.GoloCompilationException
+   *          if a compilation error occurs in the generated Golo code.
+   */
+  public FunctionReference compileStreaming(String template, Charset charset) {
+    return compile(template, Output.BYTES, charset);
+  }
+
+  private synchronized FunctionReference compile(String template, Output output, Charset charset) {
+    String key = output + ":" + (charset == null ? "" : charset.name()) + ":" + template;
+    FunctionReference function = templates.get(key);
+    if (function == null) {
+      evaluationEnvironment.clearImports();
+      List<String> segments = new ArrayList<>();
+      function = (FunctionReference) evaluationEnvironment.def(templateToGolo(template, output, segments));
+      if (output == Output.BYTES) {
+        byte[][] encoded = new byte[segments.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+          encoded[i] = segments.get(i).getBytes(charset);
+        }
+        function = function.bindTo(encoded).bindTo(charset);
+      }
+      templates.put(key, function);
+    }
+    return function;
   }
 
   /**
@@ -71,32 +160,23 @@ public class TemplateEngine {
    * @return the corresponding Golo source code which may or may not be valid.
    */
   public String templateToGolo(String template) {
+    return templateToGolo(template, Output.STRING, null);
+  }
+
+  private String templateToGolo(String template, Output output, List<String> segments) {
     StringBuilder builder = new StringBuilder();
     String params = null;
-    builder.append("  let _$result = java.lang.StringBuilder()\n");
+    builder.append(output.prologue);
     Matcher matcher = PATTERN.matcher(template);
     int startIndex = 0;
     while (matcher.find()) {
-      String text = template.substring(startIndex, matcher.start());
-      int lowerBound = 0;
-      int upperBound = text.length();
-      if (text.startsWith("\"")) {
-        lowerBound = 1;
-        builder.append("  _$result: append(\"\\\"\")\n");
-      }
-      if (text.endsWith("\"")) {
-        upperBound = text.length() - 1;
-      }
-      builder.append("  _$result: append(\"\"\"").append(text.substring(lowerBound, upperBound)).append("\"\"\")\n");
-      if (text.endsWith("\"")) {
-        builder.append("  _$result: append(\"\\\"\")\n");
-      }
+      appendText(builder, output, segments, template.substring(startIndex, matcher.start()));
       String code = matcher.group();
       code = code.substring(2, code.length() - 2);
       if (code.startsWith("=")) {
-        builder.append("  _$result: append(").append(code.substring(1)).append(")\n");
+        appendExpression(builder, output, code.substring(1));
       } else if (code.startsWith("@params")) {
-        params = "|" + code.substring(7).trim() + "| {\n";
+        params = code.substring(7).trim();
       } else if (code.startsWith("@import")) {
         evaluationEnvironment.imports(code.substring(7).trim());
       } else {
@@ -104,15 +184,70 @@ public class TemplateEngine {
       }
       startIndex = matcher.end();
     }
+    builder.append("\n");
+    appendText(builder, output, segments, template.substring(startIndex));
     builder
-        .append("\n  _$result: append(\"\"\"")
-        .append(template.substring(startIndex))
-        .append("\"\"\")\n")
-        .append("  return _$result: toString()\n")
+        .append(output.epilogue)
         .append("}\n");
     if (params == null) {
-      params = "|params| {\n";
+      params = "params";
+    }
+    return "|" + parameters(output, params) + "| {\n" + builder.toString();
+  }
+
+  private static String parameters(Output output, String params) {
+    switch (output) {
+      case APPENDABLE:
+        return params.isEmpty() ? "_$out" : "_$out, " + params;
+      case BYTES:
+        return params.isEmpty() ? "_$segments, _$charset, _$out" : "_$segments, _$charset, _$out, " + params;
+      default:
+        return params;
+    }
+  }
+
+  private static void appendExpression(StringBuilder builder, Output output, String expression) {
+    builder.append("  ").append(output.append);
+    switch (output) {
+      case APPENDABLE:
+        builder.append("java.util.Objects.toString(").append(expression).append(")");
+        break;
+      case BYTES:
+        builder.append("java.util.Objects.toString(").append(expression).append("): getBytes(_$charset)");
+        break;
+      default:
+        builder.append(expression);
+    }
+    builder.append(")\n");
+  }
+
+  /*
+   * Text is output as a multi-line string, which can't start nor end with a quote. Once encoded, it is an element of
+   * the segments array instead.
+   */
+  private static void appendText(StringBuilder builder, Output output, List<String> segments, String text) {
+    if (text.isEmpty() && output != Output.STRING) {
+      return;
+    }
+    if (output == Output.BYTES) {
+      builder.append("  ").append(output.append).append("_$segments: get(").append(segments.size()).append("))\n");
+      segments.add(text);
+      return;
+    }
+    String quote = "  " + output.append + "\"\\\"\")\n";
+    int lowerBound = 0;
+    int upperBound = text.length();
+    if (text.startsWith("\"")) {
+      lowerBound = 1;
+      builder.append(quote);
+    }
+    boolean endQuote = upperBound > lowerBound && text.endsWith("\"");
+    if (endQuote) {
+      upperBound = text.length() - 1;
+    }
+    builder.append("  ").append(output.append).append("\"\"\"").append(text, lowerBound, upperBound).append("\"\"\")\n");
+    if (endQuote) {
+      builder.append(quote);
     }
-    return params + builder.toString();
   }
 }
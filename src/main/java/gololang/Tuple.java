@@ -40,7 +40,19 @@ public final class Tuple implements HeadTail<Object>, Comparable<Tuple> {
    * @param values the tuple values.
    */
   public Tuple(Object... values) {
-    data = Arrays.copyOf(values, values.length);
+    this(true, values);
+  }
+
+  private Tuple(boolean copy, Object[] values) {
+    data = copy ? Arrays.copyOf(values, values.length) : values;
+  }
+
+  /**
+   * Creates a tuple from an array that is not copied, and thus must not be modified afterward.
+   */
+  static Tuple owning(Object[] values) {
+    if (values.length == 0) { return EMPTY; }
+    return new Tuple(false, values);
   }
 
   /**
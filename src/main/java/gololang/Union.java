@@ -20,6 +20,34 @@ import org.eclipse.golo.runtime.InvalidDestructuringException;
 public abstract class Union {
 
   private static final Object[] EMPTY = new Object[0];
+
+  private final int ordinal;
+
+  /**
+   * Creates a union value without ordinal, as done by unions compiled by previous Golo versions.
+   */
+  protected Union() {
+    this(-1);
+  }
+
+  /**
+   * Creates a union value.
+   *
+   * @param ordinal the position of the value type in the union declaration.
+   */
+  protected Union(int ordinal) {
+    this.ordinal = ordinal;
+  }
+
+  /**
+   * Ordinal helper.
+   *
+   * @return the position of the value type in the union declaration, or {@code -1} if unknown.
+   */
+  public final int __$$_ordinal() {
+    return ordinal;
+  }
+
   /**
    * Array conversion.
    *
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package gololang.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <code>@DecorateOnEachCall</code> requires the decorators of a decorated function to be applied on each call.
+ *
+ * By default, the decorators of a function are applied once, and the resulting function is used for
+ * every call. This annotation restores the per-call evaluation, for decorators whose result depends
+ * on the time they are applied.
+ *
+ * @see DecoratedBy
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface DecorateOnEachCall {
+}
@@ -213,7 +213,7 @@ public class Block extends ExpressionStatement<Block> implements Iterable<GoloSt
   public Block map(FunctionReference fun) throws Throwable {
     Block res = empty();
     for (GoloElement<?> elt : this) {
-      res.add(fun.invoke(elt));
+      res.add(fun.invoke1(elt));
     }
     return res;
   }
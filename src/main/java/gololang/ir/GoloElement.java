@@ -134,7 +134,7 @@ public abstract class GoloElement<T extends GoloElement<T>> {
   private static Predicate<GoloElement<?>> predicateWrapper(gololang.FunctionReference predicate) {
     return n -> {
       try {
-        return (Boolean) predicate.invoke(n);
+        return (Boolean) predicate.invoke1(n);
       } catch (Throwable e) {
         throw new RuntimeException(e);
       }
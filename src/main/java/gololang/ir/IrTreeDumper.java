@@ -10,6 +10,8 @@
 
 package gololang.ir;
 
+import org.eclipse.golo.compiler.StaticCallBindingVisitor;
+
 import java.io.PrintStream;
 
 public class IrTreeDumper implements GoloIrVisitor {
@@ -254,7 +256,12 @@ public class IrTreeDumper implements GoloIrVisitor {
     this.out.append(", on module state? -> ").print(functionInvocation.isOnModuleState());
     this.out.append(", anonymous? -> ").print(functionInvocation.isAnonymous());
     this.out.append(", constant? -> ").print(functionInvocation.isConstant());
-    this.out.append(", named arguments? -> ").println(functionInvocation.usesNamedArguments());
+    this.out.append(", named arguments? -> ").print(functionInvocation.usesNamedArguments());
+    Object target = functionInvocation.metadata(StaticCallBindingVisitor.STATIC_TARGET);
+    if (target != null) {
+      this.out.append(", static target -> ").print(target);
+    }
+    this.out.println();
     functionInvocation.walk(this);
     printLocalDeclarations(functionInvocation);
     decr();
@@ -103,7 +103,7 @@ public final class ToplevelElements extends GoloElement<ToplevelElements> implem
   public ToplevelElements map(FunctionReference fun) throws Throwable {
     ToplevelElements res = new ToplevelElements();
     for (GoloElement<?> elt : this) {
-      res.add(fun.invoke(elt));
+      res.add(fun.invoke1(elt));
     }
     return res;
   }
@@ -70,16 +70,16 @@ public final class Visitors {
         try {
           switch (f.arity()) {
             case 0:
-              accumulator = f.invoke();
+              accumulator = f.invoke0();
               break;
             case 1:
-              accumulator = f.invoke(elt);
+              accumulator = f.invoke1(elt);
               break;
             case 2:
-              accumulator = f.invoke(accumulator, elt);
+              accumulator = f.invoke2(accumulator, elt);
               break;
             case 3:
-              Object result = f.invoke(this, accumulator, elt);
+              Object result = f.invoke3(this, accumulator, elt);
               if (result != null) {
                 accumulator = result;
               }
@@ -22,6 +22,7 @@ import gololang.ir.GoloModule;
 import gololang.ir.IrTreeDumper;
 import org.eclipse.golo.compiler.parser.ASTCompilationUnit;
 import org.eclipse.golo.cli.GoloFilesManager;
+import org.eclipse.golo.runtime.CallSiteTelemetry;
 
 import java.io.File;
 import java.util.LinkedList;
@@ -39,6 +40,18 @@ public final class DiagnoseCommand implements CliCommand {
   @Parameter(names = "--stage", descriptionKey = "diagnose.stage", validateWith = DiagnoseStageValidator.class)
   String stage = "refined";
 
+  @Parameter(names = "--runtime", descriptionKey = "diagnose.runtime")
+  boolean runtime = false;
+
+  @Parameter(names = "--top", descriptionKey = "diagnose.top")
+  int top = 20;
+
+  @Parameter(names = "--module", descriptionKey = "main_module")
+  String module;
+
+  @Parameter(names = "--args", variableArity = true, descriptionKey = "arguments")
+  List<String> arguments = new LinkedList<>();
+
   @Parameter(description = "source_files", converter = FileConverter.class)
   List<File> files = new LinkedList<>();
 
@@ -47,6 +60,10 @@ public final class DiagnoseCommand implements CliCommand {
 
   @Override
   public void execute() throws Throwable {
+    if (this.runtime) {
+      diagnoseRuntime();
+      return;
+    }
     if ("ast".equals(this.stage) && !"ast".equals(this.mode)) {
       this.mode = "ast";
     }
@@ -100,6 +117,45 @@ public final class DiagnoseCommand implements CliCommand {
     });
   }
 
+  /*
+   * The telemetry is enabled before the modules are loaded, such that every call site linked while
+   * running the program is recorded.
+   */
+  private void diagnoseRuntime() throws Throwable {
+    CallSiteTelemetry.enable();
+    Class<?> mainClass = loadGoloFiles(this.files, classpath.initGoloClassLoader(), this.module);
+
+    if (mainClass == null) {
+      if (this.module != null) {
+        error(message("module_not_found", this.module));
+      }
+      return;
+    }
+    try {
+      callRun(mainClass, this.arguments.toArray(new String[this.arguments.size()]));
+    } catch (NoMainMethodException e) {
+      error(message("module_no_main", mainClass.getName()));
+      return;
+    } finally {
+      CallSiteTelemetry.disable();
+    }
+    printRuntimeReport();
+  }
+
+  private void printRuntimeReport() {
+    List<CallSiteTelemetry.Site> sites = CallSiteTelemetry.sites();
+    if (sites.isEmpty()) {
+      info(message("diagnose_no_runtime_sites"));
+      return;
+    }
+    System.out.println();
+    System.out.println(String.format(">>> Runtime: %d call sites, %d megamorphic",
+          sites.size(), sites.stream().filter(CallSiteTelemetry.Site::isMegamorphic).count()));
+    for (CallSiteTelemetry.Site site : CallSiteTelemetry.worstSites(this.top)) {
+      System.out.println("# " + site);
+    }
+  }
+
   public static final class DiagnoseModeValidator implements IParameterValidator {
 
     @Override
@@ -15,16 +15,11 @@ import com.beust.jcommander.Parameters;
 import com.beust.jcommander.ParametersDelegate;
 import com.beust.jcommander.converters.FileConverter;
 
-import org.eclipse.golo.cli.GoloFilesManager;
 import org.eclipse.golo.cli.command.spi.CliCommand;
-import org.eclipse.golo.compiler.GoloClassLoader;
-import org.eclipse.golo.compiler.GoloCompiler;
 
 import java.io.File;
-import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
 
 import static gololang.Messages.*;
 
@@ -53,21 +48,7 @@ public final class GoloGoloCommand implements CliCommand {
 
   @Override
   public void execute() throws Throwable {
-    GoloClassLoader loader = classpath.initGoloClassLoader();
-    GoloCompiler compiler = loader.getCompiler();
-    Class<?> lastClass = GoloFilesManager.goloFiles(this.files)
-      .filter(this::canRead)
-      .map(wrappedTreatment(compiler::parse))
-      .map(wrappedTreatment(compiler::transform))
-      .sorted(CliCommand.MODULE_COMPARATOR)
-      .map(wrappedTreatment(compiler::expand))
-      .map(wrappedTreatment(compiler::refine))
-      .map(wrappedTreatment(compiler::generate))
-      .filter(Objects::nonNull)
-      .flatMap(Collection::stream)
-      .map(displayInfo("Loading %s"))
-      .map(loader::load)
-      .reduce(null, this::selectMainModule);
+    Class<?> lastClass = loadGoloFiles(this.files, classpath.initGoloClassLoader(), this.module);
 
     if (lastClass == null && this.module != null) {
       error(message("module_not_found", this.module));
@@ -82,11 +63,4 @@ public final class GoloGoloCommand implements CliCommand {
       error(message("module_no_main", lastClass.getName()));
     }
   }
-
-  private Class<?> selectMainModule(Class<?> old, Class<?> loaded) {
-    if (this.module == null || this.module.equals(loaded.getCanonicalName())) {
-      return loaded;
-    }
-    return old;
-  }
 }
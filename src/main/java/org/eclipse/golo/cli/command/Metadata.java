@@ -8,31 +8,21 @@
  * SPDX-License-Identifier: EPL-2.0
  */
 
-package org.eclipse.golo.cli.command;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
+package org.eclipse.golo.cli.command;
 
+/**
+ * Metadata of the Golo build.
+ *
+ * @see org.eclipse.golo.runtime.Metadata
+ */
 public final class Metadata {
 
   private Metadata() {
     // purely static class
   }
 
-  public static final String VERSION;
-  public static final String TIMESTAMP;
-  public static final String GUIDE_BASE;
-
-  static {
-    Properties props = new Properties();
-    try (InputStream inputStream = Metadata.class.getResourceAsStream("/metadata.properties")) {
-      props.load(inputStream);
-      VERSION = props.getProperty("version");
-      TIMESTAMP = props.getProperty("timestamp");
-      GUIDE_BASE = props.getProperty("guide-url");
-    } catch (IOException e) {
-      throw new AssertionError("Could not load metadata.properties from the current classpath.");
-    }
-  }
+  public static final String VERSION = org.eclipse.golo.runtime.Metadata.VERSION;
+  public static final String TIMESTAMP = org.eclipse.golo.runtime.Metadata.TIMESTAMP;
+  public static final String GUIDE_BASE = org.eclipse.golo.runtime.Metadata.GUIDE_BASE;
 }
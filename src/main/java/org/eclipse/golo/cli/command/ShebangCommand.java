@@ -12,12 +12,12 @@ package org.eclipse.golo.cli.command;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import org.eclipse.golo.cli.command.spi.CliCommand;
+import org.eclipse.golo.compiler.CompilationCache;
 import org.eclipse.golo.compiler.GoloClassLoader;
 import org.eclipse.golo.compiler.GoloCompilationException;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.io.Reader;
 import java.nio.file.*;
 import java.util.LinkedList;
 import java.util.List;
@@ -39,6 +39,7 @@ public final class ShebangCommand implements CliCommand {
     }
     Path basedir = dirName(script);
     GoloClassLoader loader = ClasspathOption.initGoloClassLoader(classpath(basedir));
+    loader.setCompilationCache(CompilationCache.fromEnvironment());
     try {
       loadOtherGoloFiles(loader, basedir, script);
       callRun(loadGoloFile(loader, script), this.arguments.toArray(new String[this.arguments.size()]));
@@ -74,13 +75,11 @@ public final class ShebangCommand implements CliCommand {
   }
 
   private Class<?> loadGoloFile(GoloClassLoader loader, Path path) {
-    try (Reader is = Files.newBufferedReader(path)) {
-      Path filename = path.getFileName();
-      if (filename != null) {
-        return loader.load(filename.toString(), is);
-      } else {
-        throw new RuntimeException(message("not_regular_file", path));
-      }
+    if (!Files.isRegularFile(path)) {
+      throw new RuntimeException(message("not_regular_file", path));
+    }
+    try {
+      return loader.load(path.toFile());
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
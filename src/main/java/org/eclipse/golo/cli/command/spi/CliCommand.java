@@ -10,11 +10,16 @@
 
 package org.eclipse.golo.cli.command.spi;
 
+import org.eclipse.golo.cli.GoloFilesManager;
+import org.eclipse.golo.compiler.CompilationCache;
+import org.eclipse.golo.compiler.GoloClassLoader;
 import org.eclipse.golo.compiler.GoloCompilationException;
 import gololang.Messages;
 import gololang.ir.GoloModule;
 
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -46,6 +51,24 @@ public interface CliCommand {
     return 0;
   };
 
+  /**
+   * Orders the sources to compile as {@link #MODULE_COMPARATOR} orders their modules.
+   */
+  Comparator<CompilationCache.Source> SOURCE_COMPARATOR = (CompilationCache.Source s1, CompilationCache.Source s2) -> {
+    if (s1 == null && s2 != null) { return -1; }
+    if (s1 != null && s2 == null) { return 1; }
+    if (s1 == null && s2 == null) { return 0; }
+    if (s1.hasMacros() && !s2.hasMacros()) { return -1; }
+    if (!s1.hasMacros() && s2.hasMacros()) { return 1; }
+    if (s1.usedModules().contains(s2.moduleName())) { return 1; }
+    if (s2.usedModules().contains(s1.moduleName())) { return -1; }
+    if (s1.importedModules().contains(s2.moduleName())) { return 1; }
+    if (s2.importedModules().contains(s1.moduleName())) { return -1; }
+    if (s1.hasMain() && !s2.hasMain()) { return 1; }
+    if (s2.hasMain() && !s1.hasMain()) { return -1; }
+    return 0;
+  };
+
   void execute() throws Throwable;
 
   default void callRun(Class<?> klass, String[] arguments) throws Throwable {
@@ -58,6 +81,31 @@ public interface CliCommand {
     main.invoke(arguments);
   }
 
+  /**
+   * Compiles the given source files and loads them, as the {@code golo} command does.
+   * <p>
+   * The sources go through the configured {@link CompilationCache}, and are loaded in dependency order.
+   *
+   * @param files the source files or directories.
+   * @param loader the class loader into which the modules are loaded.
+   * @param module the name of the main module, or {@code null} to select the last loaded one.
+   * @return the main module class, or {@code null} if no module matches.
+   */
+  default Class<?> loadGoloFiles(Collection<File> files, GoloClassLoader loader, String module) {
+    CompilationCache cache = CompilationCache.fromEnvironment();
+    loader.setCompilationCache(cache);
+    return GoloFilesManager.goloFiles(files)
+      .filter(this::canRead)
+      .map(wrappedTreatment((File file) -> cache.open(file, loader)))
+      .sorted(SOURCE_COMPARATOR)
+      .map(wrappedTreatment(CompilationCache.Source::compile))
+      .filter(Objects::nonNull)
+      .flatMap(Collection::stream)
+      .map(displayInfo("Loading %s"))
+      .map(loader::load)
+      .reduce(null, (old, loaded) -> module == null || module.equals(loaded.getCanonicalName()) ? loaded : old);
+  }
+
   default boolean canRead(File source) {
     if (source == null) { return false; }
     if (!source.canRead()) {
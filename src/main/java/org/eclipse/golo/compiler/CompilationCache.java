@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.compiler;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+import gololang.ir.GoloModule;
+import gololang.ir.ModuleImport;
+import org.eclipse.golo.runtime.Metadata;
+import org.eclipse.golo.compiler.macro.MacroExpansionIrVisitor;
+
+import static gololang.Messages.message;
+import static gololang.Messages.warning;
+
+/**
+ * A persistent cache of compilation results.
+ * <p>
+ * The bytecode generated from a source file is stored in a directory, under a key computed from the name and content of
+ * the source, the Golo version, the {@code golo.*} system properties and {@code GOLO_*} environment variables, and the
+ * classpath. The classes looked up for macros while expanding the module are recorded with a fingerprint of their
+ * bytecode: a stored result is reused only if none of them changed, was removed or appeared since.
+ * <p>
+ * The cache is disabled unless the {@code golo.cache} system property or the {@code GOLO_CACHE} environment variable is
+ * {@code true}. Its directory is given by the {@code golo.cache.dir} system property or the {@code GOLO_CACHE_DIR}
+ * environment variable, and is {@code .golo/cache} in the user home by default. Stale entries are never removed: the
+ * directory can be deleted at any time.
+ * <p>
+ * The cache is used when loading a file with {@link GoloClassLoader#load(File)}, and by the {@code golo} and
+ * {@code shebang} commands.
+ */
+public final class CompilationCache {
+
+  public static final String PROPERTY = "golo.cache";
+  public static final String ENV = "GOLO_CACHE";
+  public static final String DIRECTORY_PROPERTY = "golo.cache.dir";
+  public static final String DIRECTORY_ENV = "GOLO_CACHE_DIR";
+
+  private static final int FORMAT = 1;
+  private static final String SUFFIX = ".bin";
+  private static final CompilationCache DISABLED = new CompilationCache(null);
+
+  private final Path directory;
+
+  /**
+   * Creates a cache storing its entries in the given directory.
+   *
+   * @param directory the cache directory, created on the first store if needed.
+   */
+  public CompilationCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns a cache that never holds anything.
+   */
+  public static CompilationCache disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * Returns the cache configured by the system properties and environment variables.
+   *
+   * @return the configured cache, or the disabled one.
+   */
+  public static CompilationCache fromEnvironment() {
+    if (!gololang.Runtime.loadBoolean(PROPERTY, ENV, false)) {
+      return DISABLED;
+    }
+    String dir = System.getProperty(DIRECTORY_PROPERTY);
+    if (dir == null) {
+      dir = System.getenv(DIRECTORY_ENV);
+    }
+    if (dir == null) {
+      return new CompilationCache(Paths.get(System.getProperty("user.home"), ".golo", "cache"));
+    }
+    return new CompilationCache(Paths.get(dir));
+  }
+
+  public boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * @return the cache directory, or {@code null} if the cache is disabled.
+   */
+  public Path directory() {
+    return directory;
+  }
+
+  /**
+   * Reads a source file and looks up its compilation results.
+   * <p>
+   * If the results are not stored in the cache, the source is parsed and transformed into a module, such that the
+   * sources can be ordered before being compiled.
+   *
+   * @param file the source file.
+   * @param loader the class loader into which the results will be loaded.
+   * @return the source to compile.
+   * @throws GoloCompilationException if the source has errors.
+   */
+  public Source open(File file, GoloClassLoader loader) throws IOException {
+    byte[] content = Files.readAllBytes(file.toPath());
+    Source source = new Source(file.getPath(), content, loader);
+    if (isEnabled()) {
+      source.key = key(source.name, content, loader.classpathFingerprint());
+      source.entry = read(source.key);
+    }
+    if (source.entry == null) {
+      source.transform();
+    }
+    return source;
+  }
+
+  /**
+   * A source file being compiled.
+   * <p>
+   * The ordering information is taken from the stored entry if any, or from the module before the macro expansion
+   * otherwise.
+   */
+  public final class Source {
+    private final String name;
+    private final byte[] content;
+    private final GoloClassLoader loader;
+    private String key;
+    private Entry entry;
+    private GoloModule module;
+
+    private Source(String name, byte[] content, GoloClassLoader loader) {
+      this.name = name;
+      this.content = content;
+      this.loader = loader;
+    }
+
+    private void transform() {
+      GoloCompiler compiler = loader.getCompiler();
+      Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8);
+      module = compiler.transform(compiler.parse(name, compiler.initParser(reader)));
+      entry = new Entry(module);
+    }
+
+    public String moduleName() {
+      return entry.moduleName;
+    }
+
+    public boolean hasMacros() {
+      return entry.hasMacros;
+    }
+
+    public boolean hasMain() {
+      return entry.hasMain;
+    }
+
+    public Set<String> usedModules() {
+      return entry.usedModules;
+    }
+
+    public Set<String> importedModules() {
+      return entry.importedModules;
+    }
+
+    /**
+     * Checks if the results are taken from the cache.
+     * <p>
+     * Stored results are reused only if the classes looked up for macros are unchanged in the class loader, which
+     * can depend on the sources loaded before.
+     */
+    public boolean isCached() {
+      return module == null && entry.isValidFor(loader);
+    }
+
+    /**
+     * Returns the compilation results of the source, compiling it if needed.
+     *
+     * @return the results to load, the module class being the last one.
+     * @throws GoloCompilationException if the compilation failed.
+     */
+    public List<CodeGenerationResult> compile() {
+      if (isCached()) {
+        return entry.results;
+      }
+      if (module == null) {
+        transform();
+      }
+      GoloCompiler compiler = loader.getCompiler();
+      compiler.refine(compiler.expand(module));
+      List<CodeGenerationResult> results = compiler.generate(module);
+      if (key != null) {
+        entry.complete(module, results, loader);
+        write(key, entry);
+      }
+      return results;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static final class Entry {
+    private final String moduleName;
+    private final boolean hasMacros;
+    private final boolean hasMain;
+    private final Set<String> usedModules;
+    private final Set<String> importedModules;
+    private final Map<String, String> dependencies;
+    private List<CodeGenerationResult> results;
+
+    private Entry(String moduleName, boolean hasMacros, boolean hasMain, Set<String> usedModules,
+        Set<String> importedModules, Map<String, String> dependencies, List<CodeGenerationResult> results) {
+      this.moduleName = moduleName;
+      this.hasMacros = hasMacros;
+      this.hasMain = hasMain;
+      this.usedModules = usedModules;
+      this.importedModules = importedModules;
+      this.dependencies = dependencies;
+      this.results = results;
+    }
+
+    private Entry(GoloModule module) {
+      this(module.getPackageAndClass().toString(),
+          module.hasMacros(),
+          module.hasMain(),
+          new LinkedHashSet<>(module.getUsedModules()),
+          importedModules(module),
+          new LinkedHashMap<>(),
+          null);
+    }
+
+    private static Set<String> importedModules(GoloModule module) {
+      Set<String> imported = new LinkedHashSet<>();
+      for (ModuleImport mi : module.getImports()) {
+        imported.add(mi.getPackageAndClass().toString());
+      }
+      return imported;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(GoloModule module, List<CodeGenerationResult> results, GoloClassLoader loader) {
+      Map<String, Boolean> classes = (Map<String, Boolean>) module.metadata(MacroExpansionIrVisitor.MACRO_CLASSES);
+      if (classes != null) {
+        for (String className : classes.keySet()) {
+          if (!className.equals(moduleName)) {
+            dependencies.put(className, loader.fingerprint(className));
+          }
+        }
+      }
+      this.results = results;
+    }
+
+    private boolean isValidFor(GoloClassLoader loader) {
+      for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+        if (!dependency.getValue().equals(loader.fingerprint(dependency.getKey()))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private Path path(String key) {
+    return directory.resolve(key + SUFFIX);
+  }
+
+  private Entry read(String key) {
+    Path path = path(key);
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != FORMAT) {
+        return null;
+      }
+      String moduleName = in.readUTF();
+      boolean hasMacros = in.readBoolean();
+      boolean hasMain = in.readBoolean();
+      Set<String> usedModules = readStrings(in);
+      Set<String> importedModules = readStrings(in);
+      Map<String, String> dependencies = new LinkedHashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        dependencies.put(in.readUTF(), in.readUTF());
+      }
+      List<CodeGenerationResult> results = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        PackageAndClass packageAndClass = PackageAndClass.of(in.readUTF());
+        String sourceFile = in.readUTF();
+        byte[] bytecode = new byte[in.readInt()];
+        in.readFully(bytecode);
+        results.add(new CodeGenerationResult(bytecode, packageAndClass, sourceFile));
+      }
+      return new Entry(moduleName, hasMacros, hasMain, usedModules, importedModules, dependencies, results);
+    } catch (IOException | RuntimeException e) {
+      // A corrupted entry is just a miss, and will be overwritten.
+      return null;
+    }
+  }
+
+  private static Set<String> readStrings(DataInputStream in) throws IOException {
+    Set<String> strings = new LinkedHashSet<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      strings.add(in.readUTF());
+    }
+    return strings;
+  }
+
+  private static void writeStrings(DataOutputStream out, Set<String> strings) throws IOException {
+    out.writeInt(strings.size());
+    for (String s : strings) {
+      out.writeUTF(s);
+    }
+  }
+
+  private void write(String key, Entry entry) {
+    Path temp = null;
+    try {
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, key, ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(FORMAT);
+        out.writeUTF(entry.moduleName);
+        out.writeBoolean(entry.hasMacros);
+        out.writeBoolean(entry.hasMain);
+        writeStrings(out, entry.usedModules);
+        writeStrings(out, entry.importedModules);
+        out.writeInt(entry.dependencies.size());
+        for (Map.Entry<String, String> dependency : entry.dependencies.entrySet()) {
+          out.writeUTF(dependency.getKey());
+          out.writeUTF(dependency.getValue());
+        }
+        out.writeInt(entry.results.size());
+        for (CodeGenerationResult result : entry.results) {
+          out.writeUTF(result.getBinaryName());
+          out.writeUTF(result.getSourceFilename());
+          out.writeInt(result.size());
+          out.write(result.getBytecode());
+        }
+      }
+      try {
+        Files.move(temp, path(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, path(key), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      // The cache is an optimization: failing to store an entry must not fail the compilation.
+      if (gololang.Runtime.debugMode()) {
+        warning(message("cache_store_failed", directory, e.getLocalizedMessage()));
+      }
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+          // nothing more can be done
+        }
+      }
+    }
+  }
+
+  private static String key(String name, byte[] content, String classpath) {
+    MessageDigest digest = sha256();
+    update(digest, Integer.toString(FORMAT));
+    update(digest, Metadata.VERSION);
+    update(digest, Metadata.TIMESTAMP);
+    update(digest, options());
+    update(digest, classpath);
+    update(digest, name);
+    digest.update(content);
+    return hex(digest.digest());
+  }
+
+  /*
+   * The golo.* properties and GOLO_* variables, some of them changing the generated bytecode.
+   */
+  private static String options() {
+    StringBuilder options = new StringBuilder();
+    new TreeMap<>(System.getProperties()).forEach((name, value) -> {
+      if (name.toString().startsWith("golo.")) {
+        options.append(name).append('=').append(value).append('\n');
+      }
+    });
+    new TreeMap<>(System.getenv()).forEach((name, value) -> {
+      if (name.startsWith("GOLO_")) {
+        options.append(name).append('=').append(value).append('\n');
+      }
+    });
+    return options.toString();
+  }
+
+  /**
+   * Computes a fingerprint of the classpath of a class loader and its parents.
+   * <p>
+   * The archives are identified by their path, size and modification time, the directories by their path and the
+   * size and modification time of the classes they contain; the classes used by the compiler are fingerprinted
+   * individually.
+   */
+  static String classpathFingerprint(ClassLoader loader) {
+    StringBuilder fingerprint = new StringBuilder();
+    appendEntries(fingerprint, System.getProperty("java.class.path", "").split(File.pathSeparator));
+    for (ClassLoader current = loader; current != null; current = current.getParent()) {
+      if (current instanceof URLClassLoader) {
+        for (URL url : ((URLClassLoader) current).getURLs()) {
+          appendEntry(fingerprint, toFile(url));
+        }
+      }
+    }
+    return fingerprint.toString();
+  }
+
+  private static void appendEntries(StringBuilder fingerprint, String[] paths) {
+    for (String path : paths) {
+      if (!path.isEmpty()) {
+        appendEntry(fingerprint, new File(path));
+      }
+    }
+  }
+
+  private static void appendEntry(StringBuilder fingerprint, File file) {
+    if (file == null) {
+      return;
+    }
+    File entry = file.getAbsoluteFile();
+    fingerprint.append(entry.getPath());
+    if (entry.isFile()) {
+      fingerprint.append(':').append(entry.length()).append(':').append(entry.lastModified());
+    } else if (entry.isDirectory()) {
+      fingerprint.append(':').append(directoryFingerprint(entry.toPath()));
+    }
+    fingerprint.append('\n');
+  }
+
+  /*
+   * A class can change in a directory without any dependency recorded by the cache, for instance a class only called
+   * at runtime.
+   */
+  private static String directoryFingerprint(Path directory) {
+    MessageDigest digest = sha256();
+    try (Stream<Path> files = Files.walk(directory)) {
+      files
+        .filter(path -> path.toString().endsWith(".class") && Files.isRegularFile(path))
+        .sorted()
+        .forEach(path -> {
+          File file = path.toFile();
+          update(digest, directory.relativize(path).toString());
+          update(digest, file.length() + ":" + file.lastModified());
+        });
+    } catch (IOException | UncheckedIOException e) {
+      // An unreadable directory is identified by its path only.
+      return "";
+    }
+    return hex(digest.digest());
+  }
+
+  private static File toFile(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return new File(url.toString());
+    }
+    try {
+      return new File(url.toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return new File(url.getPath());
+    }
+  }
+
+  static String digest(byte[] data) {
+    return hex(sha256().digest(data));
+  }
+
+  static String digest(InputStream in) throws IOException {
+    MessageDigest digest = sha256();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+    return hex(digest.digest());
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError("SHA-256 is available on every Java platform", e);
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+}
@@ -13,9 +13,17 @@ package org.eclipse.golo.compiler;
 import java.io.Reader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.SwitchPoint;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import gololang.ir.GoloModule;
+import org.eclipse.golo.runtime.FunctionCallSupport;
+import org.eclipse.golo.runtime.ModuleVersions;
+import org.eclipse.golo.runtime.Reloading;
 
 /**
  * Provides a facility to dynamically load Golo source code and access the generated code from a dedicated class loader.
@@ -23,12 +31,24 @@ import gololang.ir.GoloModule;
  * Golo source files can be compiled and the resulting JVM bytecode be injected into the class loader. It is important
  * to note that this class loader definition is not thread safe.
  * <p>
- * This class loader does not support reloading. Attempts to load source files that may produce the same bytecode
- * definitions will resulting in exceptions.
+ * Attempts to load source files that may produce the same bytecode definitions will resulting in exceptions. A module
+ * can however be redefined with the {@code reload} methods. Each new version of a module is defined by a dedicated
+ * child class loader, and becomes the class returned by this class loader for its name. The call sites that resolved
+ * functions, augmentations or class references into the previous version are relinked on their next invocation; the
+ * other call sites keep their targets. Code of the previous version that is still running keeps calling its own
+ * functions.
+ * <p>
+ * Source files loaded with {@link #load(File)} go through the {@link CompilationCache} of the class loader, which is
+ * disabled by default.
  */
-public final class GoloClassLoader extends ClassLoader {
+public final class GoloClassLoader extends ClassLoader implements ModuleVersions {
 
   private final GoloCompiler compiler;
+  private final ConcurrentHashMap<String, Class<?>> versions = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, SwitchPoint> switchPoints = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, String> digests = new ConcurrentHashMap<>();
+  private CompilationCache cache = CompilationCache.disabled();
+  private String classpathFingerprint;
 
   /**
    * Creates a class loader from a parent.
@@ -52,6 +72,19 @@ public final class GoloClassLoader extends ClassLoader {
     return this.compiler;
   }
 
+  public CompilationCache getCompilationCache() {
+    return this.cache;
+  }
+
+  /**
+   * Defines the cache used when loading source files.
+   *
+   * @param cache the cache to use, or {@code null} to disable it.
+   */
+  public void setCompilationCache(CompilationCache cache) {
+    this.cache = cache == null ? CompilationCache.disabled() : cache;
+  }
+
   /**
    * Compiles and loads the resulting JVM bytecode for a Golo source file.
    *
@@ -64,8 +97,16 @@ public final class GoloClassLoader extends ClassLoader {
     return load(compiler.compile(goloSourceFilename, sourceCode));
   }
 
+  /**
+   * Loads the JVM bytecode for a Golo source file, taken from the compilation cache if possible.
+   *
+   * @param goloSourceFile the source file.
+   * @return the class matching the Golo module defined in the source.
+   * @throws GoloCompilationException if either of the compilation phase failed.
+   * @see #setCompilationCache(CompilationCache)
+   */
   public synchronized Class<?> load(File goloSourceFile) throws GoloCompilationException, IOException {
-    return load(compiler.compile(goloSourceFile));
+    return load(cache.open(goloSourceFile, this).compile());
   }
 
   /**
@@ -90,6 +131,221 @@ public final class GoloClassLoader extends ClassLoader {
   }
 
   public synchronized Class<?> load(CodeGenerationResult result) {
-    return defineClass(result.getBinaryName(), result.getBytecode(), 0, result.size());
+    Class<?> loaded = defineClass(result.getBinaryName(), result.getBytecode(), 0, result.size());
+    FunctionCallSupport.classesDefined();
+    defined(result);
+    return loaded;
+  }
+
+  private void defined(CodeGenerationResult result) {
+    if (cache.isEnabled()) {
+      digests.put(result.getBinaryName(), CompilationCache.digest(result.getBytecode()));
+    }
+  }
+
+  /*
+   * Identifies the current definition of a class, to tell if a cached compilation result depending on it is still
+   * valid: the digest of the bytecode, or the empty string if the class does not exist.
+   */
+  String fingerprint(String className) {
+    String digest = digests.get(className);
+    if (digest != null) {
+      return digest;
+    }
+    try (InputStream in = getResourceAsStream(className.replace('.', '/') + ".class")) {
+      return in == null ? "" : CompilationCache.digest(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  synchronized String classpathFingerprint() {
+    if (classpathFingerprint == null) {
+      classpathFingerprint = CompilationCache.classpathFingerprint(getParent());
+    }
+    return classpathFingerprint;
+  }
+
+  /**
+   * Compiles a Golo source and defines the resulting classes in a dedicated class loader, child of this one.
+   * <p>
+   * The classes are not visible by name from this class loader, and can be garbage collected once the returned module
+   * and its instances are no longer referenced. This suits one-shot modules, such as the ones of evaluated code.
+   *
+   * @param goloSourceFilename    the source file name.
+   * @param sourceCode  the source reader.
+   * @return the class matching the Golo module defined in the source.
+   * @throws GoloCompilationException if either of the compilation phase failed.
+   */
+  public synchronized Class<?> loadIsolated(String goloSourceFilename, Reader sourceCode) throws GoloCompilationException {
+    IsolatedModule isolated = new IsolatedModule(this);
+    Class<?> lastClassIsModule = null;
+    for (CodeGenerationResult result : compiler.compile(goloSourceFilename, sourceCode)) {
+      lastClassIsModule = isolated.define(result);
+    }
+    return lastClassIsModule;
+  }
+
+  /**
+   * Compiles a Golo source file and defines the resulting classes as a new version of the module.
+   *
+   * @param goloSourceFilename    the source file name.
+   * @param sourceCode  the source reader.
+   * @return the class matching the new version of the Golo module defined in the source.
+   * @throws GoloCompilationException if either of the compilation phase failed.
+   * @see #reload(List)
+   */
+  public synchronized Class<?> reload(String goloSourceFilename, Reader sourceCode) throws GoloCompilationException {
+    return reload(compiler.compile(goloSourceFilename, sourceCode));
+  }
+
+  public synchronized Class<?> reload(File goloSourceFile) throws GoloCompilationException, IOException {
+    return reload(compiler.compile(goloSourceFile));
+  }
+
+  /**
+   * Defines the classes of a module as a new version, whether a previous version was loaded or not.
+   * <p>
+   * The call sites linked to a class of the previous version of the module, including the ones it no longer
+   * defines, are invalidated.
+   *
+   * @param results the classes of the module, the module itself being the last one.
+   * @return the class matching the new version of the Golo module.
+   */
+  public synchronized Class<?> reload(List<CodeGenerationResult> results) {
+    if (results.isEmpty()) {
+      return null;
+    }
+    ModuleVersion version = new ModuleVersion(this);
+    Class<?> module = null;
+    for (CodeGenerationResult result : results) {
+      module = version.define(result);
+    }
+    for (Class<?> defined : version.defined.values()) {
+      versions.put(defined.getName(), defined);
+    }
+    List<SwitchPoint> invalidated = new ArrayList<>();
+    String moduleName = module.getName();
+    switchPoints.keySet().removeIf(name -> {
+      if (belongsTo(name, moduleName)) {
+        invalidated.add(switchPoints.get(name));
+        return true;
+      }
+      return false;
+    });
+    Reloading.classesRedefined();
+    SwitchPoint.invalidateAll(invalidated.toArray(new SwitchPoint[invalidated.size()]));
+    return module;
+  }
+
+  private static boolean belongsTo(String className, String moduleName) {
+    return className.equals(moduleName)
+      || className.startsWith(moduleName + "$")
+      || className.startsWith(moduleName + "." + GoloModule.TYPE_SUBPACKAGE + ".");
+  }
+
+  @Override
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    Class<?> current = versions.get(name);
+    if (current != null) {
+      return current;
+    }
+    return super.loadClass(name, resolve);
+  }
+
+  @Override
+  public Class<?> currentVersion(String className) {
+    return versions.get(className);
+  }
+
+  @Override
+  public synchronized SwitchPoint switchPoint(Class<?> definedClass) {
+    String name = definedClass.getName();
+    Class<?> current = versions.get(name);
+    if (current != null && current != definedClass) {
+      return null;
+    }
+    return switchPoints.computeIfAbsent(name, k -> new SwitchPoint());
+  }
+
+  /*
+   * Defines the classes of an isolated module. They see the current versions of the modules of the root class loader,
+   * and the call sites resolved into them need no guard since they can't be redefined.
+   */
+  private static final class IsolatedModule extends ClassLoader implements ModuleVersions {
+
+    private final GoloClassLoader root;
+
+    IsolatedModule(GoloClassLoader root) {
+      super(root);
+      this.root = root;
+    }
+
+    Class<?> define(CodeGenerationResult result) {
+      return defineClass(result.getBinaryName(), result.getBytecode(), 0, result.size());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      Class<?> current = root.currentVersion(name);
+      if (current != null) {
+        return current;
+      }
+      return super.loadClass(name, resolve);
+    }
+
+    @Override
+    public Class<?> currentVersion(String className) {
+      return root.currentVersion(className);
+    }
+
+    @Override
+    public SwitchPoint switchPoint(Class<?> definedClass) {
+      return null;
+    }
+  }
+
+  /*
+   * Defines the classes of a module version. They are looked up before the parent class loader while
+   * being defined, since they are not yet the current versions.
+   */
+  private static final class ModuleVersion extends ClassLoader implements ModuleVersions {
+
+    private final GoloClassLoader root;
+    private final ConcurrentHashMap<String, Class<?>> defined = new ConcurrentHashMap<>();
+
+    ModuleVersion(GoloClassLoader root) {
+      super(root);
+      this.root = root;
+    }
+
+    Class<?> define(CodeGenerationResult result) {
+      Class<?> klass = defineClass(result.getBinaryName(), result.getBytecode(), 0, result.size());
+      defined.put(klass.getName(), klass);
+      root.defined(result);
+      return klass;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      Class<?> klass = root.currentVersion(name);
+      if (klass == null) {
+        klass = defined.get(name);
+      }
+      if (klass != null) {
+        return klass;
+      }
+      return super.loadClass(name, resolve);
+    }
+
+    @Override
+    public Class<?> currentVersion(String className) {
+      return root.currentVersion(className);
+    }
+
+    @Override
+    public SwitchPoint switchPoint(Class<?> definedClass) {
+      return root.switchPoint(definedClass);
+    }
   }
 }
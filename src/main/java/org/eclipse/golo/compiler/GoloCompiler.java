@@ -35,6 +35,9 @@ import java.util.List;
  */
 public final class GoloCompiler {
 
+  private static final boolean BIND_STATIC_CALLS = gololang.Runtime.loadBoolean(
+      "golo.optimize.static-calls", "GOLO_OPTIMIZE_STATIC_CALLS", true);
+
   private GoloParser parser;
   private GoloCompilationException.Builder exceptionBuilder = null;
   private final ClassLoader classloader;
@@ -190,6 +193,9 @@ public final class GoloCompiler {
       goloModule.accept(new SugarExpansionVisitor());
       goloModule.accept(new ClosureCaptureGoloIrVisitor());
       goloModule.accept(new LocalReferenceAssignmentAndVerificationVisitor(getOrCreateExceptionBuilder(goloModule.sourceFile())));
+      if (BIND_STATIC_CALLS) {
+        goloModule.accept(new StaticCallBindingVisitor(classloader));
+      }
     }
     throwIfErrorEncountered();
     return goloModule;
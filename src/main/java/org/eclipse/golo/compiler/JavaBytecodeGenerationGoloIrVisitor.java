@@ -12,6 +12,7 @@ package org.eclipse.golo.compiler;
 
 import gololang.FunctionReference;
 import gololang.ir.*;
+import org.eclipse.golo.runtime.ForEachSupport;
 import org.objectweb.asm.*;
 
 import java.lang.invoke.MethodType;
@@ -45,12 +46,30 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
       "ClosureReferenceSupport", "Ljava/lang/String;II");
   private static final Handle CLOSURE_INVOCATION_HANDLE = makeHandle(
       "ClosureCallSupport", "[Ljava/lang/Object;");
+  private static final Handle CLASSREF_CONSTANT_HANDLE = makeConstantHandle(
+      "ClassReferenceSupport", "Ljava/lang/Class;", "");
+  private static final Handle FUNCTIONREF_CONSTANT_HANDLE = makeConstantHandle(
+      "FunctionReferenceSupport", "Lgololang/FunctionReference;", "Ljava/lang/Class;II");
 
   private static final JavaBytecodeStructGenerator STRUCT_GENERATOR = new JavaBytecodeStructGenerator();
   private static final JavaBytecodeUnionGenerator UNION_GENERATOR = new JavaBytecodeUnionGenerator();
 
   private static final boolean USE_TCE = gololang.Runtime.loadBoolean("golo.optimize.tce", "GOLO_OPTIMIZE_TCE", true);
 
+  private static final boolean SPECIALIZE_FOREACH = gololang.Runtime.loadBoolean(
+      "golo.optimize.foreach", "GOLO_OPTIMIZE_FOREACH", true);
+
+  /*
+   * The body of a specialized foreach loop is generated once per shape, so only the innermost loops
+   * with a reasonably sized body are specialized.
+   */
+  private static final int FOREACH_MAX_BODY_SIZE = 200;
+
+  private static final boolean SWITCH_CASES = gololang.Runtime.loadBoolean(
+      "golo.optimize.switch", "GOLO_OPTIMIZE_SWITCH", true);
+
+  private static final String FOREACH_SUPPORT = "org/eclipse/golo/runtime/ForEachSupport";
+
   private ClassWriter classWriter;
   private String klass;
   private String jvmKlass;
@@ -63,11 +82,17 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
     private MethodVisitor currentMethodVisitor;
     private String returnTypeCast;
     private GoloFunction currentFunction;
+    private LocalTypeInference localTypes;
     private final Map<GoloFunction, Label> functionLabels = new HashMap<>();
     private final Deque<ReferenceTable> referenceTableStack = new LinkedList<>();
     private final Deque<Label> finallyStartLabels = new LinkedList<>();
     private final Map<LoopStatement, Label> loopStartMap = new HashMap<>();
     private final Map<LoopStatement, Label> loopEndMap = new HashMap<>();
+    private final Map<ConditionalBranching, Label> caseLabels = new IdentityHashMap<>();
+    private final Map<ConditionalBranching, Label> caseDefaultLabels = new IdentityHashMap<>();
+    private LoopStatement forEachLoop;
+    private int forEachShape;
+    private int forEachSlot;
 
     Label labelFor(GoloElement<?> element) {
       return visitLine(element, this.currentMethodVisitor);
@@ -95,6 +120,7 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
           function.getMethodType().toMethodDescriptorString(),
           null, null);
       this.currentFunction = function;
+      this.localTypes = LocalTypeInference.of(function);
       this.functionLabels.put(function, labelFor(function));
     }
 
@@ -117,6 +143,7 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
       this.currentMethodVisitor.visitEnd();
       this.returnTypeCast = null;
       this.currentFunction = null;
+      this.localTypes = null;
     }
 
     void goToCurrentFunction() {
@@ -139,6 +166,26 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
       loadObject(referenceTableStack.peek().get(variable).getIndex());
     }
 
+    Class<?> typeOf(GoloElement<?> expression) {
+      return localTypes.typeOf(expression, referenceTableStack.peek());
+    }
+
+    Class<?> typeOf(LocalReference reference) {
+      return localTypes.typeOf(reference);
+    }
+
+    void loadPrimitive(LocalReference reference) {
+      currentMethodVisitor.visitVarInsn(
+          Type.getType(localTypes.typeOf(reference)).getOpcode(ILOAD),
+          localTypes.slotOf(reference));
+    }
+
+    void storePrimitive(LocalReference reference) {
+      currentMethodVisitor.visitVarInsn(
+          Type.getType(localTypes.typeOf(reference)).getOpcode(ISTORE),
+          localTypes.slotOf(reference));
+    }
+
     void goTo(Label l) {
       currentMethodVisitor.visitJumpInsn(GOTO, l);
     }
@@ -188,6 +235,14 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
         + description + ")Ljava/lang/invoke/CallSite;", false);
   }
 
+  private static Handle makeConstantHandle(String methodName, String constantType, String description) {
+    return new Handle(H_INVOKESTATIC,
+        "org/eclipse/golo/runtime/" + methodName,
+        "constant",
+        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;"
+        + description + ")" + constantType, false);
+  }
+
   private static RuntimeException invalidElement(GoloElement<?> element) {
     return new IllegalStateException(prefixed("bug", message("no_element_remains", element.getClass())));
   }
@@ -249,7 +304,7 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
   @Override
   public void visitModule(GoloModule module) {
     this.currentModule = module;
-    classWriter.visit(V1_8, ACC_PUBLIC | ACC_SUPER | deprecatedFlag(module), module.getPackageAndClass().toJVMType(), null, JOBJECT, null);
+    classWriter.visit(classFileVersion(), ACC_PUBLIC | ACC_SUPER | deprecatedFlag(module), module.getPackageAndClass().toJVMType(), null, JOBJECT, null);
     classWriter.visitSource(this.sourceFilename, null);
     addAnnotations(module, classWriter::visitAnnotation);
     writeImportMetaData(module.getImports());
@@ -427,7 +482,7 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
         ACC_PUBLIC | ACC_STATIC);
 
     classWriter = new ClassWriter(COMPUTE_FRAMES | COMPUTE_MAXS);
-    classWriter.visit(V1_8, ACC_PUBLIC | ACC_SUPER, augmentationClassInternalName, null, JOBJECT, null);
+    classWriter.visit(classFileVersion(), ACC_PUBLIC | ACC_SUPER, augmentationClassInternalName, null, JOBJECT, null);
     classWriter.visitSource(this.sourceFilename, null);
     classWriter.visitOuterClass(outerName, null, null);
     addAnnotations(annotations, classWriter::visitAnnotation);
@@ -503,6 +558,12 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
       if (localReference.isModuleState()) {
         continue;
       }
+      Class<?> type = context.typeOf(localReference);
+      if (type != null) {
+        context.currentMethodVisitor.visitLocalVariable(localReference.getName(), Type.getDescriptor(type), null,
+            blockStart, blockEnd, context.localTypes.slotOf(localReference));
+        continue;
+      }
       context.currentMethodVisitor.visitLocalVariable(localReference.getName(), TOBJECT, null,
           blockStart, blockEnd, localReference.getIndex());
     }
@@ -554,7 +615,13 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
       loadInteger(context.currentMethodVisitor, (Character) value);
       context.currentMethodVisitor.visitMethodInsn(INVOKESTATIC, "java/lang/Character", "valueOf", "(C)Ljava/lang/Character;", false);
     } else if (value instanceof ClassReference) {
-      context.currentMethodVisitor.visitInvokeDynamicInsn(((ClassReference) value).toJVMType(), "()Ljava/lang/Class;", CLASSREF_HANDLE);
+      if (USE_CONDY) {
+        context.currentMethodVisitor.visitLdcInsn(classReferenceConstant((ClassReference) value));
+      } else {
+        context.currentMethodVisitor.visitInvokeDynamicInsn(((ClassReference) value).toJVMType(), "()Ljava/lang/Class;", CLASSREF_HANDLE);
+      }
+    } else if (value instanceof FunctionRef) {
+      context.currentMethodVisitor.visitLdcInsn(functionReferenceConstant((FunctionRef) value));
     } else if (value instanceof Double) {
       double d = (Double) value;
       context.currentMethodVisitor.visitLdcInsn(d);
@@ -568,6 +635,21 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
     }
   }
 
+  private static ConstantDynamic classReferenceConstant(ClassReference reference) {
+    return new ConstantDynamic(reference.toJVMType(), "Ljava/lang/Class;", CLASSREF_CONSTANT_HANDLE);
+  }
+
+  /*
+   * Only kept as constants by the sugar expansion when dynamic constants are enabled.
+   */
+  private ConstantDynamic functionReferenceConstant(FunctionRef reference) {
+    ClassReference module = ClassReference.of(reference.module() == null
+        ? currentModule.getPackageAndClass()
+        : reference.module());
+    return new ConstantDynamic(reference.name(), "Lgololang/FunctionReference;", FUNCTIONREF_CONSTANT_HANDLE,
+        classReferenceConstant(module), reference.arity(), reference.varargs() ? 1 : 0);
+  }
+
   @Override
   public void visitReturnStatement(ReturnStatement returnStatement) {
     GoloStatement<?> expr = returnStatement.expression();
@@ -650,6 +732,12 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
 
   @Override
   public void visitFunctionInvocation(FunctionInvocation functionInvocation) {
+    StaticCallBindingVisitor.Target target =
+      (StaticCallBindingVisitor.Target) functionInvocation.metadata(StaticCallBindingVisitor.STATIC_TARGET);
+    if (target != null) {
+      visitStaticInvocation(functionInvocation, target);
+      return;
+    }
     String name = functionInvocation.getName().replaceAll("\\.", "#");
     String typeDef = goloFunctionSignature(functionInvocation.getArity());
     Handle handle = FUNCTION_INVOCATION_HANDLE;
@@ -673,6 +761,25 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
     context.currentMethodVisitor.visitInvokeDynamicInsn(name, typeDef, handle, bootstrapArgs.toArray());
   }
 
+  private void visitStaticInvocation(FunctionInvocation functionInvocation, StaticCallBindingVisitor.Target target) {
+    List<GoloElement<?>> arguments = functionInvocation.getArguments();
+    for (int i = 0; i < arguments.size(); i++) {
+      arguments.get(i).accept(this);
+      Class<?> type = target.type.parameterType(i);
+      if (type != Object.class) {
+        context.currentMethodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+      }
+    }
+    context.currentMethodVisitor.visitMethodInsn(INVOKESTATIC, target.owner, target.name,
+        target.type.toMethodDescriptorString(), target.onInterface);
+    Class<?> returnType = target.type.returnType();
+    if (returnType == void.class) {
+      context.currentMethodVisitor.visitInsn(ACONST_NULL);
+    } else if (returnType.isPrimitive()) {
+      box(returnType);
+    }
+  }
+
   @Override
   public void visitMethodInvocation(MethodInvocation methodInvocation) {
     List<Object> bootstrapArgs = new ArrayList<>();
@@ -693,8 +800,14 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
 
   @Override
   public void visitAssignmentStatement(AssignmentStatement assignmentStatement) {
-    assignmentStatement.walk(this);
     LocalReference reference = assignmentStatement.getLocalReference();
+    Class<?> type = context.typeOf(reference);
+    if (type != null) {
+      visitPrimitive(assignmentStatement.expression(), type);
+      context.storePrimitive(reference);
+      return;
+    }
+    assignmentStatement.walk(this);
     if (reference.isModuleState()) {
       context.currentMethodVisitor.visitInvokeDynamicInsn(
           (klass + "." + reference.getName()).replaceAll("\\.", "#"),
@@ -715,6 +828,9 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
           "()Ljava/lang/Object;",
           FUNCTION_INVOCATION_HANDLE,
           (Object) 0);
+    } else if (context.typeOf(reference) != null) {
+      context.loadPrimitive(reference);
+      box(context.typeOf(reference));
     } else {
       context.loadObject(reference.getIndex());
     }
@@ -722,11 +838,18 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
 
   @Override
   public void visitConditionalBranching(ConditionalBranching conditionalBranching) {
-    Label branchingElseLabel = new Label();
+    if (SWITCH_CASES && conditionalBranching.metadata(SugarExpansionVisitor.CASE_SWITCH) != null) {
+      switchOnConstants(conditionalBranching);
+    }
+    Label branchingElseLabel = context.caseDefaultLabels.containsKey(conditionalBranching)
+      ? context.caseDefaultLabels.remove(conditionalBranching)
+      : new Label();
     Label branchingExitLabel = new Label();
-    conditionalBranching.getCondition().accept(this);
-    asmBooleanValue();
-    context.currentMethodVisitor.visitJumpInsn(IFEQ, branchingElseLabel);
+    jumpIfFalse(conditionalBranching.getCondition(), branchingElseLabel);
+    Label caseLabel = context.caseLabels.remove(conditionalBranching);
+    if (caseLabel != null) {
+      context.currentMethodVisitor.visitLabel(caseLabel);
+    }
     conditionalBranching.getTrueBlock().accept(this);
     if (conditionalBranching.hasFalseBlock()) {
       if (!conditionalBranching.getTrueBlock().hasReturn()) {
@@ -747,8 +870,144 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
     }
   }
 
+  /**
+   * Dispatches an expanded {@code case} comparing a reference with constants or testing union values
+   * using a switch.
+   * <p>
+   * The switch jumps directly to the blocks of the conditional branchings generated next, and to the
+   * {@code otherwise} block if no constant matches. The conditional branchings remain the generic
+   * fallback, when the reference value is not of the type of the constants, or not a value of the union.
+   */
+  private void switchOnConstants(ConditionalBranching first) {
+    Object kind = first.metadata(SugarExpansionVisitor.CASE_SWITCH);
+    Union union = kind instanceof Union ? (Union) kind : null;
+    ReferenceLookup subject = SugarExpansionVisitor.switchSubject(first.getCondition());
+    LocalReference reference = subject.resolveIn(context.referenceTableStack.peek());
+    Map<Object, ConditionalBranching> branchings = new LinkedHashMap<>();
+    ConditionalBranching last = first;
+    for (ConditionalBranching b = first; b != null; b = b.getElseConditionalBranching()) {
+      Object key = union == null
+        ? SugarExpansionVisitor.switchKey(b.getCondition(), subject.getName())
+        : (Object) JavaBytecodeUnionGenerator.ordinal(union,
+            SugarExpansionVisitor.testedUnionValue(b.getCondition(), subject.getName()));
+      branchings.putIfAbsent(key, b);
+      last = b;
+    }
+    Class<?> keyType = branchings.keySet().iterator().next().getClass();
+    Class<?> type = reference == null ? null : context.typeOf(reference);
+    if (type != null && (union != null || type != int.class || keyType != Integer.class)) {
+      return;
+    }
+    Map<Object, Label> targets = new LinkedHashMap<>();
+    for (Map.Entry<Object, ConditionalBranching> entry : branchings.entrySet()) {
+      Label label = new Label();
+      context.caseLabels.put(entry.getValue(), label);
+      targets.put(entry.getKey(), label);
+    }
+    Label defaultLabel = new Label();
+    context.caseDefaultLabels.put(last, defaultLabel);
+    MethodVisitor mv = context.currentMethodVisitor;
+    if (type != null) {
+      context.loadPrimitive(reference);
+      intSwitch(targets, defaultLabel);
+      return;
+    }
+    Label fallbackLabel = new Label();
+    String keyClass = union == null ? Type.getInternalName(keyType) : union.getPackageAndClass().toJVMType();
+    subject.accept(this);
+    mv.visitInsn(DUP);
+    mv.visitTypeInsn(INSTANCEOF, keyClass);
+    mv.visitJumpInsn(IFEQ, fallbackLabel);
+    mv.visitTypeInsn(CHECKCAST, keyClass);
+    if (union != null) {
+      mv.visitMethodInsn(INVOKEVIRTUAL, "gololang/Union", "__$$_ordinal", "()I", false);
+      intSwitch(targets, defaultLabel);
+    } else if (keyType == String.class) {
+      stringSwitch(targets, defaultLabel);
+    } else {
+      mv.visitMethodInsn(INVOKEVIRTUAL, keyClass, keyType == Integer.class ? "intValue" : "charValue",
+          keyType == Integer.class ? "()I" : "()C", false);
+      intSwitch(targets, defaultLabel);
+    }
+    mv.visitLabel(fallbackLabel);
+    mv.visitInsn(POP);
+  }
+
+  private static int intKey(Object key) {
+    return key instanceof Character ? (Character) key : (Integer) key;
+  }
+
+  /**
+   * Jumps on the int on the stack, choosing between a {@code tableswitch} and a {@code lookupswitch}
+   * as {@code javac} does.
+   */
+  private void intSwitch(Map<Object, Label> targets, Label defaultLabel) {
+    TreeMap<Integer, Label> sorted = new TreeMap<>();
+    targets.forEach((key, label) -> sorted.put(intKey(key), label));
+    int low = sorted.firstKey();
+    int high = sorted.lastKey();
+    long tableCost = 4 + ((long) high - low + 1) + 3 * 3;
+    long lookupCost = 3 + 2L * sorted.size() + 3L * sorted.size();
+    if (tableCost <= lookupCost) {
+      Label[] labels = new Label[high - low + 1];
+      Arrays.fill(labels, defaultLabel);
+      sorted.forEach((key, label) -> labels[key - low] = label);
+      context.currentMethodVisitor.visitTableSwitchInsn(low, high, defaultLabel, labels);
+    } else {
+      context.currentMethodVisitor.visitLookupSwitchInsn(
+          defaultLabel,
+          sorted.keySet().stream().mapToInt(Integer::intValue).toArray(),
+          sorted.values().toArray(new Label[sorted.size()]));
+    }
+  }
+
+  /**
+   * Jumps on the string on the stack, using a {@code lookupswitch} on its hash code followed by
+   * equality tests.
+   */
+  private void stringSwitch(Map<Object, Label> targets, Label defaultLabel) {
+    MethodVisitor mv = context.currentMethodVisitor;
+    TreeMap<Integer, List<Object>> buckets = new TreeMap<>();
+    for (Object key : targets.keySet()) {
+      buckets.computeIfAbsent(key.hashCode(), h -> new ArrayList<>()).add(key);
+    }
+    Label noMatchLabel = new Label();
+    Label[] bucketLabels = new Label[buckets.size()];
+    for (int i = 0; i < bucketLabels.length; i++) {
+      bucketLabels[i] = new Label();
+    }
+    mv.visitInsn(DUP);
+    mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+    mv.visitLookupSwitchInsn(
+        noMatchLabel,
+        buckets.keySet().stream().mapToInt(Integer::intValue).toArray(),
+        bucketLabels);
+    int i = 0;
+    for (List<Object> bucket : buckets.values()) {
+      mv.visitLabel(bucketLabels[i++]);
+      for (Object key : bucket) {
+        Label nextLabel = new Label();
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn(key);
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+        mv.visitJumpInsn(IFEQ, nextLabel);
+        mv.visitInsn(POP);
+        context.goTo(targets.get(key));
+        mv.visitLabel(nextLabel);
+      }
+      context.goTo(noMatchLabel);
+    }
+    mv.visitLabel(noMatchLabel);
+    mv.visitInsn(POP);
+    context.goTo(defaultLabel);
+  }
+
   @Override
   public void visitLoopStatement(LoopStatement loopStatement) {
+    if (isSpecializable(loopStatement)) {
+      specializedForEach(loopStatement);
+      return;
+    }
     // TODO: handle init and post statement and potential reference scoping issues
     Label loopStart = new Label();
     Label loopEnd = new Label();
@@ -758,9 +1017,7 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
       loopStatement.init().accept(this);
     }
     context.currentMethodVisitor.visitLabel(loopStart);
-    loopStatement.condition().accept(this);
-    asmBooleanValue();
-    context.currentMethodVisitor.visitJumpInsn(IFEQ, loopEnd);
+    jumpIfFalse(loopStatement.condition(), loopEnd);
     loopStatement.getBlock().accept(this);
     if (loopStatement.hasPostStatement()) {
       loopStatement.post().accept(this);
@@ -769,6 +1026,138 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
     context.currentMethodVisitor.visitLabel(loopEnd);
   }
 
+  private static boolean isSpecializable(LoopStatement loop) {
+    return SPECIALIZE_FOREACH
+      && loop.metadata(SugarExpansionVisitor.FOREACH_LOOP) != null
+      && loop.getBlock().descendants(element -> element instanceof LoopStatement).isEmpty()
+      && loop.getBlock().descendants().count() <= FOREACH_MAX_BODY_SIZE;
+  }
+
+  /**
+   * Generates a foreach loop specialized on the kind of the iterated value.
+   * <p>
+   * The loop is generated once for each shape given by {@link org.eclipse.golo.runtime.ForEachSupport}:
+   * arrays are iterated with an {@code int} index, integer ranges with a {@code long} counter, and
+   * other values with their iterator, as the non specialized loop does.
+   * The iterated value is kept in the iterator reference, and the kind, index and bound of the loop
+   * are kept in the slots following the ones of the local references.
+   */
+  private void specializedForEach(LoopStatement loop) {
+    MethodVisitor mv = context.currentMethodVisitor;
+    AssignmentStatement init = loop.init();
+    BinaryOperation iteratorCall = (BinaryOperation) init.expression();
+    int source = init.getLocalReference().getIndex();
+    int kind = context.localTypes.freeSlot();
+    int index = kind + 1;
+    int bound = kind + 3;
+    int increment = kind + 5;
+    Label iteratorShape = new Label();
+    Label arrayShape = new Label();
+    Label rangeShape = new Label();
+    Label loopEnd = new Label();
+
+    iteratorCall.left().accept(this);
+    mv.visitInsn(DUP);
+    context.storeObject(source);
+    mv.visitMethodInsn(INVOKESTATIC, FOREACH_SUPPORT, "kind", "(Ljava/lang/Object;)I", false);
+    mv.visitInsn(DUP);
+    mv.visitVarInsn(ISTORE, kind);
+    mv.visitTableSwitchInsn(0, 4, iteratorShape,
+        iteratorShape, arrayShape, arrayShape, rangeShape, rangeShape);
+
+    mv.visitLabel(iteratorShape);
+    context.loadObject(source);
+    iteratorCall.right().accept(this);
+    context.storeObject(source);
+    forEachShape(loop, ForEachSupport.ITERATOR, kind, loopEnd, () -> jumpIfFalse(loop.condition(), loopEnd));
+
+    mv.visitLabel(arrayShape);
+    context.loadObject(source);
+    mv.visitMethodInsn(INVOKESTATIC, "java/lang/reflect/Array", "getLength", "(Ljava/lang/Object;)I", false);
+    mv.visitVarInsn(ISTORE, bound);
+    mv.visitInsn(ICONST_0);
+    mv.visitVarInsn(ISTORE, index);
+    forEachShape(loop, ForEachSupport.OBJECT_ARRAY, kind, loopEnd, () -> {
+      mv.visitVarInsn(ILOAD, index);
+      mv.visitVarInsn(ILOAD, bound);
+      mv.visitJumpInsn(IF_ICMPGE, loopEnd);
+    });
+
+    mv.visitLabel(rangeShape);
+    for (String accessor : new String[]{"rangeFrom", "rangeTo", "rangeIncrement"}) {
+      context.loadObject(source);
+      mv.visitMethodInsn(INVOKESTATIC, FOREACH_SUPPORT, accessor, "(Ljava/lang/Object;)J", false);
+    }
+    mv.visitVarInsn(LSTORE, increment);
+    mv.visitVarInsn(LSTORE, bound);
+    mv.visitVarInsn(LSTORE, index);
+    forEachShape(loop, ForEachSupport.INT_RANGE, kind, loopEnd, () -> {
+      mv.visitVarInsn(LLOAD, index);
+      mv.visitVarInsn(LLOAD, bound);
+      mv.visitVarInsn(LLOAD, increment);
+      mv.visitMethodInsn(INVOKESTATIC, FOREACH_SUPPORT, "inRange", "(JJJ)Z", false);
+      mv.visitJumpInsn(IFEQ, loopEnd);
+    });
+
+    mv.visitLabel(loopEnd);
+  }
+
+  private void forEachShape(LoopStatement loop, int shape, int slot, Label loopEnd, Runnable condition) {
+    Label loopStart = new Label();
+    context.loopStartMap.put(loop, loopStart);
+    context.loopEndMap.put(loop, loopEnd);
+    context.forEachLoop = loop;
+    context.forEachShape = shape;
+    context.forEachSlot = slot;
+    context.currentMethodVisitor.visitLabel(loopStart);
+    condition.run();
+    loop.getBlock().accept(this);
+    context.goTo(loopStart);
+    context.forEachLoop = null;
+  }
+
+  /**
+   * Generates the {@code next()} invocation of a specialized foreach loop.
+   */
+  private void forEachNext(LoopStatement loop) {
+    MethodVisitor mv = context.currentMethodVisitor;
+    int source = loop.init().getLocalReference().getIndex();
+    int kind = context.forEachSlot;
+    int index = kind + 1;
+    int increment = kind + 5;
+    switch (context.forEachShape) {
+      case ForEachSupport.OBJECT_ARRAY:
+        Label primitive = new Label();
+        Label done = new Label();
+        mv.visitVarInsn(ILOAD, kind);
+        loadInteger(mv, ForEachSupport.OBJECT_ARRAY);
+        mv.visitJumpInsn(IF_ICMPNE, primitive);
+        context.loadObject(source);
+        mv.visitTypeInsn(CHECKCAST, "[Ljava/lang/Object;");
+        mv.visitVarInsn(ILOAD, index);
+        mv.visitInsn(AALOAD);
+        context.goTo(done);
+        mv.visitLabel(primitive);
+        context.loadObject(source);
+        mv.visitVarInsn(ILOAD, index);
+        mv.visitMethodInsn(INVOKESTATIC, FOREACH_SUPPORT, "element", "(Ljava/lang/Object;I)Ljava/lang/Object;", false);
+        mv.visitLabel(done);
+        mv.visitIincInsn(index, 1);
+        break;
+      case ForEachSupport.INT_RANGE:
+        mv.visitVarInsn(LLOAD, index);
+        mv.visitVarInsn(ILOAD, kind);
+        mv.visitMethodInsn(INVOKESTATIC, FOREACH_SUPPORT, "rangeElement", "(JI)Ljava/lang/Object;", false);
+        mv.visitVarInsn(LLOAD, index);
+        mv.visitVarInsn(LLOAD, increment);
+        mv.visitInsn(LADD);
+        mv.visitVarInsn(LSTORE, index);
+        break;
+      default:
+        throw new IllegalStateException("Unknown foreach shape " + context.forEachShape);
+    }
+  }
+
   @Override
   public void visitLoopBreakFlowStatement(LoopBreakFlowStatement loopBreakFlowStatement) {
     Label jumpTarget;
@@ -940,8 +1329,17 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
         orIfNullOperator(binaryOperation);
         break;
       default:
-        binaryOperation.walk(this);
-        genericBinaryOperator(binaryOperation);
+        if (context.forEachLoop != null && context.forEachShape != ForEachSupport.ITERATOR
+            && binaryOperation.metadata(SugarExpansionVisitor.FOREACH_NEXT) == context.forEachLoop) {
+          forEachNext(context.forEachLoop);
+        } else if (isPrimitiveOperation(binaryOperation)) {
+          primitiveBinaryOperator(binaryOperation);
+        } else if (hasPrimitiveOperand(binaryOperation)) {
+          typedBinaryOperator(binaryOperation);
+        } else {
+          binaryOperation.walk(this);
+          genericBinaryOperator(binaryOperation);
+        }
     }
   }
 
@@ -952,6 +1350,188 @@ final class JavaBytecodeGenerationGoloIrVisitor implements GoloIrVisitor {
     }
   }
 
+  private boolean isPrimitiveOperation(BinaryOperation binaryOperation) {
+    return context.typeOf(binaryOperation) != null
+      || context.localTypes.comparisonTypeOf(binaryOperation, context.referenceTableStack.peek()) != null;
+  }
+
+  private boolean hasPrimitiveOperand(BinaryOperation binaryOperation) {
+    return (isArithmetic(binaryOperation.getType()) || isComparison(binaryOperation.getType()))
+      && (context.typeOf(binaryOperation.left()) != null || context.typeOf(binaryOperation.right()) != null);
+  }
+
+  private static boolean isArithmetic(OperatorType type) {
+    return type == OperatorType.PLUS || type == OperatorType.MINUS || type == OperatorType.TIMES
+      || type == OperatorType.DIVIDE || type == OperatorType.MODULO;
+  }
+
+  private static boolean isComparison(OperatorType type) {
+    return type == OperatorType.EQUALS || type == OperatorType.NOTEQUALS
+      || type == OperatorType.LESS || type == OperatorType.LESSOREQUALS
+      || type == OperatorType.MORE || type == OperatorType.MOREOREQUALS;
+  }
+
+  /**
+   * Operation on primitive operands: the value is computed without boxing, and boxed as a result.
+   */
+  private void primitiveBinaryOperator(BinaryOperation binaryOperation) {
+    Class<?> type = context.typeOf(binaryOperation);
+    if (type != null) {
+      visitPrimitive(binaryOperation, type);
+      box(type);
+      return;
+    }
+    Label falseLabel = new Label();
+    Label exitLabel = new Label();
+    jumpIfFalse(binaryOperation, falseLabel);
+    asmTrueObject();
+    context.goTo(exitLabel);
+    context.currentMethodVisitor.visitLabel(falseLabel);
+    asmFalseObject();
+    context.currentMethodVisitor.visitLabel(exitLabel);
+  }
+
+  /**
+   * Operation with a primitive operand and an object one: the primitive operand is given unboxed to
+   * a typed operator call site.
+   */
+  private void typedBinaryOperator(BinaryOperation binaryOperation) {
+    MethodType type = genericMethodType(2);
+    Class<?> leftType = context.typeOf(binaryOperation.left());
+    Class<?> rightType = context.typeOf(binaryOperation.right());
+    if (leftType != null) {
+      visitPrimitive(binaryOperation.left(), leftType);
+      type = type.changeParameterType(0, leftType);
+    } else {
+      binaryOperation.left().accept(this);
+    }
+    if (rightType != null) {
+      visitPrimitive(binaryOperation.right(), rightType);
+      type = type.changeParameterType(1, rightType);
+    } else {
+      binaryOperation.right().accept(this);
+    }
+    String name = binaryOperation.getType().name().toLowerCase();
+    context.currentMethodVisitor.visitInvokeDynamicInsn(name, type.toMethodDescriptorString(), OPERATOR_HANDLE, (Integer) 2);
+  }
+
+  /**
+   * Pushes the value of an expression inferred as primitive, converted to the given type.
+   */
+  private void visitPrimitive(GoloElement<?> expression, Class<?> type) {
+    Class<?> expressionType = context.typeOf(expression);
+    MethodVisitor mv = context.currentMethodVisitor;
+    if (expression instanceof ConstantStatement) {
+      Object value = ((ConstantStatement) expression).value();
+      if (expressionType == int.class) {
+        loadInteger(mv, (Integer) value);
+      } else if (expressionType == long.class) {
+        loadLong(mv, (Long) value);
+      } else {
+        mv.visitLdcInsn(value);
+      }
+    } else if (expression instanceof ReferenceLookup) {
+      context.loadPrimitive(((ReferenceLookup) expression).resolveIn(context.referenceTableStack.peek()));
+    } else {
+      BinaryOperation operation = (BinaryOperation) expression;
+      visitPrimitive(operation.left(), expressionType);
+      visitPrimitive(operation.right(), expressionType);
+      mv.visitInsn(Type.getType(expressionType).getOpcode(arithmeticOpcode(operation.getType())));
+    }
+    convert(expressionType, type);
+  }
+
+  private static int arithmeticOpcode(OperatorType type) {
+    switch (type) {
+      case PLUS:
+        return IADD;
+      case MINUS:
+        return ISUB;
+      case TIMES:
+        return IMUL;
+      case DIVIDE:
+        return IDIV;
+      case MODULO:
+        return IREM;
+      default:
+        throw new IllegalArgumentException(type.toString());
+    }
+  }
+
+  private void convert(Class<?> from, Class<?> to) {
+    if (from == to) {
+      return;
+    }
+    if (from == int.class) {
+      context.currentMethodVisitor.visitInsn(to == long.class ? I2L : I2D);
+    } else if (from == long.class) {
+      context.currentMethodVisitor.visitInsn(L2D);
+    } else {
+      throw new IllegalArgumentException("Can't narrow " + from + " to " + to);
+    }
+  }
+
+  private void box(Class<?> type) {
+    Type wrapper = Type.getType(methodType(type).wrap().returnType());
+    context.currentMethodVisitor.visitMethodInsn(INVOKESTATIC, wrapper.getInternalName(), "valueOf",
+        Type.getMethodDescriptor(wrapper, Type.getType(type)), false);
+  }
+
+  /**
+   * Evaluates a condition, and jumps to the given label if it is false.
+   * <p>
+   * Comparisons of primitive values are done directly, without building a boolean object.
+   */
+  private void jumpIfFalse(ExpressionStatement<?> condition, Label falseLabel) {
+    Class<?> type = null;
+    if (condition instanceof BinaryOperation) {
+      type = context.localTypes.comparisonTypeOf((BinaryOperation) condition, context.referenceTableStack.peek());
+    }
+    if (type == null) {
+      condition.accept(this);
+      asmBooleanValue();
+      context.currentMethodVisitor.visitJumpInsn(IFEQ, falseLabel);
+      return;
+    }
+    BinaryOperation comparison = (BinaryOperation) condition;
+    MethodVisitor mv = context.currentMethodVisitor;
+    visitPrimitive(comparison.left(), type);
+    visitPrimitive(comparison.right(), type);
+    OperatorType operator = comparison.getType();
+    if (type == int.class) {
+      mv.visitJumpInsn(negatedJump(operator) - IFEQ + IF_ICMPEQ, falseLabel);
+      return;
+    }
+    if (type == long.class) {
+      mv.visitInsn(LCMP);
+    } else if (operator == OperatorType.LESS || operator == OperatorType.LESSOREQUALS) {
+      // NaN compares as greater, so that the comparison is false
+      mv.visitInsn(DCMPG);
+    } else {
+      mv.visitInsn(DCMPL);
+    }
+    mv.visitJumpInsn(negatedJump(operator), falseLabel);
+  }
+
+  private static int negatedJump(OperatorType type) {
+    switch (type) {
+      case EQUALS:
+        return IFNE;
+      case NOTEQUALS:
+        return IFEQ;
+      case LESS:
+        return IFGE;
+      case LESSOREQUALS:
+        return IFGT;
+      case MORE:
+        return IFLE;
+      case MOREOREQUALS:
+        return IFLT;
+      default:
+        throw new IllegalArgumentException(type.toString());
+    }
+  }
+
   private void orIfNullOperator(BinaryOperation binaryOperation) {
     int idx = context.referenceTableStack.peek().size();
     Label nullLabel = new Label();
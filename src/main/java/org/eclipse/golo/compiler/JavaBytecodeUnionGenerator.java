@@ -16,6 +16,7 @@ import gololang.ir.Member;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 
 import java.util.Collection;
 import java.util.LinkedList;
@@ -38,11 +39,12 @@ class JavaBytecodeUnionGenerator {
     classWriter.visit(V1_8, ACC_PUBLIC | ACC_SUPER | ACC_ABSTRACT | deprecatedFlag(union),
         union.getPackageAndClass().toJVMType(), null, "gololang/Union", null);
     addAnnotations(union, classWriter::visitAnnotation);
-    makeDefaultConstructor(classWriter, "gololang/Union");
+    makeOrdinalConstructor(classWriter);
     HashMap<String, PackageAndClass> staticFields = new HashMap<>();
+    int ordinal = 0;
     for (UnionValue value : union.getValues()) {
       makeMatchlikeTestMethod(classWriter, value, false);
-      results.add(makeUnionValue(classWriter, sourceFilename, value));
+      results.add(makeUnionValue(classWriter, sourceFilename, value, ordinal++));
       if (value.hasMembers()) {
         makeStaticFactory(classWriter, value);
       } else {
@@ -50,11 +52,45 @@ class JavaBytecodeUnionGenerator {
       }
     }
     initStaticFields(classWriter, union.getPackageAndClass(), staticFields);
+    makeVariantsTable(classWriter, union);
     classWriter.visitEnd();
     results.addFirst(new CodeGenerationResult(classWriter.toByteArray(), union.getPackageAndClass(), sourceFilename));
     return results;
   }
 
+  /**
+   * Returns the ordinal of the named value in the union, or {@code -1} if the union has no such value.
+   * <p>
+   * The ordinal of a value is its position in the union declaration.
+   */
+  static int ordinal(Union union, String valueName) {
+    int ordinal = 0;
+    for (UnionValue value : union.getValues()) {
+      if (value.getName().equals(valueName)) {
+        return ordinal;
+      }
+      ordinal++;
+    }
+    return -1;
+  }
+
+  private void makeVariantsTable(ClassWriter cw, Union union) {
+    MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "$variants", "()[Ljava/lang/Class;", null, null);
+    mv.visitCode();
+    loadInteger(mv, union.getValues().size());
+    mv.visitTypeInsn(ANEWARRAY, "java/lang/Class");
+    int i = 0;
+    for (UnionValue value : union.getValues()) {
+      mv.visitInsn(DUP);
+      loadInteger(mv, i++);
+      mv.visitLdcInsn(Type.getObjectType(value.getPackageAndClass().toJVMType()));
+      mv.visitInsn(AASTORE);
+    }
+    mv.visitInsn(ARETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
   private void initStaticFields(ClassWriter cw, PackageAndClass unionType, Map<String, PackageAndClass> staticFields) {
     MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
     mv.visitCode();
@@ -89,11 +125,23 @@ class JavaBytecodeUnionGenerator {
     mv.visitEnd();
   }
 
-  private void makeDefaultConstructor(ClassWriter classWriter, String superCls) {
+  private void makeOrdinalConstructor(ClassWriter classWriter) {
+    MethodVisitor visitor = classWriter.visitMethod(ACC_PROTECTED, "<init>", "(I)V", null, null);
+    visitor.visitCode();
+    visitor.visitVarInsn(ALOAD, 0);
+    visitor.visitVarInsn(ILOAD, 1);
+    visitor.visitMethodInsn(INVOKESPECIAL, "gololang/Union", "<init>", "(I)V", false);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void makeDefaultConstructor(ClassWriter classWriter, String superCls, int ordinal) {
     MethodVisitor visitor = classWriter.visitMethod(ACC_PROTECTED, "<init>", "()V", null, null);
     visitor.visitCode();
     visitor.visitVarInsn(ALOAD, 0);
-    visitor.visitMethodInsn(INVOKESPECIAL, superCls, "<init>", "()V", false);
+    loadInteger(visitor, ordinal);
+    visitor.visitMethodInsn(INVOKESPECIAL, superCls, "<init>", "(I)V", false);
     visitor.visitInsn(RETURN);
     visitor.visitMaxs(0, 0);
     visitor.visitEnd();
@@ -182,7 +230,7 @@ class JavaBytecodeUnionGenerator {
     visitor.visitEnd();
   }
 
-  private CodeGenerationResult makeUnionValue(ClassWriter parentClassWriter, String sourceFilename, UnionValue value) {
+  private CodeGenerationResult makeUnionValue(ClassWriter parentClassWriter, String sourceFilename, UnionValue value, int ordinal) {
     String unionType = value.getUnion().getPackageAndClass().toJVMType();
     String valueType = value.getPackageAndClass().toJVMType();
     ClassWriter classWriter = new ClassWriter(COMPUTE_FRAMES | COMPUTE_MAXS);
@@ -195,12 +243,12 @@ class JavaBytecodeUnionGenerator {
       classWriter.visitField(ACC_PUBLIC | ACC_FINAL, member.getName(), "Ljava/lang/Object;", null, null).visitEnd();
     }
     if (value.hasMembers()) {
-      makeValuedConstructor(classWriter, value);
+      makeValuedConstructor(classWriter, value, ordinal);
       makeHashCode(classWriter, value);
       makeEquals(classWriter, value);
       makeToArray(classWriter, value);
     } else {
-      makeDefaultConstructor(classWriter, unionType);
+      makeDefaultConstructor(classWriter, unionType, ordinal);
       parentClassWriter.visitField(ACC_PUBLIC | ACC_FINAL | ACC_STATIC | deprecatedFlag(value), value.getName(),
             value.getUnion().getPackageAndClass().toJVMRef(), null, null).visitEnd();
     }
@@ -310,13 +358,14 @@ class JavaBytecodeUnionGenerator {
     return signature.toString();
   }
 
-  private void makeValuedConstructor(ClassWriter cw, UnionValue value) {
+  private void makeValuedConstructor(ClassWriter cw, UnionValue value, int ordinal) {
     MethodVisitor mv = cw.visitMethod(ACC_PROTECTED | deprecatedFlag(value), "<init>",
         argsSignature(value.getMembers().size()) + "V", null, null);
     addAnnotations(value, mv::visitAnnotation);
     mv.visitCode();
     mv.visitVarInsn(ALOAD, 0);
-    mv.visitMethodInsn(INVOKESPECIAL, value.getUnion().getPackageAndClass().toJVMType(), "<init>", "()V", false);
+    loadInteger(mv, ordinal);
+    mv.visitMethodInsn(INVOKESPECIAL, value.getUnion().getPackageAndClass().toJVMType(), "<init>", "(I)V", false);
     int idx = 1;
     for (Member member : value.getMembers()) {
       mv.visitVarInsn(ALOAD, 0);
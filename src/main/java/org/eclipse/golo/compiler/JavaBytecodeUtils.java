@@ -27,6 +27,16 @@ final class JavaBytecodeUtils {
     // utility class
   }
 
+  /*
+   * Function references and class literals are emitted as dynamic constants, which requires the
+   * generated module classes to target Java 11.
+   */
+  static final boolean USE_CONDY = gololang.Runtime.loadBoolean("golo.compiler.condy", "GOLO_COMPILER_CONDY", false);
+
+  static int classFileVersion() {
+    return USE_CONDY ? V11 : V1_8;
+  }
+
   static boolean between(int value, int lower, int upper) {
     return (value >= lower) && (value <= upper);
   }
@@ -59,9 +69,16 @@ final class JavaBytecodeUtils {
     }
   }
 
+  /*
+   * The label must be visited before the line number, otherwise the line starts at the beginning of
+   * the method.
+   */
   static Label visitLine(GoloElement<?> element, MethodVisitor visitor) {
-    Label label = labelAtPosition(element, visitor);
+    Label label = new Label();
     visitor.visitLabel(label);
+    if (element != null && element.hasPosition()) {
+      visitor.visitLineNumber(element.positionInSourceCode().getStartLine(), label);
+    }
     return label;
   }
 
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.compiler;
+
+import gololang.ir.*;
+
+import java.util.*;
+
+import static gololang.ir.TryCatchFinally.DUMMY_TRY_RESULT_VARIABLE;
+
+/**
+ * Infers the local references of a function that always hold an {@code int}, a {@code long} or a
+ * {@code double}.
+ * <p>
+ * A local reference is primitive if every value assigned to it is a numeric constant, a primitive
+ * local reference, or an arithmetic operation on such values, all of the same type. Function
+ * parameters, references captured by closures or called as functions, and module state are never
+ * primitive. The types of the operands follow the Java binary numeric promotion, as the generic
+ * operators do.
+ * <p>
+ * The inference is optimistic: every candidate reference starts with an unknown type that is refined
+ * until a fixpoint is reached, such that references assigned in loops (e.g. {@code i = i + 1}) are
+ * typed.
+ * <p>
+ * Since a reference is identified by its index in the function, the inference must run after the
+ * local references assignment.
+ */
+final class LocalTypeInference extends AbstractGoloIrVisitor {
+
+  private static final boolean ENABLED = gololang.Runtime.loadBoolean(
+      "golo.optimize.primitive-locals", "GOLO_OPTIMIZE_PRIMITIVE_LOCALS", true);
+
+  /**
+   * Type of a candidate reference that is not yet known.
+   */
+  private static final Class<?> UNKNOWN = Void.TYPE;
+
+  private static final Set<OperatorType> ARITHMETIC = EnumSet.of(
+      OperatorType.PLUS, OperatorType.MINUS, OperatorType.TIMES, OperatorType.DIVIDE, OperatorType.MODULO);
+
+  private static final Set<OperatorType> COMPARISON = EnumSet.of(
+      OperatorType.EQUALS, OperatorType.NOTEQUALS,
+      OperatorType.LESS, OperatorType.LESSOREQUALS, OperatorType.MORE, OperatorType.MOREOREQUALS);
+
+  private static final class Assignment {
+    final ExpressionStatement<?> expression;
+    final ReferenceTable table;
+
+    Assignment(ExpressionStatement<?> expression, ReferenceTable table) {
+      this.expression = expression;
+      this.table = table;
+    }
+  }
+
+  private final Deque<ReferenceTable> tables = new LinkedList<>();
+  private final Map<Integer, List<Assignment>> assignments = new HashMap<>();
+  private final Set<Integer> excluded = new HashSet<>();
+  private final Map<Integer, Class<?>> types = new HashMap<>();
+  private final Map<Integer, Integer> slots = new HashMap<>();
+  private int maxIndex = -1;
+  private int maxTableSize = 0;
+  private int freeSlot;
+
+  private LocalTypeInference() { }
+
+  /**
+   * Infers the primitive local references of the given function.
+   */
+  static LocalTypeInference of(GoloFunction function) {
+    LocalTypeInference inference = new LocalTypeInference();
+    inference.infer(function);
+    return inference;
+  }
+
+  private void infer(GoloFunction function) {
+    ReferenceTable table = function.getBlock().getReferenceTable();
+    for (String parameter : function.getParameterNames()) {
+      exclude(table, parameter);
+    }
+    exclude(table, DUMMY_TRY_RESULT_VARIABLE);
+    function.getBlock().accept(this);
+    if (ENABLED) {
+      for (Integer index : assignments.keySet()) {
+        if (!excluded.contains(index)) {
+          types.put(index, UNKNOWN);
+        }
+      }
+      refine();
+      types.values().removeIf(type -> type == UNKNOWN);
+      refine();
+    }
+    allocateSlots(Math.max(function.getArity() + table.size(), maxTableSize));
+  }
+
+  private void refine() {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      Iterator<Map.Entry<Integer, Class<?>>> entries = types.entrySet().iterator();
+      while (entries.hasNext()) {
+        Map.Entry<Integer, Class<?>> entry = entries.next();
+        Class<?> type = UNKNOWN;
+        for (Assignment assignment : assignments.get(entry.getKey())) {
+          type = join(type, typeOf(assignment.expression, assignment.table));
+          if (type == null) {
+            break;
+          }
+        }
+        if (type == null) {
+          entries.remove();
+          changed = true;
+        } else if (type != entry.getValue()) {
+          entry.setValue(type);
+          changed = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Primitive references are stored in their own slots, after all the ones used for the objects.
+   */
+  private void allocateSlots(int temporaries) {
+    int slot = Math.max(maxIndex + 2, temporaries + 1);
+    for (Integer index : new TreeSet<>(types.keySet())) {
+      slots.put(index, slot);
+      slot += 2;
+    }
+    freeSlot = slot;
+  }
+
+  private static Class<?> join(Class<?> a, Class<?> b) {
+    if (a == null || b == null) {
+      return null;
+    }
+    if (a == UNKNOWN) {
+      return b;
+    }
+    if (b == UNKNOWN || a == b) {
+      return a;
+    }
+    return null;
+  }
+
+  private static Class<?> promote(Class<?> a, Class<?> b) {
+    if (a == null || b == null) {
+      return null;
+    }
+    if (a == UNKNOWN) {
+      return b;
+    }
+    if (b == UNKNOWN) {
+      return a;
+    }
+    if (a == double.class || b == double.class) {
+      return double.class;
+    }
+    if (a == long.class || b == long.class) {
+      return long.class;
+    }
+    return int.class;
+  }
+
+  private void exclude(ReferenceTable table, String name) {
+    LocalReference reference = table.get(name);
+    if (reference != null) {
+      excluded.add(reference.getIndex());
+    }
+  }
+
+  /**
+   * Returns the primitive type of a local reference, or {@code null} if it holds objects.
+   */
+  Class<?> typeOf(LocalReference reference) {
+    if (reference == null || reference.isModuleState()) {
+      return null;
+    }
+    return types.get(reference.getIndex());
+  }
+
+  /**
+   * Returns the slot of a primitive local reference.
+   */
+  int slotOf(LocalReference reference) {
+    return slots.get(reference.getIndex());
+  }
+
+  /**
+   * Returns the first slot used by no local reference, from which the generated code can store its
+   * own temporary values.
+   */
+  int freeSlot() {
+    return freeSlot;
+  }
+
+  /**
+   * Returns the primitive type of the value of an expression, or {@code null} if it is an object.
+   *
+   * @param expression the expression to type.
+   * @param table the reference table of the block containing the expression.
+   */
+  Class<?> typeOf(GoloElement<?> expression, ReferenceTable table) {
+    if (expression instanceof ConstantStatement) {
+      Object value = ((ConstantStatement) expression).value();
+      if (value instanceof Integer) {
+        return int.class;
+      }
+      if (value instanceof Long) {
+        return long.class;
+      }
+      if (value instanceof Double) {
+        return double.class;
+      }
+      return null;
+    }
+    if (expression instanceof ReferenceLookup) {
+      return typeOf(((ReferenceLookup) expression).resolveIn(table));
+    }
+    if (expression instanceof BinaryOperation) {
+      BinaryOperation operation = (BinaryOperation) expression;
+      if (ARITHMETIC.contains(operation.getType())) {
+        return promote(typeOf(operation.left(), table), typeOf(operation.right(), table));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the primitive type in which a comparison can be done, or {@code null} if it must use the
+   * generic operator.
+   */
+  Class<?> comparisonTypeOf(BinaryOperation operation, ReferenceTable table) {
+    if (!COMPARISON.contains(operation.getType())) {
+      return null;
+    }
+    return promote(typeOf(operation.left(), table), typeOf(operation.right(), table));
+  }
+
+  @Override
+  public void visitBlock(Block block) {
+    ReferenceTable table = block.getReferenceTable();
+    maxTableSize = Math.max(maxTableSize, table.size());
+    for (LocalReference reference : table.ownedReferences()) {
+      maxIndex = Math.max(maxIndex, reference.getIndex());
+    }
+    tables.push(table);
+    block.walk(this);
+    tables.pop();
+  }
+
+  @Override
+  public void visitAssignmentStatement(AssignmentStatement assignment) {
+    LocalReference reference = assignment.getLocalReference();
+    if (!reference.isModuleState() && reference.getIndex() >= 0) {
+      maxIndex = Math.max(maxIndex, reference.getIndex());
+      assignments.computeIfAbsent(reference.getIndex(), k -> new ArrayList<>())
+        .add(new Assignment(assignment.expression(), tables.peek()));
+    }
+    assignment.walk(this);
+  }
+
+  @Override
+  public void visitClosureReference(ClosureReference closure) {
+    // the closure body is compiled as a separate function
+    for (String name : closure.getCapturedReferenceNames()) {
+      exclude(tables.peek(), name);
+    }
+  }
+
+  @Override
+  public void visitFunctionInvocation(FunctionInvocation invocation) {
+    if (invocation.isOnReference()) {
+      exclude(tables.peek(), invocation.getName());
+    }
+    invocation.walk(this);
+  }
+
+  @Override
+  public void visitTryCatchFinally(TryCatchFinally tryCatchFinally) {
+    tryCatchFinally.walk(this);
+    excluded.add(tryCatchFinally.getExceptionRefIndex());
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.compiler;
+
+import gololang.ir.*;
+import org.eclipse.golo.runtime.Extractors;
+import org.eclipse.golo.runtime.TypeMatching;
+import org.eclipse.golo.runtime.WithCaller;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.lang.reflect.Modifier.isPublic;
+import static java.lang.reflect.Modifier.isStatic;
+import static org.eclipse.golo.runtime.DecoratorsHelper.isMethodDecorated;
+
+/**
+ * Binds at compile time the function calls whose target can't change at runtime.
+ * <p>
+ * A call is bound when it is the sole candidate the runtime resolution would find first, that is:
+ * <ul>
+ * <li>an unqualified call from the module class to a function of the module accepting the number of
+ * arguments, since local functions take precedence over imported ones;
+ * <li>a qualified call to a public static method of a Java class from the platform or the
+ * application class path, since a fully qualified name takes precedence over the imports.
+ * </ul>
+ * Calls on references, anonymous or constant calls, and calls using named arguments are never bound,
+ * nor are calls to variadic, decorated or annotated functions, or to methods whose parameters need
+ * some conversion (primitive types, functional interfaces).
+ * <p>
+ * A bound call has a {@link #STATIC_TARGET} metadata, and is compiled into an {@code invokestatic}
+ * instruction instead of an {@code invokedynamic} one.
+ */
+public class StaticCallBindingVisitor extends AbstractGoloIrVisitor {
+
+  /**
+   * Metadata holding the target of a statically bound function invocation.
+   */
+  public static final String STATIC_TARGET = "golo.call.static";
+
+  /**
+   * The method called by a statically bound function invocation.
+   */
+  static final class Target {
+    final String owner;
+    final String name;
+    final MethodType type;
+    final boolean onInterface;
+
+    Target(String owner, String name, MethodType type, boolean onInterface) {
+      this.owner = owner;
+      this.name = name;
+      this.type = type;
+      this.onInterface = onInterface;
+    }
+
+    @Override
+    public String toString() {
+      return owner.replace('/', '.') + '.' + name + type.toMethodDescriptorString();
+    }
+  }
+
+  private final ClassLoader loader;
+  private GoloModule module;
+
+  public StaticCallBindingVisitor(ClassLoader loader) {
+    this.loader = loader;
+  }
+
+  @Override
+  public void visitModule(GoloModule module) {
+    this.module = module;
+    module.walk(this);
+  }
+
+  @Override
+  public void visitClosureReference(ClosureReference closure) {
+    // the closure body is a function of the module, visited on its own
+  }
+
+  @Override
+  public void visitFunctionInvocation(FunctionInvocation invocation) {
+    invocation.walk(this);
+    if (invocation.isOnReference() || invocation.isOnModuleState() || invocation.isAnonymous()
+        || invocation.isConstant() || invocation.usesNamedArguments()) {
+      return;
+    }
+    Target target = invocation.getName().contains(".")
+      ? javaTarget(invocation)
+      : moduleTarget(invocation);
+    if (target != null) {
+      invocation.metadata(STATIC_TARGET, target);
+    }
+  }
+
+  private Target moduleTarget(FunctionInvocation invocation) {
+    GoloFunction caller = invocation.ancestorOfType(GoloFunction.class);
+    if (caller == null || caller.parent() != module) {
+      return null;
+    }
+    List<GoloFunction> candidates = module.getFunctions().stream()
+      .filter(f -> invocation.getName().equals(f.getName()) && acceptsArity(f, invocation.getArity()))
+      .collect(Collectors.toList());
+    if (candidates.size() != 1) {
+      return null;
+    }
+    GoloFunction function = candidates.get(0);
+    if (function.isVarargs() || function.isDecorated() || function.isMacro() || function.isMain()
+        || function.isModuleInit() || function.getSyntheticParameterCount() > 0
+        || function.metadata("annotations") != null) {
+      return null;
+    }
+    return new Target(module.getPackageAndClass().toJVMType(), function.getName(), function.getMethodType(), false);
+  }
+
+  private Target javaTarget(FunctionInvocation invocation) {
+    String name = invocation.getName();
+    int separator = name.lastIndexOf('.');
+    String className = name.substring(0, separator);
+    String methodName = name.substring(separator + 1);
+    if (className.equals(module.getPackageAndClass().toString())) {
+      return null;
+    }
+    Class<?> klass = platformClass(className);
+    if (klass == null) {
+      return null;
+    }
+    Method method;
+    try {
+      List<Method> candidates = Extractors.getMethods(klass, methodName)
+        .filter(m -> isStatic(m.getModifiers()) && acceptsArity(m, invocation.getArity()))
+        .collect(Collectors.toList());
+      if (candidates.size() != 1 || !isBindable(candidates.get(0))) {
+        return null;
+      }
+      method = candidates.get(0);
+    } catch (LinkageError e) {
+      return null;
+    }
+    return new Target(
+        method.getDeclaringClass().getName().replace('.', '/'),
+        method.getName(),
+        MethodType.methodType(method.getReturnType(), method.getParameterTypes()),
+        method.getDeclaringClass().isInterface());
+  }
+
+  /*
+   * Only the classes that any Golo class loader resolves the same way can be bound: public classes of
+   * the {@code java} packages and of the application class path, but not Golo modules that can be
+   * redefined.
+   */
+  private Class<?> platformClass(String className) {
+    Class<?> klass;
+    try {
+      klass = Class.forName(className, false, loader);
+    } catch (ClassNotFoundException | LinkageError e) {
+      return null;
+    }
+    if (!isPublic(klass.getModifiers()) || klass.isAnnotationPresent(Deprecated.class) || isGoloModule(klass)) {
+      return null;
+    }
+    ClassLoader classLoader = klass.getClassLoader();
+    if (classLoader == null) {
+      return className.startsWith("java.") ? klass : null;
+    }
+    for (ClassLoader l = ClassLoader.getSystemClassLoader(); l != null; l = l.getParent()) {
+      if (l == classLoader) {
+        return klass;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isGoloModule(Class<?> klass) {
+    try {
+      klass.getDeclaredMethod("$imports");
+      return true;
+    } catch (NoSuchMethodException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static boolean acceptsArity(GoloFunction function, int arity) {
+    return function.getArity() == arity
+      || (function.isVarargs() && arity >= function.getArity() - 1);
+  }
+
+  private static boolean acceptsArity(Method method, int arity) {
+    int count = method.getParameterCount();
+    if (method.isAnnotationPresent(WithCaller.class)) {
+      count -= 1;
+    }
+    return isMethodDecorated(method)
+      || count == arity
+      || (method.isVarArgs() && arity >= count - 1);
+  }
+
+  private static boolean isBindable(Method method) {
+    if (!isPublic(method.getModifiers()) || !isPublic(method.getDeclaringClass().getModifiers())
+        || method.isVarArgs() || isMethodDecorated(method)
+        || method.isAnnotationPresent(WithCaller.class) || method.isAnnotationPresent(Deprecated.class)) {
+      return false;
+    }
+    for (Class<?> type : method.getParameterTypes()) {
+      if (type.isPrimitive() || !isPublic(type.getModifiers())
+          || TypeMatching.isSAM(type) || TypeMatching.isFunctionalInterface(type)) {
+        return false;
+      }
+    }
+    return isPublic(method.getReturnType().getModifiers()) || method.getReturnType().isPrimitive();
+  }
+}
@@ -14,8 +14,11 @@ import gololang.ir.*;
 import gololang.Messages;
 import java.util.List;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static gololang.ir.MethodInvocation.invoke;
 import static gololang.ir.ConditionalBranching.branch;
@@ -29,6 +32,33 @@ import static gololang.ir.TryCatchFinally.DUMMY_TRY_RESULT_VARIABLE;
  */
 public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
 
+  /**
+   * Metadata marking the loops expanded from a {@code foreach}.
+   */
+  static final String FOREACH_LOOP = "golo.foreach.loop";
+
+  /**
+   * Metadata marking the {@code next()} invocation of an expanded {@code foreach}, whose value is the
+   * loop.
+   */
+  static final String FOREACH_NEXT = "golo.foreach.next";
+
+  /**
+   * Metadata marking the conditional branchings expanded from a {@code case} whose clauses all compare
+   * the same reference with an integer, character or string constant, or all test the same reference
+   * against the values of a union of the module.
+   * <p>
+   * The value is the union for the latter, and {@code true} otherwise.
+   */
+  static final String CASE_SWITCH = "golo.case.switch";
+
+  /*
+   * Smaller cases are not worth a switch. Union tests being method invocations, a switch is always
+   * worth it.
+   */
+  private static final int CASE_SWITCH_MIN_CLAUSES = 3;
+  private static final int UNION_SWITCH_MIN_CLAUSES = 2;
+
   private final SymbolGenerator symbols = new SymbolGenerator("golo.compiler.sugar");
   private final List<GoloFunction> functionsToAdd = new LinkedList<>();
   private GoloModule module;
@@ -98,10 +128,17 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
    * else if cond2 { block2 }
    * else { block3 }
    * </code></pre>
+   * When all the conditions compare the same reference with constants, or test the values of a union,
+   * as in {@code when v: isEmpty()}, the first branching is marked with the {@link #CASE_SWITCH}
+   * metadata, such that the bytecode generation can dispatch with a switch.
    */
   @Override
   public void visitCaseStatement(CaseStatement caseStatement) {
     ConditionalBranching branch = convertCaseToConditional(caseStatement);
+    Object switchKind = switchKind(caseStatement);
+    if (switchKind != null) {
+      branch.metadata(CASE_SWITCH, switchKind);
+    }
     caseStatement.replaceInParentBy(branch);
     branch.accept(this);
   }
@@ -125,6 +162,130 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
     return branch;
   }
 
+  private Object switchKind(CaseStatement caseStatement) {
+    List<WhenClause<Block>> clauses = caseStatement.getClauses();
+    ReferenceLookup subject = switchSubject(clauses.get(0).condition());
+    if (subject == null) {
+      return null;
+    }
+    if (testedUnionValue(clauses.get(0).condition(), subject.getName()) != null) {
+      return clauses.size() < UNION_SWITCH_MIN_CLAUSES ? null : testedUnion(clauses, subject.getName());
+    }
+    if (clauses.size() < CASE_SWITCH_MIN_CLAUSES) {
+      return null;
+    }
+    Class<?> keyType = switchKey(clauses.get(0).condition(), subject.getName()).getClass();
+    for (WhenClause<Block> clause : clauses) {
+      Object key = switchKey(clause.condition(), subject.getName());
+      if (key == null || key.getClass() != keyType) {
+        return null;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * The tested union is the only one of the module having all the tested values.
+   */
+  private Union testedUnion(List<WhenClause<Block>> clauses, String subject) {
+    Set<String> names = new HashSet<>();
+    for (WhenClause<Block> clause : clauses) {
+      String name = testedUnionValue(clause.condition(), subject);
+      if (name == null) {
+        return null;
+      }
+      names.add(name);
+    }
+    Union tested = null;
+    if (module == null) {
+      return null;
+    }
+    for (GoloElement<?> child : module.children()) {
+      if (child instanceof Union && ((Union) child).getValues().stream()
+          .map(UnionValue::getName)
+          .collect(Collectors.toSet())
+          .containsAll(names)) {
+        if (tested != null) {
+          return null;
+        }
+        tested = (Union) child;
+      }
+    }
+    return tested;
+  }
+
+  /**
+   * Returns the reference compared with a switchable constant or tested as a union value in a
+   * condition, or {@code null}.
+   */
+  static ReferenceLookup switchSubject(ExpressionStatement<?> condition) {
+    if (!(condition instanceof BinaryOperation)) {
+      return null;
+    }
+    BinaryOperation operation = (BinaryOperation) condition;
+    for (ExpressionStatement<?> side : new ExpressionStatement<?>[]{operation.left(), operation.right()}) {
+      if (side instanceof ReferenceLookup) {
+        String name = ((ReferenceLookup) side).getName();
+        if (switchKey(condition, name) != null || testedUnionValue(condition, name) != null) {
+          return (ReferenceLookup) side;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the name of the union value a condition such as {@code subject: isValue()} tests, or
+   * {@code null}.
+   */
+  static String testedUnionValue(ExpressionStatement<?> condition, String subject) {
+    if (!(condition instanceof BinaryOperation)) {
+      return null;
+    }
+    BinaryOperation operation = (BinaryOperation) condition;
+    if (operation.getType() != OperatorType.METHOD_CALL || !isLookupOf(operation.left(), subject)
+        || !(operation.right() instanceof MethodInvocation)) {
+      return null;
+    }
+    MethodInvocation invocation = (MethodInvocation) operation.right();
+    String name = invocation.getName();
+    if (invocation.getArity() != 0 || invocation.isNullSafeGuarded() || name.length() <= 2 || !name.startsWith("is")) {
+      return null;
+    }
+    return name.substring(2);
+  }
+
+  /**
+   * Returns the integer, character or string constant a condition compares the given reference with,
+   * or {@code null}.
+   */
+  static Object switchKey(ExpressionStatement<?> condition, String subject) {
+    if (!(condition instanceof BinaryOperation) || ((BinaryOperation) condition).getType() != OperatorType.EQUALS) {
+      return null;
+    }
+    BinaryOperation operation = (BinaryOperation) condition;
+    ExpressionStatement<?> constant;
+    if (isLookupOf(operation.left(), subject)) {
+      constant = operation.right();
+    } else if (isLookupOf(operation.right(), subject)) {
+      constant = operation.left();
+    } else {
+      return null;
+    }
+    if (!(constant instanceof ConstantStatement)) {
+      return null;
+    }
+    Object value = ((ConstantStatement) constant).value();
+    if (value instanceof Integer || value instanceof Character || value instanceof String) {
+      return value;
+    }
+    return null;
+  }
+
+  private static boolean isLookupOf(ExpressionStatement<?> expression, String name) {
+    return expression instanceof ReferenceLookup && ((ReferenceLookup) expression).getName().equals(name);
+  }
+
   /**
    * Match expansion.
    * <p>
@@ -233,26 +394,43 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
    * Literal expansion.
    * <p>
    * Converts a collection literal into a call to {@code gololang.Predefined.<type>}.
+   * <p>
+   * Since tuples are immutable, a tuple literal whose elements are all constants is converted into a
+   * constant call, that builds the tuple once and then always returns it.
    */
   @Override
   public void visitCollectionLiteral(CollectionLiteral collection) {
     if (!expressionToBlock(collection)) {
       collection.walk(this);
       AbstractInvocation<?> construct = FunctionInvocation.of("gololang.Predefined." + collection.getType().toString())
+        .constant(isConstantTuple(collection))
         .withArgs(collection.getExpressions().toArray());
       collection.replaceInParentBy(construct);
       construct.accept(this);
     }
   }
 
+  private static boolean isConstantTuple(CollectionLiteral collection) {
+    return collection.getType() == CollectionLiteral.Type.tuple
+      && collection.getExpressions().stream().allMatch(SugarExpansionVisitor::isConstantExpression);
+  }
+
+  private static boolean isConstantExpression(ExpressionStatement<?> expression) {
+    return expression instanceof ConstantStatement
+      || (expression instanceof FunctionInvocation && ((FunctionInvocation) expression).isConstant());
+  }
+
   /**
    * Converts a literal function reference into a call to {@code Predefined.fun}.
+   * <p>
+   * The reference is kept as is when dynamic constants are enabled, since it is then emitted as a
+   * constant resolved once.
    */
   @Override
   public void visitConstantStatement(ConstantStatement constantStatement) {
     constantStatement.walk(this);
     Object value = constantStatement.value();
-    if (value instanceof FunctionRef) {
+    if (value instanceof FunctionRef && !JavaBytecodeUtils.USE_CONDY) {
       FunctionInvocation fun = literalFunctionRefToCall((FunctionRef) value);
       constantStatement.replaceInParentBy(fun);
       fun.accept(this);
@@ -281,18 +459,20 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
    * </code></pre>
    * is converted to the equivalent of
    * <pre class="listing"><code class="lang-golo" data-lang="golo">
-   * let collection = list[]
+   * let builder = gololang.ComprehensionBuilder.list(null)
    * foreach x in col1 {
    *   foreach y in col2 {
-   *     collection: add(f(x, y))
+   *     gololang.ComprehensionBuilder.append(builder, f(x, y))
    *   }
    * }
+   * builder = gololang.ComprehensionBuilder.result(builder)
    * </code></pre>
+   * When the comprehension is made of a single unguarded {@code foreach}, the iterated value is given
+   * to the builder to presize the collection.
    */
   @Override
   public void visitCollectionComprehension(CollectionComprehension collection) {
-    CollectionLiteral.Type tempColType = collection.getMutableType();
-    LocalReference tempVar = LocalReference.of(symbols.next("comprehension"))
+    LocalReference builder = LocalReference.of(symbols.next("comprehension"))
       .variable()
       .synthetic();
     Block mainBlock = Block.empty();
@@ -300,27 +480,30 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
       mainBlock.add(a);
     }
     collection.clearDeclarations();
-    mainBlock.add(AssignmentStatement.create(tempVar, CollectionLiteral.create(tempColType), true));
+    ExpressionStatement<?> source = ConstantStatement.of(null);
+    if (collection.loops().size() == 1 && collection.loops().get(0) instanceof ForEachLoopStatement) {
+      ForEachLoopStatement loop = (ForEachLoopStatement) collection.loops().get(0);
+      if (!loop.hasWhenClause()) {
+        LocalReference iterable = LocalReference.of(symbols.next("comprehensionSource")).synthetic();
+        mainBlock.add(AssignmentStatement.create(iterable, loop.getIterable(), true));
+        loop.in(iterable.lookup());
+        source = iterable.lookup();
+      }
+    }
+    mainBlock.add(AssignmentStatement.create(builder,
+          FunctionInvocation.of("gololang.ComprehensionBuilder." + collection.getType()).withArgs(source),
+          true));
     Block innerBlock = mainBlock;
     for (GoloStatement<?> loop : collection.loops()) {
       innerBlock.add(loop);
       innerBlock = ((BlockContainer) loop).getBlock();
     }
     innerBlock.add(
-        invoke("add").withArgs(collection.expression()).on(tempVar.lookup()));
-
-    if (collection.getType() == CollectionLiteral.Type.array
-        || collection.getType() == CollectionLiteral.Type.tuple) {
-      mainBlock.add(
-          AssignmentStatement.create(tempVar, invoke("toArray").on(tempVar.lookup()), false));
-    }
-
-    if (collection.getType() == CollectionLiteral.Type.tuple) {
-      mainBlock.add(
-          AssignmentStatement.create(tempVar, FunctionInvocation.of("Tuple.fromArray").withArgs(tempVar.lookup()), false));
-    }
-
-    mainBlock.add(tempVar.lookup());
+        FunctionInvocation.of("gololang.ComprehensionBuilder.append").withArgs(builder.lookup(), collection.expression()));
+    mainBlock.add(AssignmentStatement.create(builder,
+          FunctionInvocation.of("gololang.ComprehensionBuilder.result").withArgs(builder.lookup()),
+          false));
+    mainBlock.add(builder.lookup());
     collection.replaceInParentBy(mainBlock);
     mainBlock.accept(this);
   }
@@ -342,6 +525,8 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
    *   block
    * }
    * </code></pre>
+   * The loop and the {@code next()} invocation are marked with the {@link #FOREACH_LOOP} and
+   * {@link #FOREACH_NEXT} metadata, such that the bytecode generation can specialize the loop.
    */
   @Override
   public void visitForEachLoopStatement(ForEachLoopStatement foreachStatement) {
@@ -362,14 +547,15 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
     }
 
     // init the reference to the next iterator value
+    BinaryOperation next = invoke("next").on(iterVar.lookup());
     if (foreachStatement.isDestructuring()) {
       loopInnerBlock.prepend(
-          DestructuringAssignment.destruct(invoke("next").on(iterVar.lookup())).declaring()
+          DestructuringAssignment.destruct(next).declaring()
           .varargs(foreachStatement.isVarargs())
           .to((Object[]) foreachStatement.getReferences()));
     } else {
       loopInnerBlock.prepend(
-          AssignmentStatement.create(foreachStatement.getLocalReference(), invoke("next").on(iterVar.lookup()), true));
+          AssignmentStatement.create(foreachStatement.getLocalReference(), next, true));
     }
 
     // build the equivalent loop
@@ -378,7 +564,9 @@ public class SugarExpansionVisitor extends AbstractGoloIrVisitor {
           AssignmentStatement.create(iterVar, invoke("iterator").on(foreachStatement.getIterable()), true))
       .condition(
           invoke("hasNext").on(iterVar.lookup()))
-      .block(loopInnerBlock);
+      .block(loopInnerBlock)
+      .metadata(FOREACH_LOOP, true);
+    next.metadata(FOREACH_NEXT, newLoop);
     foreachStatement.replaceInParentBy(newLoop);
     newLoop.accept(this);
   }
@@ -44,6 +44,14 @@ public final class MacroExpansionIrVisitor extends AbstractGoloIrVisitor {
     }
   }
 
+  /**
+   * Name of the module metadata holding the classes looked up for macros during the expansion.
+   * <p>
+   * The value is a map from the class names to whether they were found, used to tell whether a compilation result
+   * can be reused.
+   */
+  public static final String MACRO_CLASSES = "golo.macros.classes";
+
   private static final boolean DEBUG = Boolean.getBoolean("golo.debug.macros");
   private static final int RECURSION_LIMIT = Integer.getInteger("golo.macros.recursion-limit", 42);
 
@@ -236,6 +244,19 @@ public final class MacroExpansionIrVisitor extends AbstractGoloIrVisitor {
     module.walk(this);
     module.decoratorMacro().map(this::expandMacro);
     module.decoratorMacro(null);
+    recordMacroClasses(module);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void recordMacroClasses(GoloModule module) {
+    Map<String, Boolean> classes = (Map<String, Boolean>) module.metadata(MACRO_CLASSES);
+    if (classes == null) {
+      classes = new LinkedHashMap<>();
+      module.metadata(MACRO_CLASSES, classes);
+    }
+    for (Map.Entry<String, Boolean> lookedUp : finder.lookedUpClasses().entrySet()) {
+      classes.putIfAbsent(lookedUp.getKey(), lookedUp.getValue());
+    }
   }
 
   @Override
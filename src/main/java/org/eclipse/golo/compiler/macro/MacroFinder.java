@@ -12,6 +12,8 @@ package org.eclipse.golo.compiler.macro;
 
 import java.util.List;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.LinkedHashMap;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.util.function.Predicate;
@@ -50,6 +52,7 @@ class MacroFinder {
   ));
 
   private final List<String> macroClasses = new LinkedList<>();
+  private final Map<String, Boolean> lookedUp = new LinkedHashMap<>();
   private final MacroCache macroCache = new MacroCache();
   private final Loader loader;
 
@@ -70,6 +73,7 @@ class MacroFinder {
   public void init(Stream<String> imported) {
     macroCache.clear();
     macroClasses.clear();
+    lookedUp.clear();
     macroClasses.addAll(DEFAULT_MACROS);
     addImportsToMacros(imported);
   }
@@ -86,13 +90,23 @@ class MacroFinder {
     return macroClasses.stream();
   }
 
+  /**
+   * Returns the names of the classes looked up for macros since the last {@code init}, mapped to whether they were
+   * found.
+   * <p>
+   * The expansion of the module depends on these classes, even the ones that did not provide the expanded macros.
+   */
+  public Map<String, Boolean> lookedUpClasses() {
+    return lookedUp;
+  }
+
   public Optional<MacroFinderResult> find(AbstractInvocation<?> invocation) {
     return macroCache.getOrCompute(invocation, this::findMacro);
   }
 
   private Optional<MacroFinderResult> findMacro(AbstractInvocation<?> invocation) {
     return getLookupClassNames(invocation)
-      .map(loader)
+      .map(this::lookUp)
       .filter(java.util.Objects::nonNull)
       .flatMap(Extractors::getMacros)
       .filter(isCandidateMacro(invocation))
@@ -101,6 +115,14 @@ class MacroFinder {
       .findFirst();
   }
 
+  private Class<?> lookUp(String name) {
+    Class<?> klass = loader.load(name);
+    if (klass == null || klass.getClassLoader() != null) {
+      lookedUp.putIfAbsent(name, klass != null);
+    }
+    return klass;
+  }
+
   private Predicate<Method> isCandidateMacro(AbstractInvocation<?> invocation) {
     return method -> method.getName().equals(invocation.getFunctionName())
                       && (invocation.getModuleName().isEmpty() ||
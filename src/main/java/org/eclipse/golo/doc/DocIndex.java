@@ -59,7 +59,7 @@ class DocIndex implements Iterable<DocumentationElement> {
   public Map<String, Set<DocumentationElement>> groupBy(FunctionReference f) throws Throwable {
     TreeMap<String, Set<DocumentationElement>> map = new TreeMap<>();
     for (DocumentationElement e : elements) {
-      String k = f.invoke(e).toString();
+      String k = f.invoke1(e).toString();
       if (!map.containsKey(k)) {
         map.put(k, new TreeSet<>());
       }
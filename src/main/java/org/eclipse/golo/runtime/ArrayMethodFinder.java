@@ -54,6 +54,10 @@ class ArrayMethodFinder extends MethodFinder {
         return lookup.findStatic(Array.class, "getLength", methodType(int.class, Object.class));
       case "iterator":
         checkArity(0);
+        if (invocation.receiverClass().getComponentType().isPrimitive()) {
+          return lookup.findStatic(PrimitiveArrayIterator.class, "boxing",
+                                   methodType(PrimitiveArrayIterator.class, Object.class));
+        }
         return lookup.findConstructor(PrimitiveArrayIterator.class,
                                       methodType(void.class, Object[].class));
       case "toString":
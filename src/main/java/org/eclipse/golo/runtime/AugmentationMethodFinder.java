@@ -12,63 +12,170 @@ package org.eclipse.golo.runtime;
 
 import java.lang.invoke.*;
 import java.lang.reflect.Method;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eclipse.golo.runtime.augmentation.AugmentationMethod;
 import org.eclipse.golo.runtime.augmentation.DefiningModule;
 
 import static java.lang.invoke.MethodHandles.*;
-import static java.lang.reflect.Modifier.*;
+import static org.eclipse.golo.runtime.augmentation.DefiningModule.Scope;
 
+/**
+ * Finds a method defined in an augmentation.
+ * <p>
+ * The candidate augmentation methods a module defines for a given invocation only depend on the module
+ * itself, and are thus cached on the module class. The candidates are the ones of the caller module,
+ * of the modules it imports, of the modules in the call stack and of the modules they import. The call
+ * stack is only looked up once per resolution, and not at all if a locally defined augmentation method
+ * can't be overridden. The caches are dropped after a redefinition of classes (see {@link ModuleVersions}).
+ */
 class AugmentationMethodFinder extends MethodFinder {
 
-  private final Loader loader;
+  private static final class Key {
+    private final Class<?> receiverClass;
+    private final String name;
+    private final int arity;
+    private final boolean varargs;
+    private final Scope scope;
+    private final int hash;
 
-  AugmentationMethodFinder(MethodInvocation invocation, Lookup lookup) {
-    super(invocation, lookup);
-    this.loader = new Loader(callerClass.getClassLoader());
+    Key(MethodInvocation invocation, Scope scope) {
+      this.receiverClass = invocation.receiverClass();
+      this.name = invocation.name();
+      this.arity = invocation.arity();
+      this.varargs = TypeMatching.isLastArgumentAnArray(arity, invocation.arguments());
+      this.scope = scope;
+      this.hash = Objects.hash(receiverClass, name, arity, varargs, scope);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) { return true; }
+      if (!(o instanceof Key)) { return false; }
+      Key that = (Key) o;
+      return this.receiverClass == that.receiverClass
+        && this.arity == that.arity
+        && this.varargs == that.varargs
+        && this.scope == that.scope
+        && this.name.equals(that.name);
+    }
+  }
+
+  private static final class ModuleCache {
+    private final ConcurrentHashMap<Key, List<AugmentationMethod>> candidates = new ConcurrentHashMap<>();
+    private volatile List<Class<?>> importedModules;
+    private final int generation = Reloading.generation();
   }
 
-  private Stream<DefiningModule> getLocalCaller(Class<?> callingClass) {
-    if (callingClass == null) {
-      return Stream.empty();
+  private static final ClassValue<ModuleCache> CACHES = new ClassValue<ModuleCache>() {
+    @Override
+    protected ModuleCache computeValue(Class<?> module) {
+      return new ModuleCache();
     }
-    return Stream.of(DefiningModule.ofLocal(callingClass));
+  };
+
+  private static ModuleCache cacheOf(Class<?> module) {
+    ModuleCache cache = CACHES.get(module);
+    if (cache.generation != Reloading.generation()) {
+      CACHES.remove(module);
+      cache = CACHES.get(module);
+    }
+    return cache;
   }
 
-  private Stream<DefiningModule> getImportedModules(Class<?> sourceClass) {
-    return Extractors.getImportedNames(sourceClass)
-      .filter(AugmentationMethodFinder::candidateImport)
-      .map(loader)
-      .filter(Objects::nonNull)
-      .map(DefiningModule::ofImport);
+  AugmentationMethodFinder(MethodInvocation invocation, Lookup lookup) {
+    super(invocation, lookup);
   }
 
   private static boolean candidateImport(String s) {
     return s != null && !s.startsWith("java") && !"gololang".equals(s);
   }
 
-  private Stream<DefiningModule> getCallStack() {
+  private static List<Class<?>> importedModules(Class<?> module) {
+    ModuleCache cache = cacheOf(module);
+    List<Class<?>> imported = cache.importedModules;
+    if (imported == null) {
+      Loader loader = Loader.forClass(module);
+      imported = Collections.unmodifiableList(Extractors.getImportedNames(module)
+        .filter(AugmentationMethodFinder::candidateImport)
+        .map(loader)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList()));
+      if (!loader.hasFailed()) {
+        cache.importedModules = imported;
+      }
+    }
+    return imported;
+  }
+
+  /**
+   * Returns the candidate methods defined by the given module for the current invocation.
+   * <p>
+   * The lookup is not done inside {@code computeIfAbsent} since loading the augmentations can trigger
+   * class initializations that in turn resolve augmentations. Candidates are not cached if some class
+   * failed to load, since it can be an augmentation defined in a module not yet loaded.
+   */
+  private List<AugmentationMethod> candidates(Class<?> module, Scope scope) {
+    ConcurrentHashMap<Key, List<AugmentationMethod>> cache = cacheOf(module).candidates;
+    Key key = new Key(invocation, scope);
+    List<AugmentationMethod> found = cache.get(key);
+    if (found == null) {
+      Loader loader = Loader.forClass(module);
+      found = DefiningModule.of(module, scope)
+        .augmentationsFor(loader, invocation.receiverClass())
+        .flatMap(aug -> aug.methodsMaching(invocation))
+        .collect(Collectors.toList());
+      if (!loader.hasFailed()) {
+        cache.putIfAbsent(key, found);
+      }
+    }
+    return found;
+  }
+
+  private List<Class<?>> getCallStack() {
     return Stream.of(Thread.currentThread().getStackTrace())
       .map(StackTraceElement::getClassName)
       .filter(AugmentationMethodFinder::isCandidateInStackTrace)
       .skip(1)
-      .map(loader)
+      .map(Loader.forClass(callerClass))
       .filter(Objects::nonNull)
-      .map(DefiningModule::ofCallstack);
+      .collect(Collectors.toList());
   }
 
   private static boolean isCandidateInStackTrace(String className) {
     return !className.startsWith("java.lang") && !className.startsWith("org.eclipse.golo");
   }
 
-  private Stream<DefiningModule> getDefiningModules() {
-    return Stream.of(
-        getLocalCaller(callerClass),
-        getImportedModules(callerClass),
-        getCallStack(),
-        getCallStack().flatMap(defining -> getImportedModules(defining.module())))
-      .reduce(Stream.empty(), Stream::concat);
+  private AugmentationMethod findMethod() {
+    List<AugmentationMethod> found = new ArrayList<>(candidates(callerClass, Scope.LOCAL));
+    for (Class<?> imported : importedModules(callerClass)) {
+      found.addAll(candidates(imported, Scope.IMPORT));
+    }
+    AugmentationMethod best = found.stream().min(Comparator.naturalOrder()).orElse(null);
+    if (best != null && best.isPreferredFor(invocation.receiverClass())) {
+      return best;
+    }
+    List<Class<?>> callStack = getCallStack();
+    for (Class<?> module : callStack) {
+      found.addAll(candidates(module, Scope.CALLSTACK));
+    }
+    for (Class<?> module : callStack) {
+      for (Class<?> imported : importedModules(module)) {
+        found.addAll(candidates(imported, Scope.IMPORT));
+      }
+    }
+    return found.stream().min(Comparator.naturalOrder()).orElse(null);
   }
 
   @Override
@@ -83,11 +190,10 @@ class AugmentationMethodFinder extends MethodFinder {
 
   @Override
   public MethodHandle find() {
-    return getDefiningModules()
-        .flatMap(dm -> dm.augmentationsFor(loader, invocation.receiverClass()))
-        .flatMap(aug -> aug.methodsMaching(invocation))
-        .min(Comparator.naturalOrder())
-        .flatMap(am -> toMethodHandle(am.method()))
-        .orElse(null);
+    AugmentationMethod method = findMethod();
+    if (method == null) {
+      return null;
+    }
+    return toMethodHandle(method.method()).orElse(null);
   }
 }
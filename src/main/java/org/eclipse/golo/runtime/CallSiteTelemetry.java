@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Dispatch telemetry of the Golo call sites.
+ * <p>
+ * When enabled, each method invocation, function call, closure call and operator call site linked
+ * afterward records the number of times it fell back to its resolution logic, the number of times it
+ * was relinked, the depth of its guard chain, whether it went megamorphic, and the time spent in the
+ * resolutions. Sites are identified by their kind, module, source line and name.
+ * <p>
+ * The telemetry is enabled with the {@code golo.runtime.telemetry} system property, or with
+ * {@link #enable()}. Only the slow paths of the call sites (fallbacks and relinks) are instrumented,
+ * and sites linked while the telemetry is disabled are not recorded at all, so the linked targets are
+ * the same whether it is enabled or not. The number of recorded sites is bounded by the
+ * {@code golo.runtime.telemetry.max-sites} system property (100000 by default).
+ * <p>
+ * When enabled, the counters are also exposed by a {@link CallSiteTelemetryMXBean} registered as
+ * {@value #OBJECT_NAME}.
+ */
+public final class CallSiteTelemetry {
+
+  public static final String OBJECT_NAME = "org.eclipse.golo:type=CallSiteTelemetry";
+
+  static final int MAX_SITES = Integer.getInteger("golo.runtime.telemetry.max-sites", 100_000);
+
+  private static final ConcurrentLinkedQueue<Site> SITES = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger SITE_COUNT = new AtomicInteger();
+  private static volatile boolean enabled;
+  private static boolean registered;
+
+  static {
+    if (Boolean.getBoolean("golo.runtime.telemetry")) {
+      enable();
+    }
+  }
+
+  private CallSiteTelemetry() {
+    throw new UnsupportedOperationException("Don't instantiate utility classes");
+  }
+
+  /**
+   * Kinds of instrumented call sites.
+   */
+  public enum Kind {
+    METHOD, FUNCTION, CLOSURE, OPERATOR
+  }
+
+  /**
+   * Counters of a call site.
+   */
+  public static final class Site {
+    private final Kind kind;
+    private final String module;
+    private final int line;
+    private final String name;
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder relinks = new LongAdder();
+    private final LongAdder resolutionNanos = new LongAdder();
+    private volatile int depth;
+    private volatile boolean megamorphic;
+
+    Site(Kind kind, String module, int line, String name) {
+      this.kind = kind;
+      this.module = module;
+      this.line = line;
+      this.name = name;
+    }
+
+    public Kind kind() {
+      return kind;
+    }
+
+    public String module() {
+      return module;
+    }
+
+    /**
+     * Returns the source line of the call site, or {@code -1} if not known.
+     */
+    public int line() {
+      return line;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    public long fallbacks() {
+      return fallbacks.sum();
+    }
+
+    public long relinks() {
+      return relinks.sum();
+    }
+
+    /**
+     * Returns the largest guard chain depth of the call site.
+     */
+    public int depth() {
+      return depth;
+    }
+
+    public boolean isMegamorphic() {
+      return megamorphic;
+    }
+
+    public long resolutionNanos() {
+      return resolutionNanos.sum();
+    }
+
+    void reset() {
+      fallbacks.reset();
+      relinks.reset();
+      resolutionNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s:%d %s `%s` fallbacks=%d relinks=%d depth=%d megamorphic=%s resolution=%.3fms",
+          module, line, kind.name().toLowerCase(), name,
+          fallbacks(), relinks(), depth, megamorphic, resolutionNanos() / 1_000_000.0);
+    }
+  }
+
+  /**
+   * Orders the sites from the worst behaving one: the most relinked and fallen back sites first, then
+   * the ones that spent the most time in resolutions.
+   */
+  public static final Comparator<Site> WORST_FIRST =
+    Comparator.comparingLong((Site site) -> site.relinks() + site.fallbacks())
+    .thenComparingLong(Site::resolutionNanos)
+    .reversed();
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables the telemetry for the call sites linked afterward, and registers the MBean.
+   */
+  public static synchronized void enable() {
+    enabled = true;
+    if (!registered) {
+      registered = true;
+      registerMBean();
+    }
+  }
+
+  /**
+   * Disables the telemetry for the call sites linked afterward.
+   * <p>
+   * The already recorded sites keep being updated.
+   */
+  public static void disable() {
+    enabled = false;
+  }
+
+  private static void registerMBean() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName objectName = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(objectName)) {
+        server.registerMBean(new MXBean(), objectName);
+      }
+    } catch (JMException | SecurityException e) {
+      Warnings.telemetryUnavailable(e);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the recorded sites.
+   */
+  public static List<Site> sites() {
+    return new ArrayList<>(SITES);
+  }
+
+  /**
+   * Returns the {@code count} worst behaving sites, as ordered by {@link #WORST_FIRST}.
+   */
+  public static List<Site> worstSites(int count) {
+    List<Site> sites = sites();
+    sites.sort(WORST_FIRST);
+    return sites.subList(0, Math.min(count, sites.size()));
+  }
+
+  /**
+   * Resets the counters of the recorded sites.
+   */
+  public static void reset() {
+    for (Site site : SITES) {
+      site.reset();
+    }
+  }
+
+  static Site register(Kind kind, Lookup caller, String name) {
+    if (!enabled || SITE_COUNT.incrementAndGet() > MAX_SITES) {
+      return null;
+    }
+    Class<?> callerClass = caller.lookupClass();
+    Site site = new Site(kind, callerClass.getName(), lineOf(callerClass), name);
+    SITES.add(site);
+    return site;
+  }
+
+  private static int lineOf(Class<?> callerClass) {
+    for (StackTraceElement element : new Throwable().getStackTrace()) {
+      if (element.getClassName().equals(callerClass.getName())) {
+        return element.getLineNumber();
+      }
+    }
+    return -1;
+  }
+
+  static long start(Site site) {
+    return site == null ? 0L : System.nanoTime();
+  }
+
+  static void resolved(Site site, long start) {
+    if (site != null) {
+      site.resolutionNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  static void fallback(Site site) {
+    if (site != null) {
+      site.fallbacks.increment();
+    }
+  }
+
+  static void relinked(Site site, int depth) {
+    if (site != null) {
+      site.relinks.increment();
+      if (depth > site.depth) {
+        site.depth = depth;
+      }
+    }
+  }
+
+  static void megamorphic(Site site) {
+    if (site != null) {
+      site.relinks.increment();
+      site.megamorphic = true;
+    }
+  }
+
+  private static final class MXBean implements CallSiteTelemetryMXBean {
+
+    @Override
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean value) {
+      if (value) {
+        enable();
+      } else {
+        disable();
+      }
+    }
+
+    @Override
+    public int getSiteCount() {
+      return SITES.size();
+    }
+
+    @Override
+    public long getFallbacks() {
+      return SITES.stream().mapToLong(Site::fallbacks).sum();
+    }
+
+    @Override
+    public long getRelinks() {
+      return SITES.stream().mapToLong(Site::relinks).sum();
+    }
+
+    @Override
+    public int getMegamorphicSites() {
+      return (int) SITES.stream().filter(Site::isMegamorphic).count();
+    }
+
+    @Override
+    public long getResolutionTimeNanos() {
+      return SITES.stream().mapToLong(Site::resolutionNanos).sum();
+    }
+
+    @Override
+    public String[] getWorstSites() {
+      return worstSites(10);
+    }
+
+    @Override
+    public String[] worstSites(int count) {
+      return CallSiteTelemetry.worstSites(count).stream().map(Site::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public void reset() {
+      CallSiteTelemetry.reset();
+    }
+  }
+}
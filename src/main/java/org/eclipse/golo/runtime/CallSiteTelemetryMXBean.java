@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+/**
+ * Management interface of the call site telemetry.
+ *
+ * @see CallSiteTelemetry
+ */
+public interface CallSiteTelemetryMXBean {
+
+  /**
+   * Tells if the call sites linked from now on are recorded.
+   */
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+
+  /**
+   * Returns the number of recorded call sites.
+   */
+  int getSiteCount();
+
+  /**
+   * Returns the total number of fallbacks of the recorded call sites.
+   */
+  long getFallbacks();
+
+  /**
+   * Returns the total number of relinks of the recorded call sites.
+   */
+  long getRelinks();
+
+  /**
+   * Returns the number of recorded call sites that went megamorphic.
+   */
+  int getMegamorphicSites();
+
+  /**
+   * Returns the total time spent by the recorded call sites in resolutions, in nanoseconds.
+   */
+  long getResolutionTimeNanos();
+
+  /**
+   * Returns a description of the 10 worst behaving call sites.
+   */
+  String[] getWorstSites();
+
+  /**
+   * Returns a description of the {@code count} worst behaving call sites.
+   */
+  String[] worstSites(int count);
+
+  /**
+   * Resets the counters of the recorded call sites.
+   */
+  void reset();
+}
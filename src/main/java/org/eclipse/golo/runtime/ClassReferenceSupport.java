@@ -12,40 +12,99 @@ package org.eclipse.golo.runtime;
 
 import java.lang.invoke.CallSite;
 import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.SwitchPoint;
 
 import static gololang.Messages.message;
-import static java.lang.invoke.MethodHandles.constant;
+import static java.lang.invoke.MethodHandles.insertArguments;
+import static java.lang.invoke.MethodType.methodType;
 import static org.eclipse.golo.runtime.Module.imports;
 
 public final class ClassReferenceSupport {
 
+  private static final MethodHandle RELINK;
+
+  static {
+    try {
+      RELINK = MethodHandles.lookup().findStatic(
+          ClassReferenceSupport.class,
+          "relink",
+          methodType(Class.class, MutableCallSite.class, Lookup.class, String.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new Error("Could not bootstrap the required method handles", e);
+    }
+  }
+
   private ClassReferenceSupport() {
     throw new UnsupportedOperationException("Don't instantiate invokedynamic bootstrap class");
   }
 
   public static CallSite bootstrap(Lookup caller, String name, MethodType type) throws ClassNotFoundException {
+    Class<?> classRef = resolve(caller, name);
+    if (Reloading.switchPoint(caller.lookupClass(), classRef) == null) {
+      return new ConstantCallSite(MethodHandles.constant(Class.class, classRef).asType(type));
+    }
+    MutableCallSite callSite = new MutableCallSite(type);
+    callSite.setTarget(target(callSite, caller, name, classRef));
+    return callSite;
+  }
+
+  /**
+   * Bootstrap of the class literals emitted as dynamic constants.
+   * <p>
+   * Such a constant is resolved once, and is thus not updated when the referenced class is reloaded.
+   */
+  public static Class<?> constant(Lookup caller, String name, Class<?> type) throws ClassNotFoundException {
+    return resolve(caller, name);
+  }
+
+  /*
+   * A reference to a class that can be redefined is resolved again once the class is redefined.
+   */
+  public static Class<?> relink(MutableCallSite callSite, Lookup caller, String name) throws ClassNotFoundException {
+    Class<?> classRef = resolve(caller, name);
+    callSite.setTarget(target(callSite, caller, name, classRef));
+    return classRef;
+  }
+
+  private static MethodHandle target(MutableCallSite callSite, Lookup caller, String name, Class<?> classRef) {
+    MethodHandle target = MethodHandles.constant(Class.class, classRef).asType(callSite.type());
+    SwitchPoint switchPoint = Reloading.switchPoint(caller.lookupClass(), classRef);
+    if (switchPoint == null) {
+      return target;
+    }
+    return switchPoint.guardWithTest(target, insertArguments(RELINK, 0, callSite, caller, name).asType(callSite.type()));
+  }
+
+  private static Class<?> resolve(Lookup caller, String name) throws ClassNotFoundException {
     String className = name.replaceAll("#", "\\.");
     Class<?> callerClass = caller.lookupClass();
     ClassLoader classLoader = callerClass.getClassLoader();
 
     Class<?> classRef = tryLoadingFromPrimitiveType(className);
     if (classRef != null) {
-      return createCallSite(classRef);
+      return classRef;
     }
     classRef = tryLoadingFromName(className, classLoader, callerClass.getName());
     if (classRef != null) {
-      return createCallSite(classRef);
+      return classRef;
     }
     classRef = tryLoadingFromImports(className, callerClass, classLoader);
     if (classRef != null) {
-      return createCallSite(classRef);
+      return classRef;
     }
     throw new ClassNotFoundException(message("class_not_resolved", className));
   }
 
   private static Class<?> tryLoadingFromName(String name, ClassLoader classLoader, String callerName) {
+    Class<?> current = Reloading.currentVersion(classLoader, name);
+    if (current != null) {
+      return current;
+    }
     try {
       return Class.forName(name, true, classLoader);
     } catch (ClassNotFoundException e) {
@@ -85,8 +144,4 @@ public final class ClassReferenceSupport {
     }
   }
 
-  private static CallSite createCallSite(Class<?> classRef) {
-    return new ConstantCallSite(constant(Class.class, classRef));
-  }
-
 }
@@ -17,6 +17,7 @@ import java.lang.invoke.MethodHandles.Lookup;
 import java.util.Arrays;
 
 import static java.lang.invoke.MethodHandles.guardWithTest;
+import static java.lang.invoke.MethodHandles.insertArguments;
 import static java.lang.invoke.MethodType.methodType;
 
 public final class ClosureCallSupport {
@@ -27,33 +28,65 @@ public final class ClosureCallSupport {
 
   static class InlineCache extends MutableCallSite {
 
+    static final int MEGAMORPHIC_THRESHOLD = 5;
+
     MethodHandle fallback;
     final boolean constant;
     final String[] argumentNames;
+    int depth = 0;
+    CallSiteTelemetry.Site telemetry;
 
     InlineCache(MethodType type, boolean constant, String[] argumentNames) {
       super(type);
       this.constant = constant;
       this.argumentNames = argumentNames;
     }
+
+    boolean isMegaMorphic() {
+      return depth >= MEGAMORPHIC_THRESHOLD;
+    }
   }
 
-  private static final MethodHandle GUARD;
+  private static final MethodHandle SHAPE_GUARD;
+  private static final MethodHandle NAMED_SHAPE_GUARD;
+  private static final MethodHandle ARRAY_GUARD;
+  private static final MethodHandle HANDLE;
   private static final MethodHandle FALLBACK;
+  private static final MethodHandle MEGAMORPHIC_INVOKE;
 
   static {
     try {
       Lookup lookup = MethodHandles.lookup();
 
-      GUARD = lookup.findStatic(
+      SHAPE_GUARD = lookup.findStatic(
+          ClosureCallSupport.class,
+          "shapeGuard",
+          methodType(boolean.class, MethodType.class, boolean.class, FunctionReference.class));
+
+      NAMED_SHAPE_GUARD = lookup.findStatic(
+          ClosureCallSupport.class,
+          "namedShapeGuard",
+          methodType(boolean.class, MethodType.class, boolean.class, String[].class, FunctionReference.class));
+
+      ARRAY_GUARD = lookup.findStatic(
           ClosureCallSupport.class,
-          "guard",
-          methodType(boolean.class, FunctionReference.class, FunctionReference.class));
+          "arrayGuard",
+          methodType(boolean.class, boolean.class, Object.class));
+
+      HANDLE = lookup.findVirtual(
+          FunctionReference.class,
+          "handle",
+          methodType(MethodHandle.class));
 
       FALLBACK = lookup.findStatic(
           ClosureCallSupport.class,
           "fallback",
           methodType(Object.class, InlineCache.class, Object[].class));
+
+      MEGAMORPHIC_INVOKE = lookup.findStatic(
+          ClosureCallSupport.class,
+          "megamorphicInvoke",
+          methodType(Object.class, InlineCache.class, Object[].class));
     } catch (NoSuchMethodException | IllegalAccessException e) {
       throw new Error("Could not bootstrap the required method handles", e);
     }
@@ -66,6 +99,7 @@ public final class ClosureCallSupport {
       argumentNames[i] = (String) bsmArgs[i + 1];
     }
     InlineCache callSite = new InlineCache(type, constant, argumentNames);
+    callSite.telemetry = CallSiteTelemetry.register(CallSiteTelemetry.Kind.CLOSURE, caller, name);
     MethodHandle fallbackHandle = FALLBACK
         .bindTo(callSite)
         .asCollector(Object[].class, type.parameterCount())
@@ -75,18 +109,112 @@ public final class ClosureCallSupport {
     return callSite;
   }
 
-  public static boolean guard(FunctionReference expected, FunctionReference actual) {
-    return expected == actual;
+  /*
+   * Capturing closures create a new function reference each time they are evaluated. The linked
+   * invokers thus do not depend on a function reference instance, but on the shape of its handle:
+   * the invoker calls the handle of the actual reference with an exact invocation, and is valid for
+   * any reference whose handle has the same type and varargs flag (and parameter names when the call
+   * uses named arguments). The number of captured values bound to the handle is already reflected in
+   * its type.
+   */
+  public static boolean shapeGuard(MethodType type, boolean varargs, FunctionReference actual) {
+    MethodHandle handle = actual.handle();
+    return handle.type() == type && handle.isVarargsCollector() == varargs;
+  }
+
+  public static boolean namedShapeGuard(MethodType type, boolean varargs, String[] parameterNames, FunctionReference actual) {
+    return shapeGuard(type, varargs, actual) && Arrays.equals(parameterNames, actual.parameterNames());
+  }
+
+  public static boolean arrayGuard(boolean expected, Object lastArgument) {
+    return (lastArgument instanceof Object[]) == expected;
   }
 
   public static Object fallback(InlineCache callSite, Object[] args) throws Throwable {
+    CallSiteTelemetry.fallback(callSite.telemetry);
     FunctionReference targetFunctionReference = (FunctionReference) args[0];
+    if (callSite.constant) {
+      Object constantValue = invoker(callSite, targetFunctionReference.handle(), targetFunctionReference, args)
+        .invokeWithArguments(args);
+      MethodHandle constant;
+      if (constantValue == null) {
+        constant = MethodHandles.constant(Object.class, null);
+      } else {
+        constant = MethodHandles.constant(constantValue.getClass(), constantValue);
+      }
+      constant = MethodHandles.dropArguments(constant, 0, callSite.type().parameterArray());
+      callSite.setTarget(constant.asType(callSite.type()));
+      CallSiteTelemetry.relinked(callSite.telemetry, 1);
+      return constantValue;
+    }
+    long start = CallSiteTelemetry.start(callSite.telemetry);
     MethodHandle target = targetFunctionReference.handle();
-    MethodHandle invoker = MethodHandles.dropArguments(target, 0, FunctionReference.class);
+    MethodType type = target.type();
+    MethodHandle invoker = invoker(callSite, MethodHandles.exactInvoker(type), targetFunctionReference, args);
+    CallSiteTelemetry.resolved(callSite.telemetry, start);
+    synchronized (callSite) {
+      if (callSite.isMegaMorphic()) {
+        callSite.setTarget(MEGAMORPHIC_INVOKE
+            .bindTo(callSite)
+            .asCollector(Object[].class, callSite.type().parameterCount())
+            .asType(callSite.type()));
+        CallSiteTelemetry.megamorphic(callSite.telemetry);
+      } else {
+        MethodHandle root = callSite.getTarget();
+        if (target.isVarargsCollector() && isAmbiguousVarargs(callSite, type)) {
+          int last = callSite.type().parameterCount() - 1;
+          MethodHandle arrayGuard = MethodHandles.dropArguments(
+              insertArguments(ARRAY_GUARD, 0, args[last] instanceof Object[]).asType(methodType(boolean.class, callSite.type().parameterType(last))),
+              0, callSite.type().parameterList().subList(0, last));
+          invoker = guardWithTest(arrayGuard, invoker, root);
+        }
+        MethodHandle guard;
+        if (callSite.argumentNames.length > 0) {
+          guard = insertArguments(NAMED_SHAPE_GUARD, 0, type, target.isVarargsCollector(),
+              targetFunctionReference.parameterNames());
+        } else {
+          guard = insertArguments(SHAPE_GUARD, 0, type, target.isVarargsCollector());
+        }
+        guard = guard.asType(methodType(boolean.class, callSite.type().parameterType(0)));
+        callSite.setTarget(guardWithTest(guard, invoker, root));
+        callSite.depth += 1;
+        CallSiteTelemetry.relinked(callSite.telemetry, callSite.depth);
+      }
+    }
+    return invoker.invokeWithArguments(args);
+  }
+
+  public static Object megamorphicInvoke(InlineCache callSite, Object[] args) throws Throwable {
+    FunctionReference targetFunctionReference = (FunctionReference) args[0];
+    MethodHandle target = targetFunctionReference.handle();
+    return invoker(callSite, target, targetFunctionReference, args).invokeWithArguments(args);
+  }
+
+  /*
+   * With as many arguments as parameters, a varargs function is called either with an array for its
+   * variable arguments, or with a single value to collect.
+   */
+  private static boolean isAmbiguousVarargs(InlineCache callSite, MethodType targetType) {
+    return callSite.type().parameterCount() == targetType.parameterCount() + 1;
+  }
+
+  /*
+   * Adapts a handle taking the function reference target followed by the call arguments, to the call
+   * site type. If the handle is the target itself, the function reference argument is dropped, otherwise
+   * it is replaced by its target.
+   */
+  private static MethodHandle invoker(InlineCache callSite, MethodHandle handle, FunctionReference reference, Object[] args) {
+    MethodHandle target = reference.handle();
+    MethodHandle invoker;
+    if (handle == target) {
+      invoker = MethodHandles.dropArguments(target, 0, FunctionReference.class);
+    } else {
+      invoker = MethodHandles.filterArguments(handle, 0, HANDLE);
+    }
     MethodType type = invoker.type();
     if (callSite.argumentNames.length > 0) {
       invoker = reorderArguments(
-          targetFunctionReference.parameterNames(),
+          reference.parameterNames(),
           invoker,
           callSite.argumentNames);
     }
@@ -102,23 +230,7 @@ public final class ClosureCallSupport {
     } else {
       invoker = invoker.asType(callSite.type());
     }
-    if (callSite.constant) {
-      Object constantValue = invoker.invokeWithArguments(args);
-      MethodHandle constant;
-      if (constantValue == null) {
-        constant = MethodHandles.constant(Object.class, null);
-      } else {
-        constant = MethodHandles.constant(constantValue.getClass(), constantValue);
-      }
-      constant = MethodHandles.dropArguments(constant, 0,  type.parameterArray());
-      callSite.setTarget(constant.asType(type));
-      return constantValue;
-    } else {
-      MethodHandle guard = GUARD.bindTo(targetFunctionReference);
-      MethodHandle root = guardWithTest(guard, invoker, callSite.fallback);
-      callSite.setTarget(root);
-      return invoker.invokeWithArguments(args);
-    }
+    return invoker;
   }
 
   private static MethodHandle reorderArguments(String[] parameterNames, MethodHandle handle, String[] argumentNames) {
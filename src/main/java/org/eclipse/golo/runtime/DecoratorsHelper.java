@@ -9,6 +9,8 @@
  */
 package org.eclipse.golo.runtime;
 
+import gololang.FunctionReference;
+import gololang.annotations.DecorateOnEachCall;
 import gololang.annotations.DecoratedBy;
 
 import java.lang.invoke.MethodHandle;
@@ -16,11 +18,24 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.invoke.MethodType.methodType;
 
 public final class DecoratorsHelper {
 
+  /*
+   * The decorated functions, i.e. the result of applying the decorators on the original functions,
+   * indexed by original function and partitioned by declaring class.
+   */
+  private static final ClassValue<ConcurrentHashMap<Method, MethodHandle>> DECORATED =
+    new ClassValue<ConcurrentHashMap<Method, MethodHandle>>() {
+      @Override
+      protected ConcurrentHashMap<Method, MethodHandle> computeValue(Class<?> declaringClass) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+
   private static final MethodHandle FUNCTION_REFERENCE_TO_METHODHANDLE;
   private static final MethodHandle INVOKE_WITH_ARGUMENTS;
 
@@ -47,6 +62,15 @@ public final class DecoratorsHelper {
     return method.isAnnotationPresent(DecoratedBy.class);
   }
 
+  /**
+   * Checks if the decorators of a decorated method must be applied on each call.
+   *
+   * @see gololang.annotations.DecorateOnEachCall
+   */
+  public static boolean isDecoratedOnEachCall(Method method) {
+    return method.isAnnotationPresent(DecorateOnEachCall.class);
+  }
+
   public static Method getDecoratorMethod(Method decorated) {
     try {
       return decorated.getDeclaringClass().getDeclaredMethod(decorated.getAnnotation(DecoratedBy.class).value(), Object.class);
@@ -56,28 +80,74 @@ public final class DecoratorsHelper {
   }
 
   private static Object functionReferenceToMethodHandle(Object retValue) {
-    return ((gololang.FunctionReference) retValue).handle();
+    return ((FunctionReference) retValue).handle();
   }
 
+  /**
+   * Returns a method handle on the decorated version of a method, adapted to the given arity.
+   * <p>
+   * The decorators are applied once, when the decorated method is first requested, and the resulting
+   * function is reused afterward, unless the method is annotated with
+   * {@link gololang.annotations.DecorateOnEachCall}.
+   *
+   * @param caller the lookup used to access the original and decorator methods.
+   * @param originalMethod the decorated method.
+   * @param arity the number of arguments of the call, or -1 to get a variable arity handle.
+   */
   public static MethodHandle getDecoratedMethodHandle(Lookup caller, Method originalMethod, int arity) {
+    if (isDecoratedOnEachCall(originalMethod)) {
+      return getDecoratedOnEachCallMethodHandle(caller, originalMethod, arity);
+    }
+    MethodHandle decorated = decorated(caller, originalMethod);
+    if (arity < 0) {
+      return INVOKE_WITH_ARGUMENTS.bindTo(decorated).asVarargsCollector(Object[].class);
+    }
+    return decorated.asType(MethodType.genericMethodType(arity));
+  }
+
+  private static MethodHandle decorated(Lookup caller, Method originalMethod) {
+    ConcurrentHashMap<Method, MethodHandle> cache = DECORATED.get(originalMethod.getDeclaringClass());
+    MethodHandle decorated = cache.get(originalMethod);
+    if (decorated != null) {
+      return decorated;
+    }
+    // The decorators are not applied inside computeIfAbsent, since they run arbitrary code that can
+    // itself request decorated functions.
+    try {
+      decorated = ((FunctionReference) decorator(caller, originalMethod).invokeExact()).handle();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Unable to apply the decorator of " + originalMethod.getName(), t);
+    }
+    MethodHandle existing = cache.putIfAbsent(originalMethod, decorated);
+    return existing != null ? existing : decorated;
+  }
+
+  private static MethodHandle decorator(Lookup caller, Method originalMethod) {
     try {
       Method decoratorMethod = getDecoratorMethod(originalMethod);
       MethodHandle decorator = caller.unreflect(decoratorMethod);
-      decorator = MethodHandles.filterReturnValue(decorator, FUNCTION_REFERENCE_TO_METHODHANDLE);
       MethodHandle original = caller.unreflect(originalMethod);
-      decorator = decorator.bindTo(new gololang.FunctionReference(original)).asType(methodType(MethodHandle.class));
-      if (arity < 0) {
-        MethodHandle combined = MethodHandles.foldArguments(INVOKE_WITH_ARGUMENTS, decorator);
-        return combined.asVarargsCollector(Object[].class);
-      } else {
-        MethodHandle invoker = MethodHandles.invoker(MethodType.genericMethodType(arity));
-        return MethodHandles.foldArguments(invoker, decorator);
-      }
+      return decorator.bindTo(new FunctionReference(original)).asType(methodType(FunctionReference.class));
     } catch (IllegalAccessException ex) {
       throw new IllegalStateException("Unable to get the decorator for a method marked as decorated", ex);
     }
   }
 
+  private static MethodHandle getDecoratedOnEachCallMethodHandle(Lookup caller, Method originalMethod, int arity) {
+    MethodHandle decorator = MethodHandles.filterReturnValue(
+        decorator(caller, originalMethod),
+        FUNCTION_REFERENCE_TO_METHODHANDLE.asType(methodType(MethodHandle.class, FunctionReference.class)));
+    if (arity < 0) {
+      MethodHandle combined = MethodHandles.foldArguments(INVOKE_WITH_ARGUMENTS, decorator);
+      return combined.asVarargsCollector(Object[].class);
+    } else {
+      MethodHandle invoker = MethodHandles.invoker(MethodType.genericMethodType(arity));
+      return MethodHandles.foldArguments(invoker, decorator);
+    }
+  }
+
   public static MethodHandle getDecoratedMethodHandle(Method originalMethod, int arity) {
     return getDecoratedMethodHandle(MethodHandles.lookup(), originalMethod, arity);
   }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dispatch table shared by all the megamorphic method invocation call sites.
+ * <p>
+ * Since the resolution of a method depends on the caller module (imports, augmentations, visibility),
+ * the table is partitioned by caller class. The partitions are attached to the caller class through a
+ * {@code ClassValue}, and thus do not prevent a module to be unloaded.
+ * <p>
+ * Within a partition, the targets are grouped by receiver class, and the receiver classes are weakly
+ * referenced. Nothing is attached to the receiver classes themselves: since the targets reference
+ * the caller call sites, attaching them to a system class such as {@code String} would keep the
+ * caller module loader alive. The targets of a receiver class are a concurrent map indexed by method
+ * name, call site type and argument names. Reads are lock-free, and resolved targets are published
+ * with {@code putIfAbsent} (concurrent resolutions of the same key are harmless since they produce
+ * equivalent targets). The entries of a collected receiver class are expunged on the next addition
+ * to the partition; note that a target referencing its receiver class keeps it alive as long as the
+ * entry is in the partition.
+ * <p>
+ * The number of entries in a partition is bounded by the {@code golo.runtime.dispatch-table.size}
+ * system property (4096 by default); once full, the partition is cleared and filled again.
+ * <p>
+ * Since the targets can be resolved into classes that are later redefined, the partitions are dropped
+ * after a redefinition (see {@link ModuleVersions}).
+ */
+final class DispatchTable {
+
+  static final int MAX_ENTRIES = Integer.getInteger("golo.runtime.dispatch-table.size", 4096);
+
+  private static final class Receiver extends WeakReference<Class<?>> {
+    private final int hash;
+
+    Receiver(Class<?> receiverClass, ReferenceQueue<Class<?>> queue) {
+      super(receiverClass, queue);
+      this.hash = System.identityHashCode(receiverClass);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) { return true; }
+      if (!(o instanceof Receiver)) { return false; }
+      Class<?> receiverClass = get();
+      return receiverClass != null && receiverClass == ((Receiver) o).get();
+    }
+  }
+
+  private static final class Targets {
+    private final ConcurrentHashMap<Receiver, ConcurrentHashMap<Key, MethodHandle>> receivers = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    MethodHandle get(Class<?> receiverClass, Key key) {
+      ConcurrentHashMap<Key, MethodHandle> targets = receivers.get(new Receiver(receiverClass, null));
+      return targets == null ? null : targets.get(key);
+    }
+
+    void add(Class<?> receiverClass, Key key, MethodHandle target) {
+      expunge();
+      ConcurrentHashMap<Key, MethodHandle> targets = receivers.computeIfAbsent(
+          new Receiver(receiverClass, collected),
+          k -> new ConcurrentHashMap<>());
+      if (targets.putIfAbsent(key, target) == null) {
+        size.incrementAndGet();
+      }
+    }
+
+    private void expunge() {
+      Reference<? extends Class<?>> reference;
+      while ((reference = collected.poll()) != null) {
+        ConcurrentHashMap<Key, MethodHandle> targets = receivers.remove(reference);
+        if (targets != null) {
+          size.addAndGet(-targets.size());
+        }
+      }
+    }
+  }
+
+  private static final class Partition {
+    private volatile Targets targets = new Targets();
+    private final int generation = Reloading.generation();
+
+    void add(Class<?> receiverClass, Key key, MethodHandle target) {
+      Targets current = targets;
+      if (current.size.get() >= MAX_ENTRIES) {
+        current = new Targets();
+        targets = current;
+      }
+      current.add(receiverClass, key, target);
+    }
+  }
+
+  private static final ClassValue<Partition> PARTITIONS =
+    new ClassValue<Partition>() {
+      @Override
+      protected Partition computeValue(Class<?> callerClass) {
+        return new Partition();
+      }
+    };
+
+  private static Partition partition(Class<?> callerClass) {
+    Partition partition = PARTITIONS.get(callerClass);
+    if (partition.generation != Reloading.generation()) {
+      PARTITIONS.remove(callerClass);
+      partition = PARTITIONS.get(callerClass);
+    }
+    return partition;
+  }
+
+  private DispatchTable() {
+    throw new UnsupportedOperationException("Don't instantiate utility classes");
+  }
+
+  static final class Key {
+    private final String name;
+    private final MethodType type;
+    private final String[] argumentNames;
+    private final int hash;
+
+    Key(String name, MethodType type, String[] argumentNames) {
+      this.name = name;
+      this.type = type;
+      this.argumentNames = argumentNames;
+      this.hash = Objects.hash(name, type, Arrays.hashCode(argumentNames));
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) { return true; }
+      if (!(o instanceof Key)) { return false; }
+      Key that = (Key) o;
+      return this.hash == that.hash
+        && this.name.equals(that.name)
+        && this.type.equals(that.type)
+        && Arrays.equals(this.argumentNames, that.argumentNames);
+    }
+  }
+
+  /**
+   * Returns the cached target for the given key, resolving and caching it if needed.
+   *
+   * @param callerClass the class of the call site caller.
+   * @param receiverClass the class of the receiver.
+   * @param key the dispatch key.
+   * @param resolver the resolution of the target, used on cache miss.
+   * @return the target method handle, or {@code null} if the resolver gives none.
+   */
+  static MethodHandle get(Class<?> callerClass, Class<?> receiverClass, Key key, Supplier<MethodHandle> resolver) {
+    Partition partition = partition(callerClass);
+    MethodHandle target = partition.targets.get(receiverClass, key);
+    if (target != null) {
+      return target;
+    }
+    // The resolution is not done inside computeIfAbsent, since it can trigger class initializations
+    // that in turn use this table.
+    target = resolver.get();
+    if (target != null) {
+      partition.add(receiverClass, key, target);
+    }
+    return target;
+  }
+
+  /**
+   * Returns the number of cached targets for the given caller class.
+   */
+  static int size(Class<?> callerClass) {
+    return partition(callerClass).targets.size.get();
+  }
+}
@@ -13,6 +13,14 @@ package org.eclipse.golo.runtime;
 import org.eclipse.golo.compiler.macro.Macro;
 
 import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -25,6 +33,112 @@ public final class Extractors {
     throw new UnsupportedOperationException("don't instantiate");
   }
 
+  private static final Method[] NO_METHODS = new Method[0];
+  private static final Field[] NO_FIELDS = new Field[0];
+
+  /**
+   * Index of the members of a class, built once per class.
+   * <p>
+   * The methods are sorted as returned by {@link #getMethods(Class)}, and grouped by name. The
+   * reflective objects are shared: a non public member must be copied (see {@link #copyOf(Method)} and {@link #copyOf(Field)})
+   * before being made accessible.
+   */
+  private static final class MemberIndex {
+    final Method[] methods;
+    final Field[] fields;
+    final Map<String, Method[]> methodsByName = new HashMap<>();
+    final Map<String, Field[]> fieldsByName = new HashMap<>();
+    final Map<String, Overloads> overloads = new HashMap<>();
+    final Set<Member> deprecated = new HashSet<>();
+
+    MemberIndex(Class<?> klass) {
+      Set<Method> allMethods = new LinkedHashSet<>(Arrays.asList(klass.getDeclaredMethods()));
+      allMethods.addAll(Arrays.asList(klass.getMethods()));
+      methods = allMethods.stream().sorted(Extractors::compareMethods).toArray(Method[]::new);
+      Set<Field> allFields = new LinkedHashSet<>(Arrays.asList(klass.getDeclaredFields()));
+      allFields.addAll(Arrays.asList(klass.getFields()));
+      fields = allFields.toArray(NO_FIELDS);
+
+      Map<String, List<Method>> methodGroups = new HashMap<>();
+      for (Method m : methods) {
+        methodGroups.computeIfAbsent(m.getName(), k -> new ArrayList<>()).add(m);
+        checkDeprecated(m);
+      }
+      methodGroups.forEach((name, group) -> {
+        methodsByName.put(name, group.toArray(NO_METHODS));
+        overloads.put(name, new Overloads(group));
+      });
+      Map<String, List<Field>> fieldGroups = new HashMap<>();
+      for (Field f : fields) {
+        fieldGroups.computeIfAbsent(f.getName(), k -> new ArrayList<>()).add(f);
+        checkDeprecated(f);
+      }
+      fieldGroups.forEach((name, group) -> fieldsByName.put(name, group.toArray(NO_FIELDS)));
+      for (Constructor<?> c : klass.getDeclaredConstructors()) {
+        checkDeprecated(c);
+      }
+    }
+
+    private <T extends AnnotatedElement & Member> void checkDeprecated(T member) {
+      if (member.isAnnotationPresent(Deprecated.class)) {
+        deprecated.add(member);
+      }
+    }
+  }
+
+  /**
+   * Number of public concrete methods having a given name, by number of parameters.
+   */
+  private static final class Overloads {
+    private final int[] fixedArity;
+    private final int[] varargsParameterCounts;
+
+    Overloads(List<Method> group) {
+      int max = 0;
+      for (Method m : group) {
+        max = Math.max(max, m.getParameterCount());
+      }
+      fixedArity = new int[max + 1];
+      List<Integer> varargs = new ArrayList<>();
+      for (Method m : group) {
+        if (isPublic(m) && isConcrete(m)) {
+          fixedArity[m.getParameterCount()]++;
+          if (m.isVarArgs()) {
+            varargs.add(m.getParameterCount());
+          }
+        }
+      }
+      varargsParameterCounts = varargs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    boolean isOverloaded(int parameterCount) {
+      int count = parameterCount < fixedArity.length ? fixedArity[parameterCount] : 0;
+      for (int varargsCount : varargsParameterCounts) {
+        if (varargsCount != parameterCount && varargsCount <= parameterCount + 1) {
+          count++;
+        }
+      }
+      return count > 1;
+    }
+  }
+
+  private static final ClassValue<MemberIndex> MEMBERS = new ClassValue<MemberIndex>() {
+    @Override
+    protected MemberIndex computeValue(Class<?> klass) {
+      return new MemberIndex(klass);
+    }
+  };
+
+  private static int compareMethods(Method m1, Method m2) {
+    if (m1.isVarArgs() && !m2.isVarArgs()) {
+      return 1;
+    }
+    if (m2.isVarArgs() && !m1.isVarArgs()) {
+      return -1;
+    }
+    return compareTypes(m1.getParameterTypes(), m2.getParameterTypes());
+  }
+
   public static Stream<Constructor<?>> getConstructors(Class<?> klass) {
     if (klass == null) {
       return Stream.empty();
@@ -40,33 +154,77 @@ public final class Extractors {
     return getMethods(klass).filter(Extractors::isMacro);
   }
 
+  /**
+   * Returns the declared and public methods of a class, fixed arity methods first, sorted by
+   * parameter types specificity.
+   */
   public static Stream<Method> getMethods(Class<?> klass) {
     if (klass == null) {
       return Stream.empty();
     }
-    return Stream.concat(
-        Stream.of(klass.getDeclaredMethods()),
-        Stream.of(klass.getMethods()))
-      .distinct()
-      .sorted((m1, m2) -> {
-        if (m1.isVarArgs() && !m2.isVarArgs()) {
-          return 1;
-        }
-        if (m2.isVarArgs() && !m1.isVarArgs()) {
-          return -1;
-        }
-        return compareTypes(m1.getParameterTypes(), m2.getParameterTypes());
-      });
+    return Stream.of(MEMBERS.get(klass).methods);
+  }
+
+  /**
+   * Returns the declared and public methods of a class having the given name, in the same order as
+   * {@link #getMethods(Class)}.
+   */
+  public static Stream<Method> getMethods(Class<?> klass, String name) {
+    if (klass == null) {
+      return Stream.empty();
+    }
+    return Stream.of(MEMBERS.get(klass).methodsByName.getOrDefault(name, NO_METHODS));
+  }
+
+  /**
+   * Checks if a call to the method with the given name and number of arguments can match several
+   * public concrete methods of the class.
+   */
+  public static boolean isOverloaded(Class<?> klass, String name, int argumentCount) {
+    Overloads overloads = MEMBERS.get(klass).overloads.get(name);
+    return overloads != null && overloads.isOverloaded(argumentCount);
   }
 
   public static Stream<Field> getFields(Class<?> klass) {
     if (klass == null) {
       return Stream.empty();
     }
-    return Stream.concat(
-        Stream.of(klass.getDeclaredFields()),
-        Stream.of(klass.getFields()))
-      .distinct();
+    return Stream.of(MEMBERS.get(klass).fields);
+  }
+
+  public static Stream<Field> getFields(Class<?> klass, String name) {
+    if (klass == null) {
+      return Stream.empty();
+    }
+    return Stream.of(MEMBERS.get(klass).fieldsByName.getOrDefault(name, NO_FIELDS));
+  }
+
+  /**
+   * Returns a copy of the given method, that can be made accessible without changing the shared
+   * instance.
+   */
+  public static Method copyOf(Method method) {
+    try {
+      return method.getDeclaringClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns a copy of the given field, that can be made accessible without changing the shared
+   * instance.
+   */
+  public static Field copyOf(Field field) {
+    try {
+      return field.getDeclaringClass().getDeclaredField(field.getName());
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static boolean isDeprecated(Member member) {
+    return MEMBERS.get(member.getDeclaringClass()).deprecated.contains(member);
   }
 
   public static Stream<String> getImportedNames(Class<?> klass) {
@@ -115,7 +273,7 @@ public final class Extractors {
   }
 
   public static <T extends AnnotatedElement & Member> T checkDeprecation(Class<?> caller, T object) {
-    if (object.isAnnotationPresent(Deprecated.class)) {
+    if (isDeprecated(object)) {
       Warnings.deprecatedElement(
           (object instanceof Executable ? ((Executable) object).toGenericString()
            : object instanceof Field ? ((Field) object).toGenericString()
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import gololang.Predefined;
+import gololang.Range;
+
+import java.lang.reflect.Array;
+
+/**
+ * Helpers of the specialized {@code foreach} loops.
+ * <p>
+ * The compiler generates a copy of the loop for each kind of iterated value. Arrays are iterated with
+ * an index, and integer ranges with a primitive counter. Any other value, including lists, is iterated
+ * with its {@code iterator()}, such that collections keep their snapshot or fail-fast semantics.
+ */
+public final class ForEachSupport {
+
+  public static final int ITERATOR = 0;
+  public static final int OBJECT_ARRAY = 1;
+  public static final int PRIMITIVE_ARRAY = 2;
+  public static final int INT_RANGE = 3;
+  public static final int LONG_RANGE = 4;
+
+  // The range implementations are not public, and other ranges may iterate differently.
+  private static final Class<?> INT_RANGE_CLASS = Predefined.range(0, 0).getClass();
+  private static final Class<?> LONG_RANGE_CLASS = Predefined.range(0L, 0L).getClass();
+
+  private ForEachSupport() {
+    throw new UnsupportedOperationException("Don't instantiate utility classes");
+  }
+
+  /**
+   * Returns the kind of loop to use to iterate over the given value.
+   */
+  public static int kind(Object iterable) {
+    if (iterable == null) {
+      return ITERATOR;
+    }
+    Class<?> type = iterable.getClass();
+    if (iterable instanceof Object[]) {
+      return OBJECT_ARRAY;
+    }
+    if (type.isArray()) {
+      return PRIMITIVE_ARRAY;
+    }
+    if (type == INT_RANGE_CLASS) {
+      return INT_RANGE;
+    }
+    if (type == LONG_RANGE_CLASS) {
+      return LONG_RANGE;
+    }
+    return ITERATOR;
+  }
+
+  /**
+   * Returns the boxed element of a primitive array.
+   */
+  public static Object element(Object array, int index) {
+    return Array.get(array, index);
+  }
+
+  public static long rangeFrom(Object range) {
+    return ((Number) ((Range<?>) range).from()).longValue();
+  }
+
+  public static long rangeTo(Object range) {
+    return ((Number) ((Range<?>) range).to()).longValue();
+  }
+
+  public static long rangeIncrement(Object range) {
+    return ((Range<?>) range).increment();
+  }
+
+  /**
+   * Checks if a range counter has not reached the range bound, in the direction of the increment.
+   */
+  public static boolean inRange(long value, long to, long increment) {
+    return increment > 0 ? value < to : value > to;
+  }
+
+  /**
+   * Returns the boxed value of a range counter, as an {@code Integer} for {@link #INT_RANGE} ranges.
+   */
+  public static Object rangeElement(long value, int kind) {
+    if (kind == INT_RANGE) {
+      return (int) value;
+    }
+    return value;
+  }
+}
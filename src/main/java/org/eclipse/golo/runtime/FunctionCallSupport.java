@@ -15,8 +15,14 @@ import gololang.FunctionReference;
 import java.lang.invoke.*;
 import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+import static java.lang.invoke.MethodType.genericMethodType;
 import static java.lang.invoke.MethodType.methodType;
 import static java.lang.reflect.Modifier.isPrivate;
 import static java.lang.reflect.Modifier.isStatic;
@@ -47,6 +53,8 @@ public final class FunctionCallSupport {
     final String name;
     final boolean constant;
     final String[] argumentNames;
+    MethodHandle fallback;
+    CallSiteTelemetry.Site telemetry;
 
     FunctionCallSite(Lookup callerLookup, String name, MethodType type, boolean constant, String... argumentNames) {
       super(type);
@@ -57,9 +65,81 @@ public final class FunctionCallSupport {
     }
   }
 
+  /*
+   * Function resolutions shared by the call sites of a module.
+   *
+   * A resolved function is cached by name and number of arguments when it is the only candidate of
+   * its class for this number of arguments, so that the cached member only needs to be checked against
+   * the actual arguments. The classes looked up by name (qualified functions, import prefixes,
+   * constructors) are cached too, including the names that could not be loaded. Since new classes can be
+   * defined afterward, the failures are only valid until the next call to {@link #classesDefined()}.
+   * Entries resolved into a class that was since redefined (see {@link ModuleVersions}) are ignored.
+   */
+  private static final class ResolutionKey {
+    private final String name;
+    private final int arity;
+
+    ResolutionKey(String name, int arity) {
+      this.name = name;
+      this.arity = arity;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * name.hashCode() + arity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) { return true; }
+      if (!(o instanceof ResolutionKey)) { return false; }
+      ResolutionKey that = (ResolutionKey) o;
+      return this.arity == that.arity && this.name.equals(that.name);
+    }
+  }
+
+  private static final class Resolutions {
+    final ConcurrentHashMap<ResolutionKey, AccessibleObject> functions = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Object> classes = new ConcurrentHashMap<>();
+  }
+
+  private static final ClassValue<Resolutions> RESOLUTIONS = new ClassValue<Resolutions>() {
+    @Override
+    protected Resolutions computeValue(Class<?> callerClass) {
+      return new Resolutions();
+    }
+  };
+
+  private static final AtomicInteger CLASSES_GENERATION = new AtomicInteger();
+  private static final LongAdder RESOLUTION_HITS = new LongAdder();
+  private static final LongAdder RESOLUTION_MISSES = new LongAdder();
+
+  /**
+   * Signals that new classes were defined, and thus that the classes that could not be loaded during
+   * previous function resolutions must be looked up again.
+   */
+  public static void classesDefined() {
+    CLASSES_GENERATION.incrementAndGet();
+  }
+
+  /**
+   * Returns the number of function call sites linked from the shared resolution cache.
+   */
+  public static long resolutionCacheHits() {
+    return RESOLUTION_HITS.sum();
+  }
+
+  /**
+   * Returns the number of function call sites that searched for their target.
+   */
+  public static long resolutionCacheMisses() {
+    return RESOLUTION_MISSES.sum();
+  }
+
   private static final MethodHandle FALLBACK;
   private static final MethodHandle SAM_FILTER;
   private static final MethodHandle FUNCTIONAL_INTERFACE_FILTER;
+  private static final MethodHandle[] FUNCTIONAL_INTERFACE_BRIDGES = new MethodHandle[6];
 
   static {
     try {
@@ -76,6 +156,12 @@ public final class FunctionCallSupport {
           FunctionCallSupport.class,
           "functionalInterfaceFilter",
           methodType(Object.class, Lookup.class, Class.class, Object.class));
+      for (int arity = 0; arity < FUNCTIONAL_INTERFACE_BRIDGES.length; arity++) {
+        FUNCTIONAL_INTERFACE_BRIDGES[arity] = lookup.findStatic(
+            FunctionCallSupport.class,
+            "functionalInterfaceBridge",
+            genericMethodType(arity).insertParameterTypes(0, MethodHandle.class));
+      }
     } catch (NoSuchMethodException | IllegalAccessException e) {
       throw new Error("Could not bootstrap the required method handles", e);
     }
@@ -95,21 +181,219 @@ public final class FunctionCallSupport {
     return value;
   }
 
+  /**
+   * Functional interface instance factories, for a given interface and caller.
+   * <p>
+   * Direct method handles are the implementation of the lambda generated by the
+   * {@code LambdaMetafactory}, so that the functional interface method calls them directly. Since such
+   * a lambda does not capture anything, its instance is cached by handle.
+   * <p>
+   * Other handles, such as closures with captured values, are called through a generic bridge. The
+   * bridge factory is generated once and captures the function handle, such that converting a closure
+   * only binds its handle.
+   */
+  private static final class FunctionalInterfaceFactory {
+    static final int MAX_DIRECT_INSTANCES = 256;
+    static final Object NOT_DIRECT = new Object();
+
+    final Method method;
+    final MethodHandle bridge;
+    final ConcurrentHashMap<MethodHandle, Object> directInstances = new ConcurrentHashMap<>();
+
+    FunctionalInterfaceFactory(Method method, MethodHandle bridge) {
+      this.method = method;
+      this.bridge = bridge;
+    }
+  }
+
+  private static final ClassValue<ConcurrentHashMap<Class<?>, FunctionalInterfaceFactory>> FUNCTIONAL_INTERFACE_FACTORIES =
+    new ClassValue<ConcurrentHashMap<Class<?>, FunctionalInterfaceFactory>>() {
+      @Override
+      protected ConcurrentHashMap<Class<?>, FunctionalInterfaceFactory> computeValue(Class<?> callerClass) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+
+  private static final LongAdder FUNCTIONAL_INTERFACE_FACTORY_HITS = new LongAdder();
+  private static final LongAdder FUNCTIONAL_INTERFACE_FACTORY_MISSES = new LongAdder();
+
+  /**
+   * Returns the number of functional interface conversions that used an already generated factory.
+   */
+  public static long functionalInterfaceFactoryHits() {
+    return FUNCTIONAL_INTERFACE_FACTORY_HITS.sum();
+  }
+
+  /**
+   * Returns the number of functional interface conversions that needed to generate a factory.
+   */
+  public static long functionalInterfaceFactoryMisses() {
+    return FUNCTIONAL_INTERFACE_FACTORY_MISSES.sum();
+  }
+
   public static Object asFunctionalInterface(Lookup caller, Class<?> type, MethodHandle handle) throws Throwable {
+    ConcurrentHashMap<Class<?>, FunctionalInterfaceFactory> factories = FUNCTIONAL_INTERFACE_FACTORIES.get(caller.lookupClass());
+    FunctionalInterfaceFactory factory = factories.get(type);
+    boolean cached = factory != null;
+    if (!cached) {
+      factory = functionalInterfaceFactory(caller, type);
+      if (factory == null) {
+        throw new RuntimeException(message("handle_conversion_failed", handle, type));
+      }
+      FunctionalInterfaceFactory existing = factories.putIfAbsent(type, factory);
+      if (existing != null) {
+        factory = existing;
+      }
+    }
+    if (factory.bridge == null || isDirect(caller, handle)) {
+      Object instance = factory.directInstances.get(handle);
+      if (instance == null) {
+        FUNCTIONAL_INTERFACE_FACTORY_MISSES.increment();
+        instance = directInstance(caller, type, factory, handle);
+        if (factory.directInstances.size() < FunctionalInterfaceFactory.MAX_DIRECT_INSTANCES) {
+          factory.directInstances.putIfAbsent(handle, instance);
+        }
+      } else {
+        FUNCTIONAL_INTERFACE_FACTORY_HITS.increment();
+      }
+      if (instance != FunctionalInterfaceFactory.NOT_DIRECT) {
+        return instance;
+      }
+    } else if (cached) {
+      FUNCTIONAL_INTERFACE_FACTORY_HITS.increment();
+    } else {
+      FUNCTIONAL_INTERFACE_FACTORY_MISSES.increment();
+    }
+    return factory.bridge.invoke(handle.asType(genericMethodType(factory.method.getParameterCount())));
+  }
+
+  private static final int UNKNOWN_HANDLE_KIND = 0;
+  private static final int DIRECT_HANDLE_KIND = 1;
+  private static final int OTHER_HANDLE_KIND = 2;
+
+  /*
+   * Revealing a handle that is not direct throws, which is too costly for each closure conversion, so
+   * the handle classes that were never seen direct are remembered. Variable arity handles are unwrapped,
+   * since they are direct if their target is.
+   */
+  private static final ClassValue<AtomicInteger> HANDLE_KINDS = new ClassValue<AtomicInteger>() {
+    @Override
+    protected AtomicInteger computeValue(Class<?> handleClass) {
+      return new AtomicInteger(UNKNOWN_HANDLE_KIND);
+    }
+  };
+
+  private static boolean isDirect(Lookup caller, MethodHandle handle) {
+    AtomicInteger kind = HANDLE_KINDS.get(handle.asFixedArity().getClass());
+    if (kind.get() == OTHER_HANDLE_KIND) {
+      return false;
+    }
+    try {
+      caller.revealDirect(handle);
+      kind.set(DIRECT_HANDLE_KIND);
+      return true;
+    } catch (IllegalArgumentException e) {
+      kind.compareAndSet(UNKNOWN_HANDLE_KIND, OTHER_HANDLE_KIND);
+      return false;
+    }
+  }
+
+  private static Object directInstance(Lookup caller, Class<?> type, FunctionalInterfaceFactory factory, MethodHandle handle) throws Throwable {
+    Method method = factory.method;
+    MethodType lambdaType = methodType(method.getReturnType(), method.getParameterTypes());
+    MethodType instantiatedType = lambdaType;
+    if (handle.type().parameterCount() == lambdaType.parameterCount()) {
+      // narrow the reference parameters to the handle ones, such that the lambda casts its arguments
+      for (int i = 0; i < lambdaType.parameterCount(); i++) {
+        Class<?> expected = lambdaType.parameterType(i);
+        Class<?> actual = handle.type().parameterType(i);
+        if (!expected.isPrimitive() && !actual.isPrimitive() && expected.isAssignableFrom(actual)) {
+          instantiatedType = instantiatedType.changeParameterType(i, actual);
+        }
+      }
+    }
+    try {
+      return LambdaMetafactory.metafactory(
+          caller,
+          method.getName(),
+          methodType(type),
+          lambdaType,
+          handle,
+          instantiatedType).getTarget().invoke();
+    } catch (LambdaConversionException e) {
+      if (factory.bridge == null) {
+        throw e;
+      }
+      // e.g. variable arity handles: use the bridge, which adapts the handle type
+      return FunctionalInterfaceFactory.NOT_DIRECT;
+    }
+  }
+
+  private static FunctionalInterfaceFactory functionalInterfaceFactory(Lookup caller, Class<?> type) throws LambdaConversionException {
+    Method method = functionalMethod(type);
+    if (method == null) {
+      return null;
+    }
+    int arity = method.getParameterCount();
+    MethodHandle bridge = null;
+    if (arity < FUNCTIONAL_INTERFACE_BRIDGES.length) {
+      MethodType lambdaType = methodType(method.getReturnType(), method.getParameterTypes());
+      bridge = LambdaMetafactory.metafactory(
+          caller,
+          method.getName(),
+          methodType(type, MethodHandle.class),
+          lambdaType,
+          FUNCTIONAL_INTERFACE_BRIDGES[arity],
+          lambdaType).getTarget();
+    }
+    return new FunctionalInterfaceFactory(method, bridge);
+  }
+
+  private static Method functionalMethod(Class<?> type) {
     for (Method method : type.getMethods()) {
-      if (!method.isDefault() && !isStatic(method.getModifiers())) {
-        MethodType lambdaType = methodType(method.getReturnType(), method.getParameterTypes());
-        CallSite callSite = LambdaMetafactory.metafactory(
-            caller,
-            method.getName(),
-            methodType(type),
-            lambdaType,
-            handle,
-            lambdaType);
-        return callSite.dynamicInvoker().invoke();
+      if (!method.isDefault() && !isStatic(method.getModifiers()) && !isObjectMethod(method)) {
+        return method;
       }
     }
-    throw new RuntimeException(message("handle_conversion_failed", handle, type));
+    return null;
+  }
+
+  private static boolean isObjectMethod(Method method) {
+    try {
+      Object.class.getMethod(method.getName(), method.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Implementation of the functional interface instances: calls the captured function handle.
+   * <p>
+   * This is not part of the public API; it is public only to be accessible from the generated classes.
+   */
+  public static Object functionalInterfaceBridge(MethodHandle target) throws Throwable {
+    return (Object) target.invokeExact();
+  }
+
+  public static Object functionalInterfaceBridge(MethodHandle target, Object arg1) throws Throwable {
+    return (Object) target.invokeExact(arg1);
+  }
+
+  public static Object functionalInterfaceBridge(MethodHandle target, Object arg1, Object arg2) throws Throwable {
+    return (Object) target.invokeExact(arg1, arg2);
+  }
+
+  public static Object functionalInterfaceBridge(MethodHandle target, Object arg1, Object arg2, Object arg3) throws Throwable {
+    return (Object) target.invokeExact(arg1, arg2, arg3);
+  }
+
+  public static Object functionalInterfaceBridge(MethodHandle target, Object arg1, Object arg2, Object arg3, Object arg4) throws Throwable {
+    return (Object) target.invokeExact(arg1, arg2, arg3, arg4);
+  }
+
+  public static Object functionalInterfaceBridge(MethodHandle target, Object arg1, Object arg2, Object arg3, Object arg4, Object arg5) throws Throwable {
+    return (Object) target.invokeExact(arg1, arg2, arg3, arg4, arg5);
   }
 
   public static CallSite bootstrap(Lookup caller, String name, MethodType type, Object... bsmArgs) throws IllegalAccessException, ClassNotFoundException {
@@ -124,10 +408,12 @@ public final class FunctionCallSupport {
         type,
         constant,
         argumentNames);
+    callSite.telemetry = CallSiteTelemetry.register(CallSiteTelemetry.Kind.FUNCTION, caller, callSite.name);
     MethodHandle fallbackHandle = FALLBACK
         .bindTo(callSite)
         .asCollector(Object[].class, type.parameterCount())
         .asType(type);
+    callSite.fallback = fallbackHandle;
     callSite.setTarget(fallbackHandle);
     return callSite;
   }
@@ -139,31 +425,17 @@ public final class FunctionCallSupport {
     Class<?> callerClass = caller.lookupClass();
     String[] argumentNames = callSite.argumentNames;
 
+    CallSiteTelemetry.fallback(callSite.telemetry);
+    long start = CallSiteTelemetry.start(callSite.telemetry);
     MethodHandle handle = null;
-    AccessibleObject result = null;
-    if (!functionName.contains(".")) {
-      result = findStaticMethodOrField(callerClass, callerClass, functionName, args);
-    }
-    if (result == null) {
-      result = findClassWithStaticMethodOrField(callerClass, functionName, args);
-    }
-    if (result == null) {
-      result = findClassWithStaticMethodOrFieldFromImports(callerClass, functionName, args);
-    }
-    if (result == null) {
-      result = findClassWithConstructor(callerClass, functionName, args);
-    }
-    if (result == null) {
-      result = findClassWithConstructorFromImports(callerClass, functionName, args);
-    }
+    AccessibleObject result = resolve(callerClass, functionName, args);
     if (result == null) {
       throw new NoSuchMethodError(functionName + type.toMethodDescriptorString());
     }
 
     Class<?>[] types = null;
     if (result instanceof Method) {
-      Method method = (Method) result;
-      checkLocalFunctionCallFromSameModuleAugmentation(method, callerClass.getName());
+      Method method = checkLocalFunctionCallFromSameModuleAugmentation((Method) result, callerClass.getName());
       if (isMethodDecorated(method)) {
         handle = getDecoratedMethodHandle(caller, method, type.parameterCount());
       } else {
@@ -193,6 +465,8 @@ public final class FunctionCallSupport {
       handle = caller.unreflectGetter(field).asType(type);
     }
     handle = insertSAMFilter(handle, callSite.callerLookup, types, 0);
+    Class<?> targetClass = ((Member) result).getDeclaringClass();
+    CallSiteTelemetry.resolved(callSite.telemetry, start);
 
     if (callSite.constant) {
       Object constantValue = handle.invokeWithArguments(args);
@@ -203,14 +477,184 @@ public final class FunctionCallSupport {
         constant = MethodHandles.constant(constantValue.getClass(), constantValue);
       }
       constant = MethodHandles.dropArguments(constant, 0, type.parameterArray());
-      callSite.setTarget(constant.asType(type));
+      callSite.setTarget(Reloading.guard(callerClass, targetClass, constant.asType(type), callSite.fallback));
+      CallSiteTelemetry.relinked(callSite.telemetry, 1);
       return constantValue;
     } else {
-      callSite.setTarget(handle);
+      callSite.setTarget(Reloading.guard(callerClass, targetClass, handle, callSite.fallback));
+      CallSiteTelemetry.relinked(callSite.telemetry, 1);
       return handle.invokeWithArguments(args);
     }
   }
 
+  private static AccessibleObject resolve(Class<?> callerClass, String functionName, Object[] args) {
+    ConcurrentHashMap<ResolutionKey, AccessibleObject> functions = RESOLUTIONS.get(callerClass).functions;
+    ResolutionKey key = new ResolutionKey(functionName, args.length);
+    AccessibleObject result = functions.get(key);
+    if (result != null && Reloading.isCurrent(((Member) result).getDeclaringClass())
+        && stillMatches(callerClass, result, args)) {
+      RESOLUTION_HITS.increment();
+      return result;
+    }
+    RESOLUTION_MISSES.increment();
+    result = null;
+    if (!functionName.contains(".")) {
+      result = findStaticMethodOrField(callerClass, callerClass, functionName, args);
+    }
+    if (result == null) {
+      result = findClassWithStaticMethodOrField(callerClass, functionName, args);
+    }
+    if (result == null) {
+      result = findClassWithStaticMethodOrFieldFromImports(callerClass, functionName, args);
+    }
+    if (result == null) {
+      result = findClassWithConstructor(callerClass, functionName, args);
+    }
+    if (result == null) {
+      result = findClassWithConstructorFromImports(callerClass, functionName, args);
+    }
+    if (result != null && isSoleCandidate(result, args.length)
+        && !hasEarlierCandidate(callerClass, functionName, result, args.length)) {
+      functions.put(key, result);
+    }
+    return result;
+  }
+
+  private static boolean stillMatches(Class<?> callerClass, AccessibleObject member, Object[] args) {
+    if (member instanceof Method) {
+      Method method = (Method) member;
+      return methodMatches(callerClass, method.getName(), args, method, method.isVarArgs());
+    }
+    if (member instanceof Constructor) {
+      return TypeMatching.argumentsMatch((Constructor<?>) member, args);
+    }
+    return true;
+  }
+
+  /*
+   * The resolution only depends on the argument types when several members of the same class accept
+   * the number of arguments.
+   */
+  private static boolean isSoleCandidate(AccessibleObject member, int arity) {
+    if (member instanceof Method) {
+      Method method = (Method) member;
+      return Extractors.getMethods(method.getDeclaringClass(), method.getName())
+        .filter(m -> isStatic(m.getModifiers()) && acceptsArity(m, arity))
+        .count() == 1;
+    }
+    if (member instanceof Constructor) {
+      return ((Constructor<?>) member).getDeclaringClass().getConstructors().length == 1;
+    }
+    return true;
+  }
+
+  /*
+   * A resolution is shared by the call sites of the caller only if no lookup step before the one that
+   * found it has a candidate for the number of arguments, since such a candidate can match the argument
+   * types of another call site, and would then take precedence.
+   */
+  private static boolean hasEarlierCandidate(Class<?> callerClass, String functionName, AccessibleObject result, int arity) {
+    Member member = (Member) result;
+    boolean isConstructor = result instanceof Constructor;
+    if (!functionName.contains(".")) {
+      if (!isConstructor && isLookupOf(member, callerClass, functionName)) {
+        return false;
+      }
+      if (hasStaticCandidate(callerClass, functionName, arity)) {
+        return true;
+      }
+    }
+    String[] imports = Module.imports(callerClass);
+    List<String> names = new ArrayList<>();
+    names.add(functionName);
+    if (functionName.contains(".")) {
+      names.add(mergeImportAndCall(callerClass.getCanonicalName(), functionName));
+    }
+    for (String imported : imports) {
+      names.add(mergeImportAndCall(imported, functionName));
+    }
+    for (String name : names) {
+      int separator = name.lastIndexOf('.');
+      Class<?> targetClass = separator < 0 ? null : loadClass(callerClass, name.substring(0, separator));
+      if (targetClass == null) {
+        continue;
+      }
+      String memberName = name.substring(separator + 1);
+      if (!isConstructor && isLookupOf(member, targetClass, memberName)) {
+        return false;
+      }
+      if (hasStaticCandidate(targetClass, memberName, arity)) {
+        return true;
+      }
+    }
+    names.clear();
+    names.add(functionName);
+    for (String imported : imports) {
+      names.add(mergeImportAndCall(imported, functionName));
+    }
+    for (String name : names) {
+      Class<?> targetClass = loadClass(callerClass, name);
+      if (targetClass == null) {
+        continue;
+      }
+      if (targetClass == member.getDeclaringClass()) {
+        return false;
+      }
+      for (Constructor<?> constructor : targetClass.getConstructors()) {
+        int count = constructor.getParameterCount();
+        if (count == arity || (constructor.isVarArgs() && arity >= count - 1)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isLookupOf(Member member, Class<?> targetClass, String name) {
+    return member.getDeclaringClass().isAssignableFrom(targetClass) && member.getName().equals(name);
+  }
+
+  private static boolean hasStaticCandidate(Class<?> targetClass, String name, int arity) {
+    return Extractors.getMethods(targetClass, name).anyMatch(m -> isStatic(m.getModifiers()) && acceptsArity(m, arity))
+      || (arity == 0 && Extractors.getFields(targetClass, name).anyMatch(f -> fieldMatches(name, f)));
+  }
+
+  private static boolean acceptsArity(Method method, int arity) {
+    int count = method.getParameterCount();
+    if (method.isAnnotationPresent(WithCaller.class)) {
+      count -= 1;
+    }
+    return isMethodDecorated(method)
+      || count == arity
+      || (method.isVarArgs() && arity >= count - 1);
+  }
+
+  /*
+   * Loads a class from the caller class loader, or returns null if it does not exist.
+   */
+  private static Class<?> loadClass(Class<?> callerClass, String className) {
+    ConcurrentHashMap<String, Object> classes = RESOLUTIONS.get(callerClass).classes;
+    Object cached = classes.get(className);
+    if (cached instanceof Class && Reloading.isCurrent((Class<?>) cached)) {
+      return (Class<?>) cached;
+    }
+    int generation = CLASSES_GENERATION.get();
+    if (cached instanceof Integer && (Integer) cached == generation) {
+      return null;
+    }
+    try {
+      Class<?> loaded = Reloading.currentVersion(callerClass.getClassLoader(), className);
+      if (loaded == null) {
+        loaded = Class.forName(className, true, callerClass.getClassLoader());
+      }
+      classes.put(className, loaded);
+      return loaded;
+    } catch (ClassNotFoundException e) {
+      classes.put(className, generation);
+      return null;
+    }
+  }
+
   private static boolean isVarargsWithNames(Method method, Class<?>[] types, Object[] args, String[] argumentNames) {
     return method.isVarArgs()
       && (
@@ -242,13 +686,16 @@ public final class FunctionCallSupport {
     return handle;
   }
 
-  private static void checkLocalFunctionCallFromSameModuleAugmentation(Method method, String callerClassName) {
+  private static Method checkLocalFunctionCallFromSameModuleAugmentation(Method method, String callerClassName) {
     if (isPrivate(method.getModifiers()) && callerClassName.contains("$")) {
       String prefix = callerClassName.substring(0, callerClassName.indexOf("$"));
       if (method.getDeclaringClass().getName().equals(prefix)) {
-        method.setAccessible(true);
+        Method accessible = Extractors.copyOf(method);
+        accessible.setAccessible(true);
+        return accessible;
       }
     }
+    return method;
   }
 
   private static AccessibleObject findClassWithConstructorFromImports(Class<?> callerClass, String classname, Object[] args) {
@@ -267,16 +714,15 @@ public final class FunctionCallSupport {
 
   private static AccessibleObject findClassWithConstructor(Class<?> callerClass, String classname, Object[] args) {
     debug("looking for constructor for `%s`", classname);
-    try {
-      Class<?> targetClass = Class.forName(classname, true, callerClass.getClassLoader());
-      for (Constructor<?> constructor : targetClass.getConstructors()) {
-        if (TypeMatching.argumentsMatch(constructor, args)) {
-          debug("constructor found");
-          return checkDeprecation(callerClass, constructor);
-        }
+    Class<?> targetClass = loadClass(callerClass, classname);
+    if (targetClass == null) {
+      return null;
+    }
+    for (Constructor<?> constructor : targetClass.getConstructors()) {
+      if (TypeMatching.argumentsMatch(constructor, args)) {
+        debug("constructor found");
+        return checkDeprecation(callerClass, constructor);
       }
-    } catch (ClassNotFoundException ignored) {
-      // ignored to try the next strategy
     }
     return null;
   }
@@ -340,20 +786,18 @@ public final class FunctionCallSupport {
       String className = functionName.substring(0, methodClassSeparatorIndex);
       String methodName = functionName.substring(methodClassSeparatorIndex + 1);
       debug("looking for function `%s` in named `%s`", methodName, className);
-      try {
-        Class<?> targetClass = Class.forName(className, true, callerClass.getClassLoader());
+      Class<?> targetClass = loadClass(callerClass, className);
+      if (targetClass != null) {
         return findStaticMethodOrField(callerClass, targetClass, methodName, args);
-      } catch (ClassNotFoundException ignored) {
-        // ignored to try the next strategy
-        Warnings.unavailableClass(className, callerClass.getName());
       }
+      Warnings.unavailableClass(className, callerClass.getName());
     }
     return null;
   }
 
   private static AccessibleObject findStaticMethodOrField(Class<?> caller, Class<?> klass, String name, Object[] arguments) {
     debug("looking for function `%s` in loaded class `%s`", name, klass.getCanonicalName());
-    Optional<Method> meth = Extractors.getMethods(klass)
+    Optional<Method> meth = Extractors.getMethods(klass, name)
       .filter(m -> methodMatches(caller, name, arguments, m, m.isVarArgs()))
       .map(m -> checkDeprecation(caller, m))
       .findFirst();
@@ -362,7 +806,7 @@ public final class FunctionCallSupport {
       return meth.get();
     }
     if (arguments.length == 0) {
-      Optional<Field> f = Extractors.getFields(klass)
+      Optional<Field> f = Extractors.getFields(klass, name)
         .filter(o -> fieldMatches(name, o))
         .map(o -> checkDeprecation(caller, o))
         .findFirst();
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import gololang.FunctionReference;
+import gololang.Predefined;
+
+import java.lang.invoke.MethodHandles.Lookup;
+
+public final class FunctionReferenceSupport {
+
+  private FunctionReferenceSupport() {
+    throw new UnsupportedOperationException("Don't instantiate constant bootstrap class");
+  }
+
+  /**
+   * Bootstrap of the literal function references emitted as dynamic constants.
+   * <p>
+   * The reference is resolved as by {@link Predefined#fun(Class, Object, Object, Object, Object)}, once.
+   * It is thus not updated when the module defining the function is reloaded.
+   */
+  public static FunctionReference constant(Lookup caller, String name, Class<?> type, Class<?> module, int arity, int varargs) throws Throwable {
+    return Predefined.fun(caller.lookupClass(), name, module, arity, varargs == 1);
+  }
+}
@@ -27,6 +27,7 @@ import java.util.function.Function;
  */
 public final class Loader implements Function<String, Class<?>> {
   private final ClassLoader loader;
+  private boolean failed = false;
 
   Loader(ClassLoader loader) {
     this.loader = loader;
@@ -77,10 +78,23 @@ public final class Loader implements Function<String, Class<?>> {
     try {
       return loader.loadClass(name);
     } catch (ClassNotFoundException e) {
+      failed = true;
       return null;
     }
   }
 
+  /**
+   * Checks if this loader failed to load a class.
+   * <p>
+   * Since the class may become available later (for instance a Golo module loaded afterward), a
+   * result depending on such a failed load should not be cached.
+   *
+   * @return {@code true} if at least one class failed to load.
+   */
+  public boolean hasFailed() {
+    return failed;
+  }
+
   /**
    * Just delegate to {@link #load(java.lang.String)} to implement {@code Function}.
    *
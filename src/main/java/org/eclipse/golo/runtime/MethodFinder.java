@@ -24,6 +24,7 @@ abstract class MethodFinder {
   protected final MethodInvocation invocation;
   protected final Lookup lookup;
   protected final Class<?> callerClass;
+  private Method resolvedMethod;
 
   MethodFinder(MethodInvocation invocation, Lookup lookup) {
     this.invocation = invocation;
@@ -33,6 +34,13 @@ abstract class MethodFinder {
 
   abstract MethodHandle find();
 
+  /**
+   * Returns the method from which the last found target was created, if any.
+   */
+  Method resolvedMethod() {
+    return resolvedMethod;
+  }
+
   public MethodHandle reorderArguments(Method method, MethodHandle handle) {
     return NamedArgumentsHelper.reorderArguments(
         method.getName(),
@@ -57,6 +65,8 @@ abstract class MethodFinder {
         return Optional.empty();
       }
     }
-    return Optional.of(invocation.coerce(reorderArguments(method, target)));
+    MethodHandle handle = invocation.coerce(reorderArguments(method, target));
+    resolvedMethod = method;
+    return Optional.of(handle);
   }
 }
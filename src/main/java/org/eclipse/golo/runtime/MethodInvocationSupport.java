@@ -14,9 +14,12 @@ import gololang.DynamicObject;
 
 import java.lang.invoke.*;
 import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.WeakHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.invoke.MethodHandles.*;
 import static java.lang.invoke.MethodType.methodType;
@@ -43,8 +46,14 @@ public final class MethodInvocationSupport {
     final String[] argumentNames;
 
     int depth = 0;
+    int mergedClasses = 0;
+    boolean keptPolymorphic = false;
+    final List<GuardedTarget> chain = new ArrayList<>();
+    MethodHandle fallback;
     MethodHandle resetFallback;
-    WeakHashMap<Class<?>, MethodHandle> vtable;
+    MethodHandle vtableFallback;
+    MethodHandle nullTarget;
+    CallSiteTelemetry.Site telemetry;
 
     InlineCache(Lookup callerLookup, String name, MethodType type, boolean nullSafeGuarded, String... argumentNames) {
       super(type);
@@ -52,6 +61,7 @@ public final class MethodInvocationSupport {
       this.name = name;
       this.nullSafeGuarded = nullSafeGuarded;
       this.argumentNames = argumentNames;
+      this.fallback = getTarget();
     }
 
     boolean isMegaMorphic() {
@@ -63,10 +73,68 @@ public final class MethodInvocationSupport {
     }
   }
 
+  /*
+   * A node of the inline cache guard chain. When the target only depends on the method it was
+   * created from, the node can guard several receiver classes resolving to this same method, instead
+   * of having one node per class.
+   */
+  private static final class GuardedTarget {
+    final Method method;
+    final MethodHandle target;
+    Class<?>[] classes;
+
+    GuardedTarget(Method method, MethodHandle target, Class<?> receiverClass) {
+      this.method = method;
+      this.target = target;
+      this.classes = new Class<?>[]{receiverClass};
+    }
+
+    boolean canMerge(Resolution resolution) {
+      return method != null
+        && method.equals(resolution.method)
+        && target.type().equals(resolution.target.type());
+    }
+
+    void merge(Class<?> receiverClass) {
+      classes = Arrays.copyOf(classes, classes.length + 1);
+      classes[classes.length - 1] = receiverClass;
+    }
+
+    MethodHandle guard() {
+      if (classes.length == 1) {
+        return CLASS_GUARD.bindTo(classes[0]);
+      }
+      return CLASS_SET_GUARD.bindTo(classes);
+    }
+  }
+
+  private static final class Resolution {
+    final MethodHandle target;
+    final Method method;
+
+    Resolution(MethodHandle target, Method method) {
+      this.target = target;
+      this.method = method;
+    }
+  }
+
+  private static final AtomicInteger KEPT_POLYMORPHIC_SITES = new AtomicInteger();
+
+  /**
+   * Returns the number of call sites that saw more receiver classes than the megamorphic threshold,
+   * but stayed polymorphic since some of these classes resolved to the same target.
+   */
+  public static int keptPolymorphicSites() {
+    return KEPT_POLYMORPHIC_SITES.get();
+  }
+
+  private static final MethodHandle NULL_GUARD;
   private static final MethodHandle CLASS_GUARD;
+  private static final MethodHandle CLASS_SET_GUARD;
   private static final MethodHandle FALLBACK;
   private static final MethodHandle RESET_FALLBACK;
   private static final MethodHandle VTABLE_LOOKUP;
+  private static final MethodHandle VTABLE_FALLBACK;
 
   private static final MethodHandle OVERLOADED_GUARD_GENERIC;
   private static final MethodHandle OVERLOADED_GUARD_1;
@@ -97,11 +165,21 @@ public final class MethodInvocationSupport {
     try {
       Lookup lookup = MethodHandles.lookup();
 
+      NULL_GUARD = lookup.findStatic(
+          MethodInvocationSupport.class,
+          "nullGuard",
+          methodType(boolean.class, Object.class));
+
       CLASS_GUARD = lookup.findStatic(
           MethodInvocationSupport.class,
           "classGuard",
           methodType(boolean.class, Class.class, Object.class));
 
+      CLASS_SET_GUARD = lookup.findStatic(
+          MethodInvocationSupport.class,
+          "classSetGuard",
+          methodType(boolean.class, Class[].class, Object.class));
+
       FALLBACK = lookup.findStatic(
           MethodInvocationSupport.class,
           "fallback",
@@ -117,6 +195,11 @@ public final class MethodInvocationSupport {
           "vtableLookup",
           methodType(MethodHandle.class, InlineCache.class, Object[].class));
 
+      VTABLE_FALLBACK = lookup.findStatic(
+          MethodInvocationSupport.class,
+          "vtableFallback",
+          methodType(Object.class, InlineCache.class, Object[].class));
+
       OVERLOADED_GUARD_GENERIC = lookup.findStatic(
           MethodInvocationSupport.class,
           "overloadedGuard_generic",
@@ -154,22 +237,42 @@ public final class MethodInvocationSupport {
       argumentNames[i] = (String) bsmArgs[i + 1];
     }
     InlineCache callSite = new InlineCache(caller, name, type, nullSafeGuarded, argumentNames);
+    callSite.telemetry = CallSiteTelemetry.register(CallSiteTelemetry.Kind.METHOD, caller, name);
     MethodHandle fallbackHandle = FALLBACK
         .bindTo(callSite)
         .asCollector(Object[].class, type.parameterCount())
         .asType(type);
+    callSite.fallback = fallbackHandle;
     callSite.resetFallback = RESET_FALLBACK
         .bindTo(callSite)
         .asCollector(Object[].class, type.parameterCount())
         .asType(type);
+    if (nullSafeGuarded) {
+      callSite.nullTarget = dropArguments(constant(Object.class, null), 0, type.parameterList()).asType(type);
+      fallbackHandle = makeNullSafeGuarded(callSite, fallbackHandle);
+    }
     callSite.setTarget(fallbackHandle);
     return callSite;
   }
 
+  public static boolean nullGuard(Object receiver) {
+    return receiver == null;
+  }
+
   public static boolean classGuard(Class<?> expected, Object receiver) {
     return receiver.getClass() == expected;
   }
 
+  public static boolean classSetGuard(Class<?>[] expected, Object receiver) {
+    Class<?> receiverClass = receiver.getClass();
+    for (Class<?> type : expected) {
+      if (type == receiverClass) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public static boolean overloadedGuard_generic(Class<?>[] types, Object[] arguments) {
     if (arguments[0].getClass() != types[0]) {
       return false;
@@ -210,28 +313,71 @@ public final class MethodInvocationSupport {
 
   public static MethodHandle vtableLookup(InlineCache inlineCache, Object[] args) {
     Class<?> receiverClass = args[0].getClass();
-    return inlineCache.vtable.computeIfAbsent(receiverClass, k -> lookupTarget(receiverClass, inlineCache, args));
+    MethodHandle target;
+    if (isSharable(inlineCache, args[0])) {
+      target = DispatchTable.get(
+          inlineCache.callerLookup.lookupClass(),
+          receiverClass,
+          new DispatchTable.Key(inlineCache.name, inlineCache.type(), inlineCache.argumentNames),
+          () -> lookupTarget(receiverClass, inlineCache, args, inlineCache.vtableFallback));
+    } else {
+      target = lookupTarget(receiverClass, inlineCache, args, inlineCache.vtableFallback);
+    }
+    if (target == null) {
+      throw new NoSuchMethodError(receiverClass + "::" + inlineCache.name);
+    }
+    return target;
   }
 
-  private static MethodHandle lookupTarget(Class<?> receiverClass, InlineCache inlineCache, Object[] args) {
+  /*
+   * Targets stored in the shared dispatch table must only depend on the receiver class. Overloaded
+   * targets are guarded on the arguments types, and fall back here instead of resetting the call site
+   * that happened to resolve them first.
+   */
+  public static Object vtableFallback(InlineCache inlineCache, Object[] args) throws Throwable {
+    CallSiteTelemetry.fallback(inlineCache.telemetry);
+    long start = CallSiteTelemetry.start(inlineCache.telemetry);
+    MethodHandle target = lookupTarget(args[0].getClass(), inlineCache, args, inlineCache.vtableFallback);
+    CallSiteTelemetry.resolved(inlineCache.telemetry, start);
+    if (target == null) {
+      throw new NoSuchMethodError(args[0].getClass() + "::" + inlineCache.name);
+    }
+    return target.invokeWithArguments(args);
+  }
+
+  private static boolean isSharable(InlineCache inlineCache, Object receiver) {
+    // the `toString` resolution on a dynamic object depends on the instance
+    return !(receiver instanceof DynamicObject && "toString".equals(inlineCache.name));
+  }
+
+  private static MethodHandle lookupTarget(Class<?> receiverClass, InlineCache inlineCache, Object[] args, MethodHandle overloadFallback) {
+    return resolve(receiverClass, inlineCache, args, overloadFallback).target;
+  }
+
+  private static Resolution resolve(Class<?> receiverClass, InlineCache inlineCache, Object[] args, MethodHandle overloadFallback) {
     MethodInvocation invocation = inlineCache.toMethodInvocation(args);
     if (receiverClass.isArray()) {
-      return new ArrayMethodFinder(invocation, inlineCache.callerLookup).find();
+      return new Resolution(new ArrayMethodFinder(invocation, inlineCache.callerLookup).find(), null);
     }
     if (isCallOnDynamicObject(inlineCache, args[0])) {
       DynamicObject dynamicObject = (DynamicObject) args[0];
-      return dynamicObject.invoker(inlineCache.name, inlineCache.type());
+      return new Resolution(dynamicObject.invoker(inlineCache.name, inlineCache.type()), null);
     } else {
-      return findTarget(invocation, inlineCache);
+      return findTarget(invocation, inlineCache, overloadFallback);
     }
   }
 
   public static Object resetFallback(InlineCache inlineCache, Object[] args) throws Throwable {
-    inlineCache.depth = 0;
+    synchronized (inlineCache) {
+      inlineCache.depth = 0;
+      inlineCache.mergedClasses = 0;
+      inlineCache.chain.clear();
+    }
     return fallback(inlineCache, args);
   }
 
   public static Object fallback(InlineCache inlineCache, Object[] args) throws Throwable {
+    CallSiteTelemetry.fallback(inlineCache.telemetry);
 
     if (inlineCache.isMegaMorphic()) {
       return installVTableDispatch(inlineCache, args);
@@ -247,7 +393,10 @@ public final class MethodInvocationSupport {
     }
 
     Class<?> receiverClass = args[0].getClass();
-    MethodHandle target = lookupTarget(receiverClass, inlineCache, args);
+    long start = CallSiteTelemetry.start(inlineCache.telemetry);
+    Resolution resolution = resolve(receiverClass, inlineCache, args, inlineCache.resetFallback);
+    CallSiteTelemetry.resolved(inlineCache.telemetry, start);
+    MethodHandle target = resolution.target;
 
     if (target == null) {
       // TODO: extract method to look for a `fallback` method on the receiver
@@ -261,7 +410,7 @@ public final class MethodInvocationSupport {
         inlineCache.name,
         Arrays.copyOfRange(args, 1, args.length)
       };
-      target = lookupTarget(receiverClass, fallbackCallSite, fallbackArgs);
+      target = lookupTarget(receiverClass, fallbackCallSite, fallbackArgs, null);
       if (target != null) {
         return fallback(fallbackCallSite, fallbackArgs);
       } else {
@@ -269,30 +418,63 @@ public final class MethodInvocationSupport {
       }
     }
 
-    MethodHandle guard = CLASS_GUARD.bindTo(receiverClass);
-    MethodHandle fallback = inlineCache.getTarget();
-    MethodHandle root = guardWithTest(guard, target, fallback);
-    if (inlineCache.nullSafeGuarded) {
-      root = makeNullSafeGuarded(root);
+    synchronized (inlineCache) {
+      if (!mergeGuard(inlineCache, receiverClass, resolution)) {
+        inlineCache.chain.add(new GuardedTarget(resolution.method, target, receiverClass));
+        inlineCache.depth += 1;
+      }
+      inlineCache.setTarget(guardChain(inlineCache));
+      CallSiteTelemetry.relinked(inlineCache.telemetry, inlineCache.depth);
     }
-    inlineCache.setTarget(root);
-    inlineCache.depth += 1;
     return target.invokeWithArguments(args);
   }
 
-  private static MethodHandle makeNullSafeGuarded(MethodHandle root) {
-    MethodHandle catchThenNull = dropArguments(constant(Object.class, null), 0, NullPointerException.class);
-    root = catchException(root, NullPointerException.class, catchThenNull);
+  private static boolean mergeGuard(InlineCache inlineCache, Class<?> receiverClass, Resolution resolution) {
+    for (GuardedTarget node : inlineCache.chain) {
+      if (node.canMerge(resolution)) {
+        node.merge(receiverClass);
+        inlineCache.mergedClasses += 1;
+        if (!inlineCache.keptPolymorphic
+            && inlineCache.depth + inlineCache.mergedClasses > InlineCache.MEGAMORPHIC_THRESHOLD) {
+          inlineCache.keptPolymorphic = true;
+          KEPT_POLYMORPHIC_SITES.incrementAndGet();
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static MethodHandle guardChain(InlineCache inlineCache) {
+    MethodHandle root = inlineCache.fallback;
+    for (GuardedTarget node : inlineCache.chain) {
+      root = guardWithTest(node.guard(), node.target, root);
+    }
+    if (inlineCache.nullSafeGuarded) {
+      root = makeNullSafeGuarded(inlineCache, root);
+    }
     return root;
   }
 
+  /*
+   * The null test is done on the receiver in front of the guard chain, such that the class guards
+   * never see a null receiver. Exceptions thrown by the target itself are propagated.
+   */
+  private static MethodHandle makeNullSafeGuarded(InlineCache inlineCache, MethodHandle root) {
+    MethodHandle guard = NULL_GUARD.asType(methodType(boolean.class, inlineCache.type().parameterType(0)));
+    return guardWithTest(guard, inlineCache.nullTarget, root);
+  }
+
   private static boolean shouldReturnNull(InlineCache inlineCache, Object arg) {
     return (arg == null) && inlineCache.nullSafeGuarded;
   }
 
   private static Object installVTableDispatch(InlineCache inlineCache, Object[] args) throws Throwable {
-    if (inlineCache.vtable == null) {
-      inlineCache.vtable = new WeakHashMap<>();
+    if (inlineCache.vtableFallback == null) {
+      inlineCache.vtableFallback = VTABLE_FALLBACK
+          .bindTo(inlineCache)
+          .asCollector(Object[].class, args.length)
+          .asType(inlineCache.type());
     }
     MethodHandle lookup = VTABLE_LOOKUP
         .bindTo(inlineCache)
@@ -300,9 +482,10 @@ public final class MethodInvocationSupport {
     MethodHandle exactInvoker = exactInvoker(inlineCache.type());
     MethodHandle vtableTarget = foldArguments(exactInvoker, lookup);
     if (inlineCache.nullSafeGuarded) {
-      vtableTarget = makeNullSafeGuarded(vtableTarget);
+      vtableTarget = makeNullSafeGuarded(inlineCache, vtableTarget);
     }
     inlineCache.setTarget(vtableTarget);
+    CallSiteTelemetry.megamorphic(inlineCache.telemetry);
     if (shouldReturnNull(inlineCache, args[0])) {
       return null;
     }
@@ -315,7 +498,7 @@ public final class MethodInvocationSupport {
       && (!"toString".equals(inlineCache.name) || ((DynamicObject) arg).hasMethod("toString"));
   }
 
-  private static MethodHandle guardOnOverloaded(MethodHandle target, MethodInvocation invocation, MethodHandle reset) {
+  private static MethodHandle guardOnOverloaded(MethodHandle target, MethodInvocation invocation, MethodHandle fallback) {
     Object[] args = invocation.arguments();
     Class<?>[] types = new Class<?>[args.length];
     for (int i = 0; i < types.length; i++) {
@@ -338,10 +521,19 @@ public final class MethodInvocationSupport {
       default:
         guard = OVERLOADED_GUARD_GENERIC.bindTo(types).asCollector(Object[].class, types.length);
     }
-    return guardWithTest(guard, target, reset);
+    return guardWithTest(guard, target, fallback);
+  }
+
+  /*
+   * Only targets created from a fixed arity method can be shared between receiver classes: the
+   * coercion of a variable arity method depends on the call arguments.
+   */
+  private static Method mergeableMethod(MethodFinder finder) {
+    Method method = finder.resolvedMethod();
+    return (method == null || method.isVarArgs()) ? null : method;
   }
 
-  private static MethodHandle findTarget(MethodInvocation invocation, InlineCache inlineCache) {
+  private static Resolution findTarget(MethodInvocation invocation, InlineCache inlineCache, MethodHandle overloadFallback) {
     MethodHandle target;
     Lookup lookup = inlineCache.callerLookup;
 
@@ -349,20 +541,23 @@ public final class MethodInvocationSupport {
     target = regularMethodFinder.find();
     if (target != null) {
       if (regularMethodFinder.isOverloaded()) {
-        return guardOnOverloaded(target, invocation, inlineCache.resetFallback);
+        return new Resolution(guardOnOverloaded(target, invocation, overloadFallback), null);
       }
-      return target;
+      return new Resolution(target, mergeableMethod(regularMethodFinder));
     }
 
     target = new PropertyMethodFinder(invocation, lookup).find();
     if (target != null) {
-      return target;
+      return new Resolution(target, null);
     }
 
-    target = new AugmentationMethodFinder(invocation, lookup).find();
+    AugmentationMethodFinder augmentationMethodFinder = new AugmentationMethodFinder(invocation, lookup);
+    target = augmentationMethodFinder.find();
     if (target != null) {
-      return target;
+      target = Reloading.guard(lookup.lookupClass(),
+          augmentationMethodFinder.resolvedMethod().getDeclaringClass(), target, overloadFallback);
+      return new Resolution(target, mergeableMethod(augmentationMethodFinder));
     }
-    return null;
+    return new Resolution(null, null);
   }
 }
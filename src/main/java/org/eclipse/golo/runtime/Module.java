@@ -12,11 +12,50 @@ package org.eclipse.golo.runtime;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Access to the metadata of a Golo module.
+ * <p>
+ * The metadata are read from the synthetic methods generated in the module class, once per class: the
+ * parsed values are cached in a {@code ClassValue}. The returned arrays are thus shared and must not
+ * be modified.
+ */
 public final class Module {
 
   private static final Class<?>[] EMPTY_TYPES = new Class<?>[]{};
   private static final Object[] EMPTY_ARGS = {};
+  private static final String[] NO_DATA = new String[]{};
+
+  private static final class Metadata {
+    final String[] imports;
+    final String[] augmentations;
+    final String[] augmentationApplications;
+    final Map<Integer, String[]> applicationsByTarget = new HashMap<>();
+
+    Metadata(Class<?> moduleClass) {
+      imports = metadata("imports", moduleClass, EMPTY_TYPES, EMPTY_ARGS);
+      augmentations = metadata("augmentations", moduleClass, EMPTY_TYPES, EMPTY_ARGS);
+      augmentationApplications = metadata("augmentationApplications", moduleClass, EMPTY_TYPES, EMPTY_ARGS);
+      for (String target : augmentationApplications) {
+        applicationsByTarget.put(target.hashCode(), metadata("augmentationApplications", moduleClass,
+            new Class<?>[] {int.class},
+            new Object[]{target.hashCode()}));
+      }
+    }
+
+    String[] applicationsFor(Class<?> receiverClass) {
+      return applicationsByTarget.getOrDefault(receiverClass.getName().hashCode(), NO_DATA);
+    }
+  }
+
+  private static final ClassValue<Metadata> METADATA = new ClassValue<Metadata>() {
+    @Override
+    protected Metadata computeValue(Class<?> moduleClass) {
+      return new Metadata(moduleClass);
+    }
+  };
 
   private Module() {
     throw new UnsupportedOperationException("Don't instantiate utility classes");
@@ -30,27 +69,24 @@ public final class Module {
     } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
       // This can only happen as part of the unit tests, because the lookup does not originate from
       // a Golo module class, hence it doesn't have a $<name>() static method.
-      data = new String[]{};
+      data = NO_DATA;
     }
     return data;
   }
 
   public static String[] imports(Class<?> callerClass) {
-    return metadata("imports", callerClass, EMPTY_TYPES, EMPTY_ARGS);
+    return METADATA.get(callerClass).imports;
   }
 
   public static String[] augmentations(Class<?> callerClass) {
-    return metadata("augmentations", callerClass, EMPTY_TYPES, EMPTY_ARGS);
+    return METADATA.get(callerClass).augmentations;
   }
 
   public static String[] augmentationApplications(Class<?> callerClass) {
-    return metadata("augmentationApplications", callerClass, EMPTY_TYPES, EMPTY_ARGS);
+    return METADATA.get(callerClass).augmentationApplications;
   }
 
   public static String[] augmentationApplications(Class<?> callerClass, Class<?> receiverClass) {
-    return metadata("augmentationApplications", callerClass,
-        new Class<?>[] {int.class},
-        new Object[]{receiverClass.getName().hashCode()}
-    );
+    return METADATA.get(callerClass).applicationsFor(receiverClass);
   }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import java.lang.invoke.SwitchPoint;
+
+/**
+ * Class loaders whose classes can be redefined.
+ * <p>
+ * Since the JVM binds a class name to a single class for a given loader, a redefined class is a new
+ * class with the same name, and looking up a name must go through {@link #currentVersion(String)}
+ * before the usual class loading. The call sites that resolved a target into a redefined class are
+ * linked behind its {@link #switchPoint(Class) switch point}, which is invalidated when the class is
+ * redefined, such that they relink lazily to the new version.
+ *
+ * @see org.eclipse.golo.compiler.GoloClassLoader#reload(java.util.List)
+ */
+public interface ModuleVersions {
+
+  /**
+   * Returns the current version of a class.
+   *
+   * @param className the binary name of the class.
+   * @return the last defined version of the class, or {@code null} if it was never redefined.
+   */
+  Class<?> currentVersion(String className);
+
+  /**
+   * Returns the switch point invalidated when a class defined by this loader is redefined.
+   *
+   * @param definedClass a class defined by this loader.
+   * @return the switch point of the class, or {@code null} if the class was already redefined or can't be redefined.
+   */
+  SwitchPoint switchPoint(Class<?> definedClass);
+}
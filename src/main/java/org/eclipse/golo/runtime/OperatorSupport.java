@@ -15,10 +15,12 @@ import java.lang.invoke.MethodHandles.Lookup;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import static java.lang.invoke.MethodHandles.*;
+import static java.lang.invoke.MethodType.genericMethodType;
 import static java.lang.invoke.MethodType.methodType;
 import static gololang.Messages.message;
 
@@ -28,23 +30,108 @@ public final class OperatorSupport {
     throw new UnsupportedOperationException("Don't instantiate invokedynamic bootstrap class");
   }
 
-  static class MonomorphicInlineCache extends MutableCallSite {
+  static class InlineCache extends MutableCallSite {
+
+    static final int MEGAMORPHIC_THRESHOLD = 5;
 
     final Lookup callerLookup;
     final String name;
+    final OperatorTable table;
     MethodHandle fallback;
+    int depth = 0;
+    CallSiteTelemetry.Site telemetry;
 
-    MonomorphicInlineCache(Lookup callerLookup, String name, MethodType type) {
+    InlineCache(Lookup callerLookup, String name, MethodType type) {
       super(type);
       this.callerLookup = callerLookup;
       this.name = name;
+      this.table = OperatorTable.of(name);
+    }
+
+    boolean isMegaMorphic() {
+      return depth > MEGAMORPHIC_THRESHOLD;
+    }
+  }
+
+  /**
+   * Binary operator targets, indexed by the classes of the operands.
+   * <p>
+   * The table of an operator is shared by all its call sites. It is used to resolve the targets of the
+   * polymorphic inline caches, and for the dispatch of the megamorphic ones.
+   */
+  static final class OperatorTable {
+
+    private static final ConcurrentHashMap<String, OperatorTable> TABLES = new ConcurrentHashMap<>();
+
+    final String name;
+    final MethodHandle rejection;
+    private final ClassValue<ConcurrentHashMap<Class<?>, MethodHandle>> targets =
+      new ClassValue<ConcurrentHashMap<Class<?>, MethodHandle>>() {
+        @Override
+        protected ConcurrentHashMap<Class<?>, MethodHandle> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+    private OperatorTable(String name) {
+      this.name = name;
+      this.rejection = insertArguments(REJECT_2, 2, name);
+    }
+
+    static OperatorTable of(String name) {
+      OperatorTable table = TABLES.get(name);
+      if (table == null) {
+        table = new OperatorTable(name);
+        OperatorTable existing = TABLES.putIfAbsent(name, table);
+        if (existing != null) {
+          return existing;
+        }
+      }
+      return table;
+    }
+
+    /**
+     * Returns the target of the operator for the given operand classes, typed as {@code (Object,Object)Object}.
+     */
+    MethodHandle get(Class<?> arg1Class, Class<?> arg2Class) {
+      ConcurrentHashMap<Class<?>, MethodHandle> row = targets.get(arg1Class);
+      MethodHandle target = row.get(arg2Class);
+      if (target == null) {
+        target = resolve(arg1Class, arg2Class);
+        MethodHandle existing = row.putIfAbsent(arg2Class, target);
+        if (existing != null) {
+          return existing;
+        }
+      }
+      return target;
+    }
+
+    private MethodHandle resolve(Class<?> arg1Class, Class<?> arg2Class) {
+      MethodHandle target;
+      try {
+        target = LOOKUP.findStatic(
+            OperatorSupport.class, name, methodType(Object.class, arg1Class, arg2Class));
+      } catch (NoSuchMethodException | IllegalAccessException e1) {
+        try {
+          target = LOOKUP.findStatic(
+              OperatorSupport.class, name + "_fallback", methodType(Object.class, Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e2) {
+          return rejection;
+        }
+      }
+      return target.asType(genericMethodType(2));
     }
   }
 
+  private static final Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodHandle GUARD_1;
   private static final MethodHandle FALLBACK_1;
 
   private static final MethodHandle GUARD_2;
   private static final MethodHandle FALLBACK_2;
+  private static final MethodHandle DISPATCH_2;
+  private static final MethodHandle REJECT_2;
 
   private static final Set<String> NO_GUARD_OPERATORS = new HashSet<String>() {
     {
@@ -56,36 +143,57 @@ public final class OperatorSupport {
 
   static {
     try {
-      Lookup lookup = MethodHandles.lookup();
+      GUARD_1 = LOOKUP.findStatic(
+          OperatorSupport.class,
+          "guard_1",
+          methodType(boolean.class, Class.class, Object.class));
 
-      FALLBACK_1 = lookup.findStatic(
+      FALLBACK_1 = LOOKUP.findStatic(
           OperatorSupport.class,
           "fallback_1",
-          methodType(Object.class, MonomorphicInlineCache.class, Object[].class));
+          methodType(Object.class, InlineCache.class, Object[].class));
 
-      GUARD_2 = lookup.findStatic(
+      GUARD_2 = LOOKUP.findStatic(
           OperatorSupport.class,
           "guard_2",
           methodType(boolean.class, Class.class, Class.class, Object.class, Object.class));
 
-      FALLBACK_2 = lookup.findStatic(
+      FALLBACK_2 = LOOKUP.findStatic(
           OperatorSupport.class,
           "fallback_2",
-          methodType(Object.class, MonomorphicInlineCache.class, Object[].class));
+          methodType(Object.class, InlineCache.class, Object[].class));
+
+      DISPATCH_2 = LOOKUP.findStatic(
+          OperatorSupport.class,
+          "dispatch_2",
+          methodType(Object.class, OperatorTable.class, Object.class, Object.class));
+
+      REJECT_2 = LOOKUP.findStatic(
+          OperatorSupport.class,
+          "reject",
+          methodType(Object.class, Object.class, Object.class, String.class));
     } catch (NoSuchMethodException | IllegalAccessException e) {
       throw new Error("Could not bootstrap the required method handles", e);
     }
   }
 
+  private static Class<?> classOf(Object arg) {
+    return (arg == null) ? Object.class : arg.getClass();
+  }
+
+  public static boolean guard_1(Class<?> expected, Object arg) {
+    return classOf(arg) == expected;
+  }
+
   public static boolean guard_2(Class<?> expected1, Class<?> expected2, Object arg1, Object arg2) {
-    Class<?> t1 = (arg1 == null) ? Object.class : arg1.getClass();
-    Class<?> t2 = (arg2 == null) ? Object.class : arg2.getClass();
-    return (t1 == expected1) && (t2 == expected2);
+    return (classOf(arg1) == expected1) && (classOf(arg2) == expected2);
   }
 
-  public static Object fallback_1(MonomorphicInlineCache inlineCache, Object[] args) throws Throwable {
+  public static Object fallback_1(InlineCache inlineCache, Object[] args) throws Throwable {
+    CallSiteTelemetry.fallback(inlineCache.telemetry);
 
-    Class<?> argClass = (args[0] == null) ? Object.class : args[0].getClass();
+    long start = CallSiteTelemetry.start(inlineCache.telemetry);
+    Class<?> argClass = classOf(args[0]);
     MethodHandle target;
 
     try {
@@ -100,52 +208,57 @@ public final class OperatorSupport {
       }
     }
 
-    target = target.asType(methodType(Object.class, Object.class));
-    target = catchException(target, ClassCastException.class, inlineCache.fallback);
-    inlineCache.setTarget(target);
+    CallSiteTelemetry.resolved(inlineCache.telemetry, start);
+    target = target.asType(inlineCache.type());
+    MethodHandle guard = insertArguments(GUARD_1, 0, argClass)
+      .asType(inlineCache.type().changeReturnType(boolean.class));
+    inlineCache.setTarget(guardWithTest(guard, target, inlineCache.fallback));
+    CallSiteTelemetry.relinked(inlineCache.telemetry, 1);
 
     return target.invokeWithArguments(args);
   }
 
-  public static Object fallback_2(MonomorphicInlineCache inlineCache, Object[] args) throws Throwable {
+  public static Object fallback_2(InlineCache inlineCache, Object[] args) throws Throwable {
+    CallSiteTelemetry.fallback(inlineCache.telemetry);
 
-    Class<?> arg1Class = (args[0] == null) ? Object.class : args[0].getClass();
-    Class<?> arg2Class = (args[1] == null) ? Object.class : args[1].getClass();
-    MethodHandle target;
+    long start = CallSiteTelemetry.start(inlineCache.telemetry);
+    Class<?> arg1Class = classOf(args[0]);
+    Class<?> arg2Class = classOf(args[1]);
+    MethodHandle target = inlineCache.table.get(arg1Class, arg2Class);
+    CallSiteTelemetry.resolved(inlineCache.telemetry, start);
 
-    try {
-      target = inlineCache.callerLookup.findStatic(
-          OperatorSupport.class, inlineCache.name, methodType(Object.class, arg1Class, arg2Class));
-    } catch (Throwable t1) {
-      try {
-        target = inlineCache.callerLookup.findStatic(
-            OperatorSupport.class, inlineCache.name + "_fallback", methodType(Object.class, Object.class, Object.class));
-      } catch (Throwable t2) {
-        return reject(args[0], args[1], inlineCache.name);
-      }
+    if (target == inlineCache.table.rejection) {
+      return reject(args[0], args[1], inlineCache.name);
     }
 
-    target = target.asType(methodType(Object.class, Object.class, Object.class));
-    if (arg1Class == String.class || arg2Class == String.class) {
-      MethodHandle guard = insertArguments(GUARD_2, 0, arg1Class, arg2Class);
-      target = guardWithTest(guard, target, inlineCache.fallback);
+    inlineCache.depth = inlineCache.depth + 1;
+    if (inlineCache.isMegaMorphic()) {
+      inlineCache.setTarget(DISPATCH_2.bindTo(inlineCache.table).asType(inlineCache.type()));
+      CallSiteTelemetry.megamorphic(inlineCache.telemetry);
     } else {
-      target = catchException(target, ClassCastException.class, dropArguments(inlineCache.fallback, 0, ClassCastException.class));
+      MethodHandle guard = insertArguments(GUARD_2, 0, arg1Class, arg2Class)
+        .asType(inlineCache.type().changeReturnType(boolean.class));
+      inlineCache.setTarget(guardWithTest(guard, target.asType(inlineCache.type()), inlineCache.getTarget()));
+      CallSiteTelemetry.relinked(inlineCache.telemetry, inlineCache.depth);
     }
-    inlineCache.setTarget(target);
 
     return target.invokeWithArguments(args);
   }
 
+  public static Object dispatch_2(OperatorTable table, Object arg1, Object arg2) throws Throwable {
+    return (Object) table.get(classOf(arg1), classOf(arg2)).invokeExact(arg1, arg2);
+  }
+
   public static CallSite bootstrap(Lookup caller, String name, MethodType type, int arity) throws NoSuchMethodException, IllegalAccessException {
 
     if (NO_GUARD_OPERATORS.contains(name)) {
       MethodHandle target = caller.findStatic(OperatorSupport.class, name + "_noguard",
           methodType(Object.class, Object.class, Object.class));
-      return new ConstantCallSite(target);
+      return new ConstantCallSite(target.asType(type));
     }
 
-    MonomorphicInlineCache callSite = new MonomorphicInlineCache(caller, name, type);
+    InlineCache callSite = new InlineCache(caller, name, type);
+    callSite.telemetry = CallSiteTelemetry.register(CallSiteTelemetry.Kind.OPERATOR, caller, name);
     MethodHandle fallback;
     if (arity == 2) {
       fallback = FALLBACK_2;
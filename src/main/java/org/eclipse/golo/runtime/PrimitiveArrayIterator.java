@@ -10,6 +10,7 @@
 
 package org.eclipse.golo.runtime;
 
+import java.lang.reflect.Array;
 import java.util.Iterator;
 
 public class PrimitiveArrayIterator implements Iterator<Object> {
@@ -25,6 +26,17 @@ public class PrimitiveArrayIterator implements Iterator<Object> {
     }
   }
 
+  /**
+   * Iterates over the boxed elements of an array of primitive values.
+   */
+  public static PrimitiveArrayIterator boxing(Object array) {
+    Object[] values = new Object[Array.getLength(array)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = Array.get(array, i);
+    }
+    return new PrimitiveArrayIterator(values);
+  }
+
   @Override
   public boolean hasNext() {
     return position < array.length;
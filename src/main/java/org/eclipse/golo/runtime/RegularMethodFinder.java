@@ -42,21 +42,14 @@ class RegularMethodFinder extends MethodFinder {
   }
 
   public boolean isOverloaded() {
-    return Extractors.getMethods(invocation.receiverClass())
-        .filter(this::overloadMatch)
-        .count() > 1;
+    return Extractors.isOverloaded(invocation.receiverClass(), invocation.name(), invocation.arity() - 1);
   }
 
-  private boolean overloadMatch(Method m) {
-    return Extractors.isPublic(m)
-      && Extractors.isConcrete(m)
-      && m.getName().equals(invocation.name())
-      && (m.getParameterCount() + 1 == invocation.arity())
-      || (m.isVarArgs() && (m.getParameterCount() <= invocation.arity()));
-  }
-
-  private Optional<MethodHandle> toMethodHandle(Field field) {
+  private Optional<MethodHandle> toMethodHandle(Field member) {
+    Field field = member;
     if (makeAccessible) {
+      // the field instance is shared, see Extractors#copyOf
+      field = Extractors.copyOf(member);
       field.setAccessible(true);
     }
     try {
@@ -80,10 +73,13 @@ class RegularMethodFinder extends MethodFinder {
 
   @Override
   protected Optional<MethodHandle> toMethodHandle(Method method) {
+    Method target = method;
     if (makeAccessible || isValidPrivateStructAccess(method)) {
-      method.setAccessible(true);
+      // the method instance is shared, see Extractors#copyOf
+      target = Extractors.copyOf(method);
+      target.setAccessible(true);
     }
-    return super.toMethodHandle(method).map(
+    return super.toMethodHandle(target).map(
       handle -> FunctionCallSupport.insertSAMFilter(handle, lookup, method.getParameterTypes(), 1));
   }
 
@@ -107,7 +103,7 @@ class RegularMethodFinder extends MethodFinder {
   }
 
   protected Stream<Method> findInMethods() {
-    return Extractors.getMethods(invocation.receiverClass())
+    return Extractors.getMethods(invocation.receiverClass(), invocation.name())
         .filter(m -> invocation.match(m) || isValidPrivateStructAccess(m));
   }
 
@@ -115,12 +111,8 @@ class RegularMethodFinder extends MethodFinder {
     if (invocation.arity() > 3) {
       return Stream.empty();
     }
-    return Extractors.getFields(invocation.receiverClass())
-        .filter(this::isMatchingField);
-  }
-
-  private boolean isMatchingField(Field field) {
-    return field.getName().equals(invocation.name()) && !isStatic(field.getModifiers());
+    return Extractors.getFields(invocation.receiverClass(), invocation.name())
+        .filter(field -> !isStatic(field.getModifiers()));
   }
 
   private Field checkDeprecation(Field field) {
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.SwitchPoint;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Support for the redefinition of classes by {@link ModuleVersions} class loaders.
+ * <p>
+ * Targets resolved into a class that can be redefined are guarded by the switch point of this class.
+ * The other targets, and the calls of a module to its own functions, are linked as is.
+ * <p>
+ * The resolution caches shared by several call sites are dropped after a redefinition, which is
+ * tracked by a global generation counter.
+ */
+public final class Reloading {
+
+  private static final AtomicInteger GENERATION = new AtomicInteger();
+
+  private Reloading() {
+    throw new UnsupportedOperationException("Don't instantiate utility classes");
+  }
+
+  /**
+   * Signals that classes were redefined.
+   */
+  public static void classesRedefined() {
+    GENERATION.incrementAndGet();
+    FunctionCallSupport.classesDefined();
+  }
+
+  static int generation() {
+    return GENERATION.get();
+  }
+
+  /**
+   * Returns the current version of a class for the given loader, or {@code null} if the class was
+   * never redefined.
+   */
+  static Class<?> currentVersion(ClassLoader loader, String className) {
+    if (loader instanceof ModuleVersions) {
+      return ((ModuleVersions) loader).currentVersion(className);
+    }
+    return null;
+  }
+
+  /**
+   * Tells if a class is the current version of its name.
+   */
+  static boolean isCurrent(Class<?> klass) {
+    ClassLoader loader = klass.getClassLoader();
+    if (loader instanceof ModuleVersions) {
+      Class<?> current = ((ModuleVersions) loader).currentVersion(klass.getName());
+      return current == null || current == klass;
+    }
+    return true;
+  }
+
+  /**
+   * Guards a target resolved into a class with the switch point of this class.
+   *
+   * @param callerClass the class of the call site.
+   * @param targetClass the class defining the target.
+   * @param target the resolved target.
+   * @param fallback the handle to invoke once the target class is redefined.
+   * @return the guarded target, or the target itself if it does not need a guard.
+   */
+  static MethodHandle guard(Class<?> callerClass, Class<?> targetClass, MethodHandle target, MethodHandle fallback) {
+    SwitchPoint switchPoint = switchPoint(callerClass, targetClass);
+    if (switchPoint == null || fallback == null) {
+      return target;
+    }
+    return switchPoint.guardWithTest(target, fallback);
+  }
+
+  /**
+   * Returns the switch point guarding targets resolved into a class, or {@code null} if they need no
+   * guard.
+   * <p>
+   * A module keeps calling its own functions, even once redefined.
+   */
+  static SwitchPoint switchPoint(Class<?> callerClass, Class<?> targetClass) {
+    if (targetClass == callerClass) {
+      return null;
+    }
+    ClassLoader loader = targetClass.getClassLoader();
+    if (loader instanceof ModuleVersions) {
+      return ((ModuleVersions) loader).switchPoint(targetClass);
+    }
+    return null;
+  }
+}
@@ -64,4 +64,8 @@ public final class Warnings {
       }
     }
   }
+
+  public static void telemetryUnavailable(Exception e) {
+    warning(message("telemetry_unavailable", e.getMessage()));
+  }
 }
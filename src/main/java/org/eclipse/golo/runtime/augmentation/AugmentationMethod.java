@@ -34,6 +34,19 @@ public final class AugmentationMethod implements Comparable<AugmentationMethod>
     return method;
   }
 
+  /**
+   * Checks if no other augmentation method can have priority over this one for the given receiver type.
+   * <p>
+   * This is the case for a fixed arity method directly defined in a local augmentation of the
+   * receiver type itself.
+   */
+  public boolean isPreferredFor(Class<?> receiverType) {
+    return target.equals(receiverType)
+      && scope == DefiningModule.Scope.LOCAL
+      && kind == AugmentationApplication.Kind.SIMPLE
+      && !method.isVarArgs();
+  }
+
   @Override
   public String toString() {
     return String.format("AugmentationMethod<%s,%s,%s,%s>",
@@ -11,6 +11,7 @@
 package gololang;
 
 import org.eclipse.golo.compiler.GoloCompilationException;
+import org.eclipse.golo.runtime.CallSiteTelemetry;
 import org.testng.TestNGException;
 import org.testng.annotations.Test;
 
@@ -139,4 +140,128 @@ public class EvaluationEnvironmentTest {
       assertThat(e.getSourceCode(), both(containsString("boom")).and(containsString("module anonymous")));
     }
   }
+
+  @Test
+  public void cached_snippets() throws Throwable {
+    EvaluationEnvironment env = new EvaluationEnvironment();
+    FunctionReference first = (FunctionReference) env.asFunction("return a + b", "a", "b");
+    FunctionReference second = (FunctionReference) env.asFunction("return a + b", "a", "b");
+    assertThat(env.cacheMisses(), is(1L));
+    assertThat(env.cacheHits(), is(1L));
+    assertThat(second.handle(), sameInstance(first.handle()));
+    assertThat((Integer) second.invoke(1, 2), is(3));
+
+    env.asFunction("return a + b", "b", "a");
+    env.imports("java.lang.Math").asFunction("return a + b", "a", "b");
+    assertThat(env.cacheMisses(), is(3L));
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(env.run("return 42"), is((Object) 42));
+    }
+    assertThat(env.cacheMisses(), is(4L));
+    assertThat(env.cacheHits(), is(3L));
+    assertThat(env.cacheEvictions(), is(0L));
+  }
+
+  @Test
+  public void evicted_snippets() throws Throwable {
+    EvaluationEnvironment env = new EvaluationEnvironment().cacheSize(2);
+    env.run("return 1");
+    env.run("return 2");
+    env.run("return 1");
+    env.run("return 3");
+    assertThat(env.cacheEvictions(), is(1L));
+    env.run("return 1");
+    assertThat(env.cacheHits(), is(2L));
+    env.run("return 2");
+    assertThat(env.cacheMisses(), is(4L));
+
+    env.cacheSize(0);
+    assertThat(env.cacheEvictions(), is(4L));
+    assertThat(env.run("return 1"), is((Object) 1));
+    assertThat(env.cacheMisses(), is(5L));
+  }
+
+  @Test
+  public void snippets_use_environment_modules() throws Throwable {
+    EvaluationEnvironment env = new EvaluationEnvironment();
+    env.asModule(reloadedLib(1));
+    env.imports("Lib");
+    assertThat(env.run("return v()"), is((Object) 1));
+    env.reload(reloadedLib(2));
+    assertThat(env.run("return v()"), is((Object) 2));
+    assertThat(env.cacheHits(), is(1L));
+  }
+
+  private static final String RELOADED_CLIENT =
+      "module Client\n\n" +
+          "import Lib\n\n" +
+          "function value = -> v()\n" +
+          "function qualified = -> Lib.v()\n" +
+          "function shouted = -> \"a\": shout()\n" +
+          "function point = -> Lib.types.Point.class\n" +
+          "function other = -> Other.w()\n";
+
+  private static String reloadedLib(int version) {
+    return "module Lib\n\n" +
+      "struct Point = { x }\n" +
+      "augment java.lang.String {\n" +
+      "  function shout = |this| -> this + \"!" + version + "\"\n" +
+      "}\n" +
+      "function v = -> " + version + "\n";
+  }
+
+  @Test
+  public void reload() throws Throwable {
+    EvaluationEnvironment env = new EvaluationEnvironment();
+    env.asModule(reloadedLib(1));
+    env.asModule("module Other\n\nfunction w = -> \"w\"\n");
+    Class<?> client = (Class<?>) env.asModule(RELOADED_CLIENT);
+    Class<?> firstPoint = (Class<?>) client.getMethod("point").invoke(null);
+    assertThat(client.getMethod("value").invoke(null), is((Object) 1));
+    assertThat(client.getMethod("qualified").invoke(null), is((Object) 1));
+    assertThat(client.getMethod("shouted").invoke(null), is((Object) "a!1"));
+
+    Class<?> lib = (Class<?>) env.reload(reloadedLib(2));
+    assertThat(lib.getMethod("v").invoke(null), is((Object) 2));
+    assertThat(client.getMethod("value").invoke(null), is((Object) 2));
+    assertThat(client.getMethod("qualified").invoke(null), is((Object) 2));
+    assertThat(client.getMethod("shouted").invoke(null), is((Object) "a!2"));
+    Class<?> point = (Class<?>) client.getMethod("point").invoke(null);
+    assertThat(point, not(sameInstance(firstPoint)));
+    assertThat(point.getName(), is(firstPoint.getName()));
+    assertThat(point.getClassLoader(), sameInstance(lib.getClassLoader()));
+
+    env.reload(reloadedLib(3));
+    assertThat(client.getMethod("value").invoke(null), is((Object) 3));
+    assertThat(client.getMethod("shouted").invoke(null), is((Object) "a!3"));
+  }
+
+  @Test
+  public void reload_keeps_unaffected_call_sites() throws Throwable {
+    CallSiteTelemetry.enable();
+    try {
+      EvaluationEnvironment env = new EvaluationEnvironment();
+      env.asModule(reloadedLib(1));
+      env.asModule("module Other\n\nfunction w = -> \"w\"\n");
+      Class<?> client = (Class<?>) env.asModule(RELOADED_CLIENT);
+      assertThat(client.getMethod("other").invoke(null), is((Object) "w"));
+      assertThat(client.getMethod("value").invoke(null), is((Object) 1));
+
+      env.reload(reloadedLib(2));
+      assertThat(client.getMethod("other").invoke(null), is((Object) "w"));
+      assertThat(client.getMethod("value").invoke(null), is((Object) 2));
+      assertThat(relinks(client, "Other.w"), is(1L));
+      assertThat(relinks(client, "v"), is(2L));
+    } finally {
+      CallSiteTelemetry.disable();
+    }
+  }
+
+  private static long relinks(Class<?> module, String name) {
+    return CallSiteTelemetry.sites().stream()
+      .filter(site -> site.module().equals(module.getName()) && site.name().equals(name))
+      .mapToLong(CallSiteTelemetry.Site::relinks)
+      .sum();
+  }
 }
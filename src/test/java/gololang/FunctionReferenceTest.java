@@ -86,6 +86,29 @@ public class FunctionReferenceTest {
     assertThat(noParam.invoke(), is(42));
   }
 
+  @Test
+  public void arity_specialized_invocations() throws Throwable {
+    assertThat(noParam.invoke0(), is(42));
+    assertThat(ping.invoke1("Plop"), is("Plop"));
+    assertThat(collect.invoke3(1, 2, 3), is("123"));
+
+    assertThat(collectAny.invoke0(), is(""));
+    assertThat(collectAny.invoke1("a"), is("a"));
+    assertThat(collectAny.invoke2("a", "b"), is("ab"));
+    assertThat(collectAny.invoke4("a", "b", "c", "d"), is("abcd"));
+    assertThat(collectN.invoke5("a", "b", "c", "d", "e"), is("abcde"));
+    assertThat(collectN.invoke1("a"), is("a"));
+    assertThat(collectN.invoke1("a"), is("a"));
+
+    FunctionReference typed = Predefined.fun(null, "length", String.class);
+    assertThat(typed.invoke1("abc"), is(3));
+  }
+
+  @Test(expectedExceptions = java.lang.invoke.WrongMethodTypeException.class)
+  public void arity_specialized_invocations_check_arity() throws Throwable {
+    collect.invoke2(1, 2);
+  }
+
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void refuse_null_handles() {
     new FunctionReference(null);
@@ -13,6 +13,9 @@ package gololang;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -20,6 +23,8 @@ import java.util.TreeMap;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class TemplateEngineTest {
 
@@ -96,4 +101,46 @@ public class TemplateEngineTest {
     FunctionReference tpl = engine.compile(template);
     assertThat((String) tpl.invoke("http://foo.bar/"), is("<a href=\"http://foo.bar/\">Link</a>"));
   }
+
+  @Test
+  public void cached_templates() throws Throwable {
+    TemplateEngine engine = new TemplateEngine();
+    String template = "<%@params a %>a=<%= a %>";
+    FunctionReference tpl = engine.compile(template);
+    assertThat(engine.compile(template), sameInstance(tpl));
+    assertThat(engine.compileStreaming(template), is(not(sameInstance(tpl))));
+    assertThat((String) tpl.invoke(1), is("a=1"));
+  }
+
+  private static final String PEOPLE_TEMPLATE = "<%@params title, people %>\"<%= title %>\":\n" +
+      "<% foreach (p in people) { %>- <%= p %>\n" +
+      "<% } %>\u00e9t\u00e9 <%= 42 %>\n";
+
+  private static final String PEOPLE = "\"People\":\n- Julien\n- Mr Bean\n\u00e9t\u00e9 42\n";
+
+  @Test
+  public void streaming_to_appendable() throws Throwable {
+    TemplateEngine engine = new TemplateEngine();
+    FunctionReference tpl = engine.compileStreaming(PEOPLE_TEMPLATE);
+    assertThat(tpl.arity(), is(3));
+    StringWriter out = new StringWriter();
+    assertThat(tpl.invoke(out, "People", Arrays.asList("Julien", "Mr Bean")), sameInstance((Object) out));
+    assertThat(out.toString(), is(PEOPLE));
+    assertThat((String) engine.compile(PEOPLE_TEMPLATE).invoke("People", Arrays.asList("Julien", "Mr Bean")), is(PEOPLE));
+  }
+
+  @Test
+  public void streaming_to_bytes() throws Throwable {
+    TemplateEngine engine = new TemplateEngine();
+    FunctionReference tpl = engine.compileStreaming(PEOPLE_TEMPLATE, StandardCharsets.UTF_8);
+    assertThat(tpl.arity(), is(3));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    tpl.invoke(out, "People", Arrays.asList("Julien", "Mr Bean"));
+    assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is(PEOPLE));
+
+    out.reset();
+    engine.compileStreaming(PEOPLE_TEMPLATE, StandardCharsets.ISO_8859_1).invoke(out, "People", Arrays.asList("Julien", "Mr Bean"));
+    assertThat(new String(out.toByteArray(), StandardCharsets.ISO_8859_1), is(PEOPLE));
+    assertThat(out.size(), is(PEOPLE.length()));
+  }
 }
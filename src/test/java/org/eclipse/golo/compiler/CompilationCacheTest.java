@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.compiler;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CompilationCacheTest {
+
+  private static final String MACROS = "module golotest.cache.Macros\n\nmacro twice = |e| -> gololang.ir.DSL.plus(e, e)\n";
+  private static final String MAIN = "module golotest.cache.Main\n\nimport golotest.cache.Macros\n\nfunction answer = -> &twice(21)\n";
+
+  private Path sources;
+  private CompilationCache cache;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    sources = Files.createTempDirectory("golo-cache-test");
+    cache = new CompilationCache(sources.resolve("cache"));
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(sources)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  private File write(String name, String content) throws IOException {
+    return Files.write(sources.resolve(name), content.getBytes(StandardCharsets.UTF_8)).toFile();
+  }
+
+  private GoloClassLoader loader() {
+    GoloClassLoader loader = new GoloClassLoader();
+    loader.setCompilationCache(cache);
+    return loader;
+  }
+
+  private long entries() throws IOException {
+    try (Stream<Path> paths = Files.list(cache.directory())) {
+      return paths.count();
+    }
+  }
+
+  private static Object answer(Class<?> module) throws Throwable {
+    return module.getMethod("answer").invoke(null);
+  }
+
+  @Test
+  public void disabled_by_default() throws Throwable {
+    GoloClassLoader loader = new GoloClassLoader();
+    assertThat(loader.getCompilationCache().isEnabled(), is(false));
+    loader.load(write("macros.golo", MACROS));
+    assertThat(Files.exists(cache.directory()), is(false));
+  }
+
+  private static void restore(String property, String value) {
+    if (value == null) {
+      System.clearProperty(property);
+    } else {
+      System.setProperty(property, value);
+    }
+  }
+
+  @Test
+  public void environment_cache_is_opt_in() {
+    String enabled = System.getProperty(CompilationCache.PROPERTY);
+    String directory = System.getProperty(CompilationCache.DIRECTORY_PROPERTY);
+    try {
+      System.clearProperty(CompilationCache.PROPERTY);
+      if (System.getenv(CompilationCache.ENV) == null) {
+        assertThat(CompilationCache.fromEnvironment().isEnabled(), is(false));
+      }
+      System.setProperty(CompilationCache.PROPERTY, "true");
+      System.setProperty(CompilationCache.DIRECTORY_PROPERTY, cache.directory().toString());
+      assertThat(CompilationCache.fromEnvironment().directory(), is(cache.directory()));
+    } finally {
+      restore(CompilationCache.PROPERTY, enabled);
+      restore(CompilationCache.DIRECTORY_PROPERTY, directory);
+    }
+  }
+
+  @Test
+  public void classpath_directories_fingerprint_their_classes() throws Throwable {
+    Path classes = Files.createDirectories(sources.resolve("classes").resolve("lib"));
+    Path klass = Files.write(classes.resolve("Helper.class"), new byte[]{1, 2, 3});
+    try (URLClassLoader loader = new URLClassLoader(new URL[]{sources.resolve("classes").toUri().toURL()}, null)) {
+      String fingerprint = CompilationCache.classpathFingerprint(loader);
+      assertThat(CompilationCache.classpathFingerprint(loader), is(fingerprint));
+      Files.write(klass, new byte[]{1, 2, 3, 4});
+      assertThat(CompilationCache.classpathFingerprint(loader), is(not(fingerprint)));
+    }
+  }
+
+  @Test
+  public void reuse_stored_results() throws Throwable {
+    File file = write("macros.golo", MACROS);
+    assertThat(loader().load(file).getName(), is("golotest.cache.Macros"));
+    assertThat(entries(), is(1L));
+
+    GoloClassLoader loader = loader();
+    CompilationCache.Source source = cache.open(file, loader);
+    assertThat(source.isCached(), is(true));
+    assertThat(source.moduleName(), is("golotest.cache.Macros"));
+    assertThat(source.hasMacros(), is(true));
+    assertThat(loader.load(source.compile()).getName(), is("golotest.cache.Macros"));
+  }
+
+  @Test
+  public void changed_source_is_compiled() throws Throwable {
+    File file = write("macros.golo", MACROS);
+    loader().load(file);
+    write("macros.golo", MACROS + "\nfunction answer = -> 42\n");
+
+    GoloClassLoader loader = loader();
+    assertThat(cache.open(file, loader).isCached(), is(false));
+    assertThat(answer(loader.load(file)), is((Object) 42));
+    assertThat(entries(), is(2L));
+  }
+
+  @Test
+  public void corrupted_entry_is_compiled() throws Throwable {
+    File file = write("macros.golo", MACROS);
+    loader().load(file);
+    try (Stream<Path> paths = Files.list(cache.directory())) {
+      paths.forEach(path -> {
+        try {
+          Files.write(path, new byte[]{0, 0, 0, 1, 42});
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      });
+    }
+    GoloClassLoader loader = loader();
+    assertThat(cache.open(file, loader).isCached(), is(false));
+    assertThat(loader.load(file).getName(), is("golotest.cache.Macros"));
+  }
+
+  @Test
+  public void changed_macro_module_invalidates_users() throws Throwable {
+    File macros = write("macros.golo", MACROS);
+    File main = write("main.golo", MAIN);
+    GoloClassLoader first = loader();
+    first.load(macros);
+    assertThat(answer(first.load(main)), is((Object) 42));
+
+    GoloClassLoader same = loader();
+    same.load(macros);
+    assertThat(cache.open(main, same).isCached(), is(true));
+    assertThat(answer(same.load(main)), is((Object) 42));
+
+    write("macros.golo", MACROS.replace("plus", "times"));
+    GoloClassLoader changed = loader();
+    changed.load(macros);
+    assertThat(cache.open(main, changed).isCached(), is(false));
+    assertThat(answer(changed.load(main)), is((Object) 441));
+  }
+}
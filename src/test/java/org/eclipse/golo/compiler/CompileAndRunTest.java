@@ -16,6 +16,7 @@ import org.eclipse.golo.compiler.parser.ASTAssignment;
 import org.eclipse.golo.compiler.parser.ParseException;
 import org.eclipse.golo.compiler.testing.support.ClassWithOverloadedMethods;
 import org.eclipse.golo.runtime.AmbiguousFunctionReferenceException;
+import org.eclipse.golo.runtime.Module;
 import gololang.*;
 import org.testng.annotations.Test;
 import org.eclipse.golo.internal.testing.GoloTest;
@@ -80,6 +81,18 @@ public final class CompileAndRunTest extends GoloTest {
       "java.lang"));
   }
 
+  @Test
+  public void module_metadata_are_read_once() throws Throwable {
+    Class<?> moduleClass = compileAndLoadGoloModule(SRC, "augmentations-with-fallback.golo");
+
+    assertThat(Module.imports(moduleClass), is((Object[]) moduleClass.getMethod("$imports").invoke(null)));
+    assertThat(Module.imports(moduleClass), sameInstance(Module.imports(moduleClass)));
+    assertThat(asList(Module.augmentations(moduleClass)), contains("java.lang.String", "gololang.FunctionReference"));
+    assertThat(asList(Module.augmentationApplications(moduleClass, FunctionReference.class)), contains("Fluent"));
+    assertThat(Module.augmentationApplications(moduleClass, Integer.class).length, is(0));
+    assertThat(Module.imports(String.class).length, is(0));
+  }
+
   @Test
   public void test_functions_with_returns() throws ClassNotFoundException, IOException, ParseException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
     Class<?> moduleClass = compileAndLoadGoloModule(SRC, "returns.golo");
@@ -332,6 +345,41 @@ public final class CompileAndRunTest extends GoloTest {
     assertThat((String) what_match.invoke(null, true), is("alien"));
 
     this.run("conditionals", "match_email");
+
+    Method match_codes = moduleClass.getMethod("match_codes", Object.class);
+    assertThat(match_codes.invoke(null, 1), is((Object) "one"));
+    assertThat(match_codes.invoke(null, 2), is((Object) "two"));
+    assertThat(match_codes.invoke(null, 3), is((Object) "three"));
+    assertThat(match_codes.invoke(null, 4), is((Object) "other"));
+    assertThat(match_codes.invoke(null, 3L), is((Object) "three"));
+    assertThat(match_codes.invoke(null, 3.0), is((Object) "three"));
+    assertThat(match_codes.invoke(null, "1"), is((Object) "other"));
+    assertThat(match_codes.invoke(null, (Object) null), is((Object) "other"));
+
+    Method match_sparse_codes = moduleClass.getMethod("match_sparse_codes", Object.class);
+    assertThat(match_sparse_codes.invoke(null, -5), is((Object) "minus five"));
+    assertThat(match_sparse_codes.invoke(null, 1000), is((Object) "thousand"));
+    assertThat(match_sparse_codes.invoke(null, 999), is((Object) "other"));
+    assertThat(match_sparse_codes.invoke(null, 1000L), is((Object) "thousand"));
+
+    Method match_chars = moduleClass.getMethod("match_chars", Object.class);
+    assertThat(match_chars.invoke(null, 'b'), is((Object) 2));
+    assertThat(match_chars.invoke(null, 'c'), is((Object) 0));
+    assertThat(match_chars.invoke(null, 97), is((Object) 1));
+
+    Method match_strings = moduleClass.getMethod("match_strings", Object.class);
+    assertThat(match_strings.invoke(null, "Aa"), is((Object) 1));
+    assertThat(match_strings.invoke(null, "BB"), is((Object) 2));
+    assertThat(match_strings.invoke(null, "hello"), is((Object) 3));
+    assertThat(match_strings.invoke(null, "world"), is((Object) 0));
+    assertThat(match_strings.invoke(null, 1), is((Object) 0));
+
+    Method case_codes = moduleClass.getMethod("case_codes", Object.class);
+    assertThat(case_codes.invoke(null, 11), is((Object) "eleven"));
+    assertThat(case_codes.invoke(null, 12), is((Object) "twelve"));
+    assertThat(case_codes.invoke(null, 13), is((Object) "other"));
+
+    assertThat(moduleClass.getMethod("match_loop_index").invoke(null), is((Object) 111));
   }
 
   @Test
@@ -523,6 +571,8 @@ public final class CompileAndRunTest extends GoloTest {
     assertThat(foreach_guarded.invoke(null, asList(666, 2, 3, 4, 5, 10, 999)), is("66610999"));
 
     runTestMethod(moduleClass, "break_continue", filenameFor("loopings"));
+    runTestMethod(moduleClass, "foreach_shapes", filenameFor("loopings"));
+    runTestMethod(moduleClass, "foreach_keeps_list_semantics", filenameFor("loopings"));
 
   }
 
@@ -1250,6 +1300,11 @@ public final class CompileAndRunTest extends GoloTest {
     assertThat(nestedTuple.size(), is(2));
     assertThat((Integer) nestedTuple.get(0), is(10));
     assertThat((Integer) nestedTuple.get(1), is(20));
+    assertThat(nested_tuples.invoke(null), sameInstance(result));
+
+    Method tuple_with = moduleClass.getMethod("tuple_with", Object.class);
+    assertThat(tuple_with.invoke(null, 2), is(tuple_with.invoke(null, 2)));
+    assertThat(tuple_with.invoke(null, 2), not(sameInstance(tuple_with.invoke(null, 2))));
 
     Method empty_tuple = moduleClass.getMethod("empty_tuple");
     result = empty_tuple.invoke(null);
@@ -1281,6 +1336,7 @@ public final class CompileAndRunTest extends GoloTest {
     assertThat((Integer) vector.get(0), is(1));
     assertThat((Integer) vector.get(1), is(2));
     assertThat((Integer) vector.get(2), is(3));
+    assertThat(some_vector.invoke(null), not(sameInstance(result)));
 
     Method some_set = moduleClass.getMethod("some_set");
     result = some_set.invoke(null);
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.compiler;
+
+import org.objectweb.asm.ClassReader;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.eclipse.golo.internal.testing.TestUtils.compileAndLoadGoloModule;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks the modules compiled with {@code golo.compiler.condy}.
+ * <p>
+ * The option is read once, so the module is compiled in another JVM.
+ */
+public class DynamicConstantsTest {
+
+  private static final String SRC = "src/test/resources/for-execution/";
+  private static final String MODULE = "golotest.execution.DynamicConstants";
+  private static final int CONSTANT_DYNAMIC_TAG = 17;
+
+  private static Path compileWithCondy() throws Exception {
+    if (System.getProperty("java.specification.version").startsWith("1.")) {
+      throw new SkipException("Dynamic constants require Java 11");
+    }
+    Path output = Files.createTempDirectory("golo-condy");
+    Process process = new ProcessBuilder(
+        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+        "-Dgolo.compiler.condy=true",
+        "-Dgolo.cache=false",
+        "-cp", System.getProperty("java.class.path"),
+        "org.eclipse.golo.cli.Main", "compile",
+        "--output", output.toString(),
+        SRC + "dynamic-constants.golo")
+      .inheritIO()
+      .start();
+    assertThat(process.waitFor(), is(0));
+    return output;
+  }
+
+  @Test
+  public void module_uses_dynamic_constants() throws Exception {
+    Path output = compileWithCondy();
+    ClassReader reader = new ClassReader(Files.readAllBytes(
+          output.resolve(MODULE.replace('.', File.separatorChar) + ".class")));
+    assertThat(reader.readUnsignedShort(6), is(55));
+    int dynamicConstants = 0;
+    for (int i = 1; i < reader.getItemCount(); i++) {
+      int offset = reader.getItem(i);
+      if (offset > 0 && reader.readByte(offset - 1) == CONSTANT_DYNAMIC_TAG) {
+        dynamicConstants++;
+      }
+    }
+    assertThat(dynamicConstants, greaterThan(0));
+  }
+
+  @Test
+  public void dynamic_constants_behave_as_regular_references() throws Throwable {
+    Path output = compileWithCondy();
+    Class<?> expected = compileAndLoadGoloModule(SRC, "dynamic-constants.golo");
+    try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+      Class<?> actual = loader.loadClass(MODULE);
+      assertThat(actual, not(sameInstance((Object) expected)));
+      for (String function : new String[]{"functions", "classes"}) {
+        assertThat(
+            actual.getMethod(function).invoke(null),
+            is(expected.getMethod(function).invoke(null)));
+      }
+    }
+  }
+}
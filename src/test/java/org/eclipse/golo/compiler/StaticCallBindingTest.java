@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.compiler;
+
+import gololang.ir.*;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.*;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.golo.internal.testing.TestUtils.compileAndLoadGoloModule;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class StaticCallBindingTest {
+
+  private static final String SRC = "src/test/resources/for-execution/";
+
+  private static Map<String, List<String>> boundCalls() throws Throwable {
+    GoloCompiler compiler = new GoloCompiler();
+    GoloModule module = compiler.check(compiler.parse(new File(SRC + "static-calls.golo")));
+    Map<String, List<String>> calls = new HashMap<>();
+    module.accept(new AbstractGoloIrVisitor() {
+      @Override
+      public void visitFunctionInvocation(FunctionInvocation invocation) {
+        invocation.walk(this);
+        calls.computeIfAbsent(invocation.getName(), k -> new ArrayList<>())
+          .add(String.valueOf(invocation.metadata(StaticCallBindingVisitor.STATIC_TARGET)));
+      }
+
+      @Override
+      public void visitClosureReference(ClosureReference closure) { }
+    });
+    return calls;
+  }
+
+  @Test
+  public void bound_calls() throws Throwable {
+    Map<String, List<String>> calls = boundCalls();
+    assertThat(calls.get("fib"), everyItem(is("golotest.execution.StaticCalls.fib(Ljava/lang/Object;)Ljava/lang/Object;")));
+    assertThat(calls.get("noop"), contains("golotest.execution.StaticCalls.noop()Ljava/lang/Object;"));
+    assertThat(calls.get("greet"), contains(startsWith("golotest.execution.StaticCalls.greet")));
+    assertThat(calls.get("arity"), everyItem(startsWith("golotest.execution.StaticCalls.arity")));
+    assertThat(calls.get("java.lang.Integer.parseInt"), contains("java.lang.Integer.parseInt(Ljava/lang/String;)I"));
+    assertThat(calls.get("java.util.Objects.requireNonNull"), contains(startsWith("java.util.Objects.requireNonNull")));
+    assertThat(calls.get("java.util.Objects.hashCode"), contains("java.util.Objects.hashCode(Ljava/lang/Object;)I"));
+  }
+
+  @Test
+  public void unbound_calls() throws Throwable {
+    Map<String, List<String>> calls = boundCalls();
+    assertThat(calls.get("variadic"), contains("null"));
+    assertThat(calls.get("java.lang.Math.abs"), contains("null"));
+    assertThat(calls.get("emptyList"), contains("null"));
+    assertThat(calls.get("f"), contains("null"));
+    assertThat(calls.get("add"), containsInAnyOrder(
+          startsWith("golotest.execution.StaticCalls.add"),
+          startsWith("golotest.execution.StaticCalls.add"),
+          is("null"),
+          is("null")));
+  }
+
+  @Test
+  public void bound_calls_results() throws Throwable {
+    Class<?> moduleClass = compileAndLoadGoloModule(SRC, "static-calls.golo");
+    assertThat(moduleClass.getMethod("module_calls").invoke(null),
+        is(asList(3, 55, 1, 2, 2, null, "Hello Golo", 42)));
+    assertThat(moduleClass.getMethod("java_calls").invoke(null),
+        is(asList(12, "ok", 0, 3, Collections.emptyList())));
+    assertThat(moduleClass.getMethod("named").invoke(null), is((Object) 3));
+    assertThat(moduleClass.getMethod("augmented").invoke(null), is((Object) "abab"));
+  }
+}
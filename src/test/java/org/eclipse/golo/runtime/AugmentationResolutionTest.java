@@ -13,6 +13,14 @@ package org.eclipse.golo.runtime;
 import org.testng.annotations.Test;
 import org.eclipse.golo.internal.testing.GoloTest;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.testng.Assert.fail;
+
 public class AugmentationResolutionTest extends GoloTest {
   @Override
   public String srcDir() {
@@ -44,4 +52,17 @@ public class AugmentationResolutionTest extends GoloTest {
     load("mixin-lib");
     run("mixin-test");
   }
+
+  @Test
+  public void importedModuleLoadedAfterTheCaller() throws Throwable {
+    Method shout = load("late-user").getMethod("shout", Object.class);
+    try {
+      shout.invoke(null, "golo");
+      fail("NoSuchMethodError should have been thrown");
+    } catch (InvocationTargetException e) {
+      assertThat(e.getCause(), instanceOf(NoSuchMethodError.class));
+    }
+    load("late-augmentation");
+    assertThat(shout.invoke(null, "golo"), is((Object) "GOLO!"));
+  }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.management.ObjectName;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CallSiteTelemetryTest {
+
+  private static final MethodType UNARY_TYPE = MethodType.genericMethodType(1);
+  private static final MethodType BINARY_TYPE = MethodType.genericMethodType(2);
+
+  @BeforeMethod
+  public void enable() {
+    CallSiteTelemetry.enable();
+  }
+
+  @AfterMethod
+  public void disable() {
+    CallSiteTelemetry.disable();
+  }
+
+  @Test
+  public void sites_linked_while_disabled_are_not_recorded() throws Throwable {
+    CallSiteTelemetry.disable();
+    MethodInvocationSupport.InlineCache toString = (MethodInvocationSupport.InlineCache)
+      MethodInvocationSupport.bootstrap(lookup(), "toString", UNARY_TYPE, 0);
+    assertThat(toString.dynamicInvoker().invoke(1), is("1"));
+    assertThat(toString.telemetry, nullValue());
+  }
+
+  @Test
+  public void method_invocation_telemetry() throws Throwable {
+    MethodInvocationSupport.InlineCache toString = (MethodInvocationSupport.InlineCache)
+      MethodInvocationSupport.bootstrap(lookup(), "toString", UNARY_TYPE, 0);
+    CallSiteTelemetry.Site site = toString.telemetry;
+    assertThat(site.kind(), is(CallSiteTelemetry.Kind.METHOD));
+    assertThat(site.module(), is(CallSiteTelemetryTest.class.getName()));
+    assertThat(site.line(), greaterThan(0));
+    assertThat(site.name(), is("toString"));
+
+    MethodHandle invoker = toString.dynamicInvoker();
+    invoker.invoke(1);
+    invoker.invoke(1);
+    assertThat(site.fallbacks(), is(1L));
+    assertThat(site.relinks(), is(1L));
+    assertThat(site.depth(), is(1));
+    assertThat(site.isMegamorphic(), is(false));
+    assertThat(site.resolutionNanos(), greaterThan(0L));
+
+    for (Object receiver : Arrays.asList(1L, "a", 'a', 1.0, 1.0f, Collections.emptyList(), new Object())) {
+      invoker.invoke(receiver);
+    }
+    assertThat(site.depth(), is(MethodInvocationSupport.InlineCache.MEGAMORPHIC_THRESHOLD + 1));
+    assertThat(site.isMegamorphic(), is(true));
+    assertThat(site.relinks(), is((long) MethodInvocationSupport.InlineCache.MEGAMORPHIC_THRESHOLD + 2));
+  }
+
+  @Test
+  public void operator_telemetry() throws Throwable {
+    OperatorSupport.InlineCache plus = (OperatorSupport.InlineCache)
+      OperatorSupport.bootstrap(lookup(), "plus", BINARY_TYPE, 2);
+    MethodHandle invoker = plus.dynamicInvoker();
+    invoker.invoke(1, 2);
+    invoker.invoke(1, 2);
+    invoker.invoke("a", "b");
+    assertThat(plus.telemetry.kind(), is(CallSiteTelemetry.Kind.OPERATOR));
+    assertThat(plus.telemetry.fallbacks(), is(2L));
+    assertThat(plus.telemetry.relinks(), is(2L));
+    assertThat(plus.telemetry.depth(), is(2));
+  }
+
+  @Test
+  public void worst_sites_first() throws Throwable {
+    OperatorSupport.InlineCache stable = (OperatorSupport.InlineCache)
+      OperatorSupport.bootstrap(lookup(), "minus", BINARY_TYPE, 2);
+    OperatorSupport.InlineCache unstable = (OperatorSupport.InlineCache)
+      OperatorSupport.bootstrap(lookup(), "times", BINARY_TYPE, 2);
+    stable.dynamicInvoker().invoke(2, 1);
+    for (Object value : Arrays.asList(1, 1L, 1.0, 1.0f, 'a', BigInteger.ONE, BigDecimal.ONE, 1L)) {
+      unstable.dynamicInvoker().invoke(value, 2);
+    }
+    assertThat(unstable.telemetry.isMegamorphic(), is(true));
+    assertThat(CallSiteTelemetry.WORST_FIRST.compare(unstable.telemetry, stable.telemetry), lessThan(0));
+    assertThat(CallSiteTelemetry.sites(), hasItems(stable.telemetry, unstable.telemetry));
+    assertThat(CallSiteTelemetry.worstSites(1).size(), is(1));
+  }
+
+  @Test
+  public void mbean_is_registered() throws Throwable {
+    ObjectName name = new ObjectName(CallSiteTelemetry.OBJECT_NAME);
+    assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name), is(true));
+    assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Enabled"), is(true));
+  }
+}
@@ -40,6 +40,10 @@ public class ClosureCallSupportTest {
     return result;
   }
 
+  static Object prefix(Object prefix, Object value) {
+    return prefix + "" + value;
+  }
+
   static Integer parseIntWrap(String s) {
     return Integer.parseInt(s, 10);
   }
@@ -96,4 +100,60 @@ public class ClosureCallSupportTest {
     assertThat((Integer) invoker.invokeWithArguments(funRef, "123"), is(123));
     assertThat((Integer) invoker.invokeWithArguments(funRef, "123"), is(123));
   }
+
+  @Test
+  public void captured_closures_share_the_linked_target() throws Throwable {
+    MethodHandle handle = lookup().findStatic(ClosureCallSupportTest.class, "prefix", genericMethodType(2));
+    CallSite callSite = ClosureCallSupport.bootstrap(lookup(), "closure", methodType(Object.class, FunctionReference.class, Object.class), 0);
+    ClosureCallSupport.InlineCache inlineCache = (ClosureCallSupport.InlineCache) callSite;
+    MethodHandle invoker = callSite.dynamicInvoker();
+
+    for (int i = 0; i < 10; i++) {
+      FunctionReference captured = new FunctionReference(handle).insertArguments(0, i);
+      assertThat((String) invoker.invokeWithArguments(captured, "a"), is(i + "a"));
+    }
+    assertThat(inlineCache.depth, is(1));
+
+    FunctionReference sameShape = new FunctionReference(
+        lookup().findStatic(ClosureCallSupportTest.class, "objectToString", genericMethodType(1)));
+    assertThat((String) invoker.invokeWithArguments(sameShape, 42), is("42"));
+    assertThat(inlineCache.depth, is(1));
+
+    FunctionReference otherShape = new FunctionReference(
+        lookup().findStatic(ClosureCallSupportTest.class, "concat", genericMethodType(0, true)));
+    assertThat((String) invoker.invokeWithArguments(otherShape, 42), is("42"));
+    assertThat(inlineCache.depth, is(2));
+  }
+
+  @Test
+  public void varargs_closures_guard_on_the_array_argument() throws Throwable {
+    MethodHandle handle = lookup().findStatic(ClosureCallSupportTest.class, "concat", genericMethodType(0, true));
+    CallSite callSite = ClosureCallSupport.bootstrap(lookup(), "closure", methodType(Object.class, FunctionReference.class, Object.class), 0);
+    MethodHandle invoker = callSite.dynamicInvoker();
+
+    assertThat((String) invoker.invokeWithArguments(new FunctionReference(handle), new Object[]{1, 2}), is("12"));
+    assertThat((String) invoker.invokeWithArguments(new FunctionReference(handle), 1), is("1"));
+    assertThat((String) invoker.invokeWithArguments(new FunctionReference(handle), new Object[]{3, 4}), is("34"));
+  }
+
+  @Test
+  public void megamorphic_closure_call() throws Throwable {
+    CallSite callSite = ClosureCallSupport.bootstrap(lookup(), "closure", methodType(Object.class, FunctionReference.class, Object.class), 0);
+    ClosureCallSupport.InlineCache inlineCache = (ClosureCallSupport.InlineCache) callSite;
+    MethodHandle invoker = callSite.dynamicInvoker();
+    MethodHandle handle = lookup().findStatic(ClosureCallSupportTest.class, "objectToString", genericMethodType(1));
+    Class<?>[] parameterTypes = {Object.class, Integer.class, Number.class, Comparable.class};
+    Class<?>[] returnTypes = {Object.class, CharSequence.class};
+
+    for (int round = 0; round < 2; round++) {
+      for (Class<?> returnType : returnTypes) {
+        for (Class<?> parameterType : parameterTypes) {
+          FunctionReference funRef = new FunctionReference(handle.asType(methodType(returnType, parameterType)));
+          assertThat((String) invoker.invokeWithArguments(funRef, 1), is("1"));
+        }
+      }
+    }
+    assertThat(inlineCache.isMegaMorphic(), is(true));
+    assertThat(inlineCache.depth, is(ClosureCallSupport.InlineCache.MEGAMORPHIC_THRESHOLD));
+  }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import gololang.annotations.DecorateOnEachCall;
+import gololang.annotations.DecoratedBy;
+import org.testng.annotations.Test;
+import org.eclipse.golo.internal.testing.GoloTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DecoratorApplicationTest extends GoloTest {
+
+  public static class Lib {
+
+    public static final AtomicInteger ONCE = new AtomicInteger();
+    public static final AtomicInteger EACH = new AtomicInteger();
+
+    public static Object countOnce(Object original) {
+      ONCE.incrementAndGet();
+      return original;
+    }
+
+    public static Object countEach(Object original) {
+      EACH.incrementAndGet();
+      return original;
+    }
+
+    @DecoratedBy("countOnce")
+    public static Object once(Object value) {
+      return value;
+    }
+
+    @DecoratedBy("countEach")
+    @DecorateOnEachCall
+    public static Object each(Object value) {
+      return value;
+    }
+  }
+
+  @Override
+  public String srcDir() {
+    return "for-execution/";
+  }
+
+  @Test
+  public void decoratorApplication() throws Throwable {
+    run("decorator-application");
+  }
+}
@@ -15,12 +15,15 @@ import org.testng.annotations.Test;
 
 import java.lang.invoke.CallSite;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.Comparator;
 
 import static java.lang.invoke.MethodHandles.Lookup;
 import static java.lang.invoke.MethodHandles.lookup;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class FunctionCallSupportTest {
 
@@ -159,6 +162,63 @@ public class FunctionCallSupportTest {
     assertThat(callSite.dynamicInvoker().invokeWithArguments(new FunctionReference(plopFunc)), is((Object) "Plop!"));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void functional_interface_factories_are_cached() throws Throwable {
+    Lookup lookup = lookup();
+    MethodHandle concat = lookup.findStatic(FunctionCallSupportTest.Foo.class, "concat",
+        MethodType.methodType(String.class, String.class, String[].class));
+    MethodHandle compare = lookup.findVirtual(String.class, "compareTo", MethodType.methodType(int.class, String.class));
+    MethodHandle reversed = MethodHandles.permuteArguments(compare, compare.type(), 1, 0);
+    MethodHandle reordered = MethodHandles.permuteArguments(reversed, compare.type(), 1, 0);
+    Comparator<String> inverse = (Comparator<String>) FunctionCallSupport.asFunctionalInterface(lookup, Comparator.class, reversed);
+    long misses = FunctionCallSupport.functionalInterfaceFactoryMisses();
+    long hits = FunctionCallSupport.functionalInterfaceFactoryHits();
+    Comparator<String> same = (Comparator<String>) FunctionCallSupport.asFunctionalInterface(lookup, Comparator.class, reordered);
+    assertThat(FunctionCallSupport.functionalInterfaceFactoryMisses(), is(misses));
+    assertThat(FunctionCallSupport.functionalInterfaceFactoryHits(), is(hits + 1));
+    assertThat(same.getClass() == inverse.getClass(), is(true));
+    assertThat(inverse.compare("a", "b") > 0, is(true));
+    assertThat(same.compare("a", "b") < 0, is(true));
+
+    Comparator<String> natural = (Comparator<String>) FunctionCallSupport.asFunctionalInterface(lookup, Comparator.class, compare);
+    assertThat(natural.getClass() == inverse.getClass(), is(false));
+    hits = FunctionCallSupport.functionalInterfaceFactoryHits();
+    assertThat(FunctionCallSupport.asFunctionalInterface(lookup, Comparator.class, compare), sameInstance((Object) natural));
+    assertThat(FunctionCallSupport.functionalInterfaceFactoryHits(), is(hits + 1));
+    assertThat(natural.compare("a", "b") < 0, is(true));
+
+    DummyFunctionalInterface plop = (DummyFunctionalInterface) FunctionCallSupport.asFunctionalInterface(
+        lookup, DummyFunctionalInterface.class, MethodHandles.insertArguments(concat, 0, "-", new String[]{"a", "b"}));
+    assertThat(plop.bangDaPlop(), is("a-b!"));
+  }
+
+  @Test
+  public void call_sites_share_function_resolutions() throws Throwable {
+    Lookup lookup = lookup();
+    MethodType type = MethodType.methodType(Object.class);
+    String name = "org#eclipse#golo#runtime#FunctionCallSupportTest$Foo#plop";
+    CallSite first = FunctionCallSupport.bootstrap(lookup, name, type, 0);
+    CallSite second = FunctionCallSupport.bootstrap(lookup, name, type, 0);
+    assertThat((String) first.dynamicInvoker().invokeWithArguments(), is("Plop"));
+    long hits = FunctionCallSupport.resolutionCacheHits();
+    long misses = FunctionCallSupport.resolutionCacheMisses();
+    assertThat((String) second.dynamicInvoker().invokeWithArguments(), is("Plop"));
+    assertThat(FunctionCallSupport.resolutionCacheHits(), is(hits + 1));
+    assertThat(FunctionCallSupport.resolutionCacheMisses(), is(misses));
+  }
+
+  @Test
+  public void overloaded_functions_are_resolved_on_each_call_site() throws Throwable {
+    Lookup lookup = lookup();
+    MethodType type = MethodType.methodType(Object.class, Object.class, Object.class);
+    String name = "java#lang#Math#max";
+    CallSite onInts = FunctionCallSupport.bootstrap(lookup, name, type, 0);
+    CallSite onDoubles = FunctionCallSupport.bootstrap(lookup, name, type, 0);
+    assertThat(onInts.dynamicInvoker().invokeWithArguments(1, 2), is((Object) 2));
+    assertThat(onDoubles.dynamicInvoker().invokeWithArguments(1.0, 2.0), is((Object) 2.0));
+  }
+
   @Test
   public void test_import_and_call_merging() throws Throwable {
     String[] is = {"", "a.b.c", "a.b", "a", "a.b.c.d"};
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2021 Institut National des Sciences Appliquées de Lyon (INSA Lyon) and others
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.golo.runtime;
+
+import gololang.FunctionReference;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FunctionReferenceSupportTest {
+
+  public static Object to_list(Object foo, Object bar) {
+    return Arrays.asList(foo, bar);
+  }
+
+  public static Object concat(Object... args) {
+    StringBuilder result = new StringBuilder();
+    for (Object arg : args) {
+      result.append(arg);
+    }
+    return result.toString();
+  }
+
+  @Test
+  public void function_reference_constant() throws Throwable {
+    FunctionReference funRef = FunctionReferenceSupport.constant(
+        lookup(), "to_list", FunctionReference.class, FunctionReferenceSupportTest.class, 2, 0);
+    assertThat(funRef.type(), is(methodType(Object.class, Object.class, Object.class)));
+    assertThat((List<?>) funRef.invoke("foo", "bar"), is(Arrays.asList("foo", "bar")));
+  }
+
+  @Test
+  public void varargs_function_reference_constant() throws Throwable {
+    FunctionReference funRef = FunctionReferenceSupport.constant(
+        lookup(), "concat", FunctionReference.class, FunctionReferenceSupportTest.class, 1, 1);
+    assertThat(funRef.isVarargsCollector(), is(true));
+    assertThat(funRef.invoke("foo", "bar"), is("foobar"));
+  }
+
+  @Test
+  public void class_reference_constant() throws Throwable {
+    assertThat(ClassReferenceSupport.constant(lookup(), "java#util#List", Class.class), is((Object) List.class));
+    assertThat(ClassReferenceSupport.constant(lookup(), "int", Class.class), is((Object) int.class));
+  }
+}
@@ -15,6 +15,18 @@ import org.eclipse.golo.internal.testing.GoloTest;
 
 public class ImportedFunctionResolutionTest extends GoloTest {
 
+  public static class First {
+    public static String f(String value) {
+      return "First::f";
+    }
+  }
+
+  public static class Second {
+    public static String f(Object value) {
+      return "Second::f";
+    }
+  }
+
   private static final String[] MODS = {
     "v0",
     "v1b",
@@ -56,5 +68,9 @@ public class ImportedFunctionResolutionTest extends GoloTest {
       run(m);
     }
   }
-}
 
+  @Test
+  public void shared_resolutions_keep_import_order() throws Throwable {
+    run("shared-resolution");
+  }
+}
@@ -11,14 +11,20 @@
 package org.eclipse.golo.runtime;
 
 import gololang.DynamicObject;
+import org.eclipse.golo.compiler.GoloClassLoader;
 import org.testng.annotations.Test;
 
+import java.io.StringReader;
 import java.lang.invoke.CallSite;
 import java.lang.invoke.MethodHandle;
+import java.lang.ref.WeakReference;
 import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.List;
 
+import static java.lang.invoke.MethodHandles.constant;
 import static java.lang.invoke.MethodHandles.lookup;
 import static java.lang.invoke.MethodType.methodType;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -120,6 +126,14 @@ public class MethodInvocationSupportTest {
     }
   }
 
+  private static class Hidden {
+    public Object value = "field";
+
+    public String secret() {
+      return "method";
+    }
+  }
+
   public Person julien() {
     return new Person("Julien", "julien.ponge@insa-lyon.fr", true);
   }
@@ -362,6 +376,18 @@ public class MethodInvocationSupportTest {
     assertThat((String) receiver.property, is("foo"));
   }
 
+  @Test
+  public void non_public_receiver_keeps_shared_members_inaccessible() throws Throwable {
+    CallSite secret = MethodInvocationSupport.bootstrap(lookup(), "secret", methodType(Object.class, Object.class), 0);
+    CallSite value = MethodInvocationSupport.bootstrap(lookup(), "value", methodType(Object.class, Object.class), 0);
+    Hidden receiver = new Hidden();
+
+    assertThat((String) secret.dynamicInvoker().invokeWithArguments(receiver), is("method"));
+    assertThat((String) value.dynamicInvoker().invokeWithArguments(receiver), is("field"));
+    assertThat(Extractors.getMethods(Hidden.class, "secret").anyMatch(m -> m.isAccessible()), is(false));
+    assertThat(Extractors.getFields(Hidden.class, "value").anyMatch(f -> f.isAccessible()), is(false));
+  }
+
   @Test(expectedExceptions = NullPointerException.class)
   public void not_nullsafe_invocation() throws Throwable {
     CallSite toString = MethodInvocationSupport.bootstrap(lookup(), "toString", methodType(Object.class, Object.class), 0);
@@ -379,6 +405,16 @@ public class MethodInvocationSupportTest {
     assertThat(invoker.invoke(null), nullValue());
   }
 
+  @Test(expectedExceptions = NullPointerException.class)
+  public void nullsafe_invocation_propagates_target_exceptions() throws Throwable {
+    CallSite plop = MethodInvocationSupport.bootstrap(lookup(), "plop", methodType(Object.class, Object.class, Object.class), 1);
+
+    MethodHandle invoker = plop.dynamicInvoker();
+    assertThat(invoker.invoke(null, "a"), nullValue());
+    assertThat((String) invoker.invoke(new Ploper(), "a"), is("a"));
+    invoker.invoke(new Ploper(), null);
+  }
+
   @Test
   public void nullsafe_megamorphic_invocation() throws Throwable {
     CallSite toString = MethodInvocationSupport.bootstrap(lookup(), "toString", methodType(Object.class, Object.class), 1);
@@ -395,6 +431,133 @@ public class MethodInvocationSupportTest {
     assertThat(invoker.invoke(null), nullValue());
   }
 
+  @Test
+  public void megamorphic_sites_share_dispatch_table() throws Throwable {
+    MethodInvocationSupport.InlineCache first = (MethodInvocationSupport.InlineCache)
+      MethodInvocationSupport.bootstrap(lookup(), "greet", methodType(Object.class, Object.class, Object.class), 0);
+    MethodInvocationSupport.InlineCache second = (MethodInvocationSupport.InlineCache)
+      MethodInvocationSupport.bootstrap(lookup(), "greet", methodType(Object.class, Object.class, Object.class), 0);
+    first.depth = MethodInvocationSupport.InlineCache.MEGAMORPHIC_THRESHOLD + 1;
+    second.depth = MethodInvocationSupport.InlineCache.MEGAMORPHIC_THRESHOLD + 1;
+
+    Person julien = julien();
+    Person[] people = {julien};
+    assertThat((String) first.dynamicInvoker().invoke(julien, people), is("Hello Julien!"));
+    int cached = DispatchTable.size(MethodInvocationSupportTest.class);
+    assertThat((String) second.dynamicInvoker().invoke(julien, people), is("Hello Julien!"));
+    assertThat(DispatchTable.size(MethodInvocationSupportTest.class), is(cached));
+    assertThat(
+        MethodInvocationSupport.vtableLookup(second, new Object[]{julien, people}),
+        sameInstance(MethodInvocationSupport.vtableLookup(first, new Object[]{julien, people})));
+  }
+
+  @Test
+  public void full_dispatch_table_partition_is_refilled() throws Throwable {
+    MethodHandle target = constant(Object.class, "target");
+    DispatchTable.Key last = null;
+    for (int i = 0; i <= DispatchTable.MAX_ENTRIES; i++) {
+      last = new DispatchTable.Key("m" + i, methodType(Object.class, Object.class), null);
+      DispatchTable.get(FieldAccessors.class, String.class, last, () -> target);
+    }
+    assertThat(DispatchTable.size(FieldAccessors.class), is(1));
+    assertThat(DispatchTable.get(FieldAccessors.class, String.class, last, () -> null), sameInstance(target));
+  }
+
+  @Test
+  public void dispatch_table_does_not_retain_receiver_classes() throws Throwable {
+    URL location = Ploper.class.getProtectionDomain().getCodeSource().getLocation();
+    URLClassLoader loader = new URLClassLoader(new URL[]{location}, null);
+    Class<?> receiverClass = loader.loadClass(Ploper.class.getName());
+    assertThat(receiverClass, not(sameInstance((Object) Ploper.class)));
+    DispatchTable.Key key = new DispatchTable.Key("plop", methodType(Object.class, Object.class, Object.class), null);
+    DispatchTable.get(MethodInvocationSupportTest.class, receiverClass, key, () -> constant(Object.class, "plop"));
+
+    WeakReference<Class<?>> reference = new WeakReference<>(receiverClass);
+    loader.close();
+    loader = null;
+    receiverClass = null;
+    for (int i = 0; i < 20 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    assertThat(reference.get(), nullValue());
+  }
+
+  @Test
+  public void dispatch_table_does_not_retain_caller_modules() throws Throwable {
+    WeakReference<ClassLoader> reference = dispatchOnStringFromThrowawayModule();
+    for (int i = 0; i < 20 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    assertThat(reference.get(), nullValue());
+  }
+
+  private static WeakReference<ClassLoader> dispatchOnStringFromThrowawayModule() throws Throwable {
+    GoloClassLoader loader = new GoloClassLoader();
+    Class<?> module = loader.load("throwaway.golo", new StringReader(String.join("\n",
+        "module DispatchTableThrowaway",
+        "function find = |x| -> x: indexOf(\"o\")",
+        "function run = {",
+        "  foreach x in [",
+        "      java.util.ArrayList(), java.util.LinkedList(), java.util.Vector(),",
+        "      java.util.concurrent.CopyOnWriteArrayList(), java.util.Arrays.asList(),",
+        "      java.lang.StringBuilder(), java.lang.StringBuffer()] {",
+        "    find(x)",
+        "  }",
+        "  return find(\"plop\")",
+        "}")));
+    assertThat(module.getMethod("run").invoke(null), is((Object) 2));
+    assertThat(DispatchTable.size(module), greaterThan(0));
+    return new WeakReference<>(loader);
+  }
+
+  @Test
+  public void megamorphic_overloaded_invocation() throws Throwable {
+    CallSite append = MethodInvocationSupport.bootstrap(lookup(), "append", methodType(Object.class, Object.class, Object.class), 0);
+    MethodInvocationSupport.InlineCache pic = (MethodInvocationSupport.InlineCache) append;
+    pic.depth = MethodInvocationSupport.InlineCache.MEGAMORPHIC_THRESHOLD + 1;
+
+    MethodHandle invoker = append.dynamicInvoker();
+    StringBuilder builder = new StringBuilder();
+    invoker.invoke(builder, "a");
+    invoker.invoke(builder, 1);
+    invoker.invoke(builder, 'c');
+    invoker.invoke(builder, 2L);
+    assertThat(builder.toString(), is("a1c2"));
+  }
+
+  @Test
+  public void merged_guards_keep_site_polymorphic() throws Throwable {
+    CallSite plop = MethodInvocationSupport.bootstrap(lookup(), "plop", methodType(Object.class, Object.class, Object.class), 0);
+    MethodInvocationSupport.InlineCache pic = (MethodInvocationSupport.InlineCache) plop;
+    MethodHandle invoker = plop.dynamicInvoker();
+    int kept = MethodInvocationSupport.keptPolymorphicSites();
+
+    Ploper[] plopers = {
+      new Ploper(), new Ploper() {}, new Ploper() {}, new Ploper() {},
+      new Ploper() {}, new Ploper() {}, new Ploper() {}, new Ploper() {}
+    };
+    for (int i = 0; i < 2; i++) {
+      for (Ploper ploper : plopers) {
+        assertThat(invoker.invoke(ploper, 42), is((Object) "42"));
+      }
+    }
+    assertThat(pic.depth, is(1));
+    assertThat(pic.isMegaMorphic(), is(false));
+    assertThat(pic.mergedClasses, is(plopers.length - 1));
+    assertThat(MethodInvocationSupport.keptPolymorphicSites(), is(kept + 1));
+
+    Ploper overriding = new Ploper() {
+      @Override
+      public String plop(Object obj) {
+        return "plop";
+      }
+    };
+    assertThat(invoker.invoke(overriding, 42), is((Object) "plop"));
+    assertThat(pic.depth, is(2));
+  }
+
   @Test
   public void dynamic_object_smoke_tests() throws Throwable {
     DynamicObject a = new DynamicObject();
@@ -12,6 +12,7 @@ package org.eclipse.golo.runtime;
 
 import org.testng.annotations.Test;
 
+import java.lang.invoke.CallSite;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodType;
 
@@ -281,4 +282,53 @@ public class OperatorSupportTest {
     assertThat((Integer) modulo.invokeWithArguments(four, two), is(0));
     assertThat((Long) modulo.invokeWithArguments(three_l, two), is(1L));
   }
+
+  @Test
+  public void mixed_operands_keep_polymorphic_targets() throws Throwable {
+    CallSite plus = OperatorSupport.bootstrap(lookup(), "plus", BINOP_TYPE, 2);
+    OperatorSupport.InlineCache pic = (OperatorSupport.InlineCache) plus;
+    MethodHandle handle = plus.dynamicInvoker();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(handle.invokeWithArguments(1, 2), is((Object) 3));
+      assertThat(handle.invokeWithArguments(1L, 2), is((Object) 3L));
+      assertThat(handle.invokeWithArguments(1.5, 2L), is((Object) 3.5));
+    }
+    assertThat(pic.depth, is(3));
+    assertThat(pic.isMegaMorphic(), is(false));
+  }
+
+  @Test
+  public void megamorphic_operators_dispatch_on_operand_classes() throws Throwable {
+    CallSite less = OperatorSupport.bootstrap(lookup(), "less", BINOP_TYPE, 2);
+    OperatorSupport.InlineCache pic = (OperatorSupport.InlineCache) less;
+    MethodHandle handle = less.dynamicInvoker();
+    Object[] values = {1, 2L, 3.0, 4.0f, '6', "7"};
+
+    for (Object left : values) {
+      for (Object right : values) {
+        if ((left instanceof String) == (right instanceof String)) {
+          handle.invokeWithArguments(left, right);
+        }
+      }
+    }
+    assertThat(pic.isMegaMorphic(), is(true));
+    assertThat(handle.invokeWithArguments(1, 2L), is((Object) true));
+    assertThat(handle.invokeWithArguments(2.5, 2), is((Object) false));
+    assertThat(handle.invokeWithArguments("a", "b"), is((Object) true));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void megamorphic_operators_reject_invalid_operands() throws Throwable {
+    CallSite minus = OperatorSupport.bootstrap(lookup(), "minus", BINOP_TYPE, 2);
+    MethodHandle handle = minus.dynamicInvoker();
+    Object[] values = {1, 2L, 3.0, 4.0f};
+    for (Object left : values) {
+      for (Object right : values) {
+        handle.invokeWithArguments(left, right);
+      }
+    }
+    assertThat(((OperatorSupport.InlineCache) minus).isMegaMorphic(), is(true));
+    handle.invokeWithArguments("a", 1);
+  }
 }
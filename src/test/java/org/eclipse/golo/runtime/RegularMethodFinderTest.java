@@ -46,4 +46,17 @@ public class RegularMethodFinderTest {
     assertThat(target, notNullValue());
     assertThat(finder.isOverloaded(), is(true));
   }
+
+  @Test
+  public void unrelated_varargs_methods_are_not_overloads() {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    MethodInvocation invocation = new MethodInvocation(
+        "concat",
+        methodType(String.class, String.class, String.class),
+        new Object[]{"Hello", "World"},
+        new String[] {});
+    RegularMethodFinder finder = new RegularMethodFinder(invocation, lookup);
+    assertThat(finder.find(), notNullValue());
+    assertThat(finder.isOverloaded(), is(false));
+  }
 }